@@ -0,0 +1,96 @@
+package org.example.vibemate.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.tika.parser.AutoDetectParser;
+import org.example.vibemate.config.DocumentConfig;
+import org.example.vibemate.document.ExtractedTextCache;
+import org.example.vibemate.service.impl.DocumentServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.util.FileSystemUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Upload text extraction end to end: temp file spooling, hashing, Tika parsing and chunking. With dedup
+ * on, every iteration uploads the same bytes and is served from the extracted text cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DocumentBenchmark {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    @Param({"64", "1024"})
+    public int sizeKb;
+
+    @Param({"true", "false"})
+    public boolean dedup;
+
+    private final AtomicLong uploads = new AtomicLong();
+    private Path cacheDir;
+    private DocumentServiceImpl documentService;
+    private byte[] document;
+
+    @Setup
+    public void setUp() throws IOException {
+        cacheDir = Files.createTempDirectory("extracted-text");
+        DocumentConfig config = new DocumentConfig();
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ExtractedTextCache cache = new ExtractedTextCache(config.getCacheMemoryChars(), cacheDir,
+                64L * 1024 * 1024, Schedulers.boundedElastic(), meterRegistry);
+        documentService = new DocumentServiceImpl(new AutoDetectParser(), config, cache, Schedulers.boundedElastic(),
+                Schedulers.boundedElastic(), meterRegistry);
+
+        StringBuilder text = new StringBuilder(sizeKb * 1024);
+        String sentence = "The quick brown fox jumps over the lazy dog while the companion takes notes. ";
+        while (text.length() < sizeKb * 1024) text.append(sentence);
+        document = text.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        FileSystemUtils.deleteRecursively(cacheDir);
+    }
+
+    @Benchmark
+    public Long extractText() {
+        return documentService.extractText(upload())
+                .map(String::length)
+                .reduce(0L, Long::sum)
+                .block();
+    }
+
+    private Flux<DataBuffer> upload() {
+        byte[] prefix = dedup ? new byte[0] : (uploads.incrementAndGet() + "\n").getBytes(StandardCharsets.UTF_8);
+        return Flux.concat(
+                Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(prefix)),
+                Flux.range(0, (document.length + BUFFER_SIZE - 1) / BUFFER_SIZE)
+                        .map(i -> DefaultDataBufferFactory.sharedInstance.wrap(ByteBuffer.wrap(document, i * BUFFER_SIZE,
+                                Math.min(BUFFER_SIZE, document.length - i * BUFFER_SIZE)))));
+    }
+}
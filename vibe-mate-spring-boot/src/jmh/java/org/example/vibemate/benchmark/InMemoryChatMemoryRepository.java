@@ -0,0 +1,61 @@
+package org.example.vibemate.benchmark;
+
+import org.example.vibemate.model.ChatMemoryEntry;
+import org.example.vibemate.model.ConversationSummary;
+import org.example.vibemate.repository.R2dbcChatMemoryRepository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stands in for the database so memory benchmarks measure window handling rather than Postgres.
+ */
+class InMemoryChatMemoryRepository extends R2dbcChatMemoryRepository {
+
+    private final Map<String, List<ChatMemoryEntry>> rows = new ConcurrentHashMap<>();
+
+    InMemoryChatMemoryRepository() {
+        super(null, null, Duration.ofSeconds(5));
+    }
+
+    @Override
+    public Flux<ChatMemoryEntry> recentEntries(String conversationId, Instant after, int limit) {
+        return Flux.defer(() -> {
+            List<ChatMemoryEntry> entries = rows.getOrDefault(conversationId, List.of());
+            synchronized (entries) {
+                return Flux.fromIterable(List.copyOf(entries.subList(Math.max(0, entries.size() - limit), entries.size())));
+            }
+        });
+    }
+
+    @Override
+    public Mono<ConversationSummary> summary(String conversationId) {
+        return Mono.empty();
+    }
+
+    @Override
+    public Mono<Void> appendAll(List<ChatMemoryEntry> entries) {
+        return Mono.fromRunnable(() -> entries.forEach(entry -> {
+            List<ChatMemoryEntry> entries = rows.computeIfAbsent(entry.conversationId(), id -> new ArrayList<>());
+            synchronized (entries) {
+                entries.add(entry);
+            }
+        }));
+    }
+
+    @Override
+    public Mono<Void> deleteSummary(String conversationId) {
+        return Mono.empty();
+    }
+
+    @Override
+    public Mono<Void> delete(String conversationId) {
+        return Mono.fromRunnable(() -> rows.remove(conversationId));
+    }
+}
@@ -0,0 +1,72 @@
+package org.example.vibemate.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.vibemate.config.ChatMemoryConfig;
+import org.example.vibemate.memory.WriteBehindChatMemory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.UserMessage;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One chat turn against the write-behind memory: read the window, then append the user message and
+ * the reply, spread over a population of conversations larger or smaller than the window cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class MemoryWindowBenchmark {
+
+    @Param({"1000", "50000"})
+    public int conversations;
+
+    private Scheduler scheduler;
+    private WriteBehindChatMemory chatMemory;
+    private final List<Message> turn = List.of(
+            new UserMessage("How was your day? Anything fun happen?"),
+            new AssistantMessage("Pretty great! I spent most of it thinking about our last chat about hiking."));
+
+    @Setup
+    public void setUp() {
+        ChatMemoryConfig config = new ChatMemoryConfig();
+        scheduler = Schedulers.newBoundedElastic(config.getThreads(), config.getQueueSize(), "bench-memory");
+        chatMemory = new WriteBehindChatMemory(new InMemoryChatMemoryRepository(), scheduler,
+                new SimpleMeterRegistry(), config, null);
+    }
+
+    @TearDown
+    public void tearDown() {
+        chatMemory.destroy();
+        scheduler.dispose();
+    }
+
+    @Benchmark
+    public int turn() {
+        String conversationId = Integer.toString(ThreadLocalRandom.current().nextInt(conversations));
+        int size = chatMemory.get(conversationId).size();
+        chatMemory.add(conversationId, turn);
+        return size;
+    }
+}
@@ -0,0 +1,65 @@
+package org.example.vibemate.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.vibemate.config.PromptConfig;
+import org.example.vibemate.dto.BotConfig;
+import org.example.vibemate.dto.UserInfo;
+import org.example.vibemate.prompt.PersonaTemplate;
+import org.example.vibemate.service.impl.PromptServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PromptBenchmark {
+
+    private PersonaTemplate template;
+    private PromptServiceImpl promptService;
+    private Map<String, String> values;
+    private UserInfo user;
+    private BotConfig bot;
+
+    @Setup
+    public void setUp() {
+        PromptConfig config = new PromptConfig();
+        template = PersonaTemplate.parse(config.getTemplate());
+        promptService = new PromptServiceImpl(template, config, new SimpleMeterRegistry());
+        UUID userId = UUID.randomUUID();
+        user = new UserInfo(userId, "Alex Doe", 29, "woman");
+        bot = new BotConfig(userId, "Milo", "curious and upbeat", "playful", "best friend", true);
+        values = Map.of(
+                "botName", bot.botName(),
+                "botRole", bot.role(),
+                "tone", bot.tone(),
+                "personality", bot.personality(),
+                "userName", user.fullName(),
+                "userAge", user.age().toString(),
+                "userGender", user.gender());
+    }
+
+    @Benchmark
+    public String render() {
+        return template.render(values);
+    }
+
+    @Benchmark
+    public String cachedSystemPrompt() {
+        return promptService.systemPrompt(bot, user);
+    }
+}
@@ -0,0 +1,53 @@
+package org.example.vibemate.benchmark;
+
+import org.example.vibemate.streaming.TokenFramer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenFramerBenchmark {
+
+    @Param({"256", "2048"})
+    public int tokens;
+
+    private TokenFramer tokenFramer;
+    private List<String> answer;
+
+    @Setup
+    public void setUp() {
+        tokenFramer = new TokenFramer(24, Duration.ofMillis(30), 10_000, Duration.ofMinutes(2),
+                Duration.ofSeconds(30));
+        answer = new ArrayList<>(tokens);
+        for (int i = 0; i < tokens; i++) answer.add(i % 12 == 11 ? ".\n" : " word");
+    }
+
+    @Benchmark
+    public Long frames() {
+        return tokenFramer.frames(Flux.fromIterable(answer)).count().block();
+    }
+
+    @Benchmark
+    public Long events() {
+        return tokenFramer.events(Flux.fromIterable(answer)).count().block();
+    }
+}
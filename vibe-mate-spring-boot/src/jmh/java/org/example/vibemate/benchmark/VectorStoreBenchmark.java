@@ -0,0 +1,190 @@
+package org.example.vibemate.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.vibemate.config.HnswConfig;
+import org.example.vibemate.vectorstore.HnswVectorStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Per-user retrieval against the in-process HNSW store next to an exact scan of the same user's
+ * vectors, which is the recall baseline and roughly what a remote store costs before the network
+ * hop. Recall@k of the HNSW results against the exact scan is printed at the end of each trial.
+ * Compare with the Chroma path end to end via the load test (load.vectorStore=chroma|hnsw).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VectorStoreBenchmark {
+
+    private static final int TOP_K = 4;
+    private static final int QUERIES = 256;
+
+    @Param({"10000", "50000"})
+    public int documents;
+
+    @Param({"1", "100"})
+    public int users;
+
+    @Param({"768"})
+    public int dimensions;
+
+    private final Map<String, float[]> embeddings = new ConcurrentHashMap<>();
+    private Path dataDir;
+    private HnswVectorStore store;
+    private List<List<Integer>> userDocuments;
+    private float[][] vectors;
+
+    @Setup
+    public void setUp() throws IOException {
+        Random random = new Random(42);
+        vectors = new float[documents + QUERIES][];
+        for (int i = 0; i < vectors.length; i++) {
+            float[] vector = new float[dimensions];
+            for (int j = 0; j < dimensions; j++) vector[j] = random.nextFloat();
+            vectors[i] = normalize(vector);
+        }
+        for (int i = 0; i < documents; i++) embeddings.put("doc-" + i, vectors[i]);
+        for (int q = 0; q < QUERIES; q++) embeddings.put("query-" + q, vectors[documents + q]);
+
+        userDocuments = new ArrayList<>();
+        for (int u = 0; u < users; u++) userDocuments.add(new ArrayList<>());
+        for (int i = 0; i < documents; i++) userDocuments.get(i % users).add(i);
+
+        HnswConfig config = new HnswConfig();
+        dataDir = Files.createTempDirectory("hnsw-bench");
+        config.setDataDir(dataDir.toString());
+        config.setSnapshotEvery(Integer.MAX_VALUE);
+        store = new HnswVectorStore(new LookupEmbeddingModel(), new ObjectMapper(), "userId", config,
+                new SimpleMeterRegistry());
+        List<Document> batch = new ArrayList<>();
+        for (int i = 0; i < documents; i++) {
+            batch.add(new Document("doc-" + i, "doc-" + i, Map.of("userId", "user-" + (i % users))));
+            if (batch.size() == 1000 || i == documents - 1) {
+                store.add(batch);
+                batch = new ArrayList<>();
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        int hits = 0;
+        for (int q = 0; q < QUERIES; q++) {
+            int user = q % users;
+            Set<String> expected = new HashSet<>(exact(user, q));
+            for (Document document : store.similaritySearch(request(user, q))) {
+                if (expected.contains(document.getId())) hits++;
+            }
+        }
+        System.out.printf("%nrecall@%d documents=%d users=%d: %.4f%n", TOP_K, documents, users,
+                hits / (double) (QUERIES * TOP_K));
+        store.destroy();
+        FileSystemUtils.deleteRecursively(dataDir);
+    }
+
+    @Benchmark
+    public List<Document> hnsw() {
+        int q = ThreadLocalRandom.current().nextInt(QUERIES);
+        return store.similaritySearch(request(q % users, q));
+    }
+
+    @Benchmark
+    public List<String> exact() {
+        int q = ThreadLocalRandom.current().nextInt(QUERIES);
+        return exact(q % users, q);
+    }
+
+    private SearchRequest request(int user, int q) {
+        return SearchRequest.builder()
+                .query("query-" + q)
+                .topK(TOP_K)
+                .similarityThreshold(SearchRequest.SIMILARITY_THRESHOLD_ACCEPT_ALL)
+                .filterExpression("userId == 'user-" + user + "'")
+                .build();
+    }
+
+    private List<String> exact(int user, int q) {
+        float[] query = vectors[documents + q];
+        return userDocuments.get(user).stream()
+                .sorted(Comparator.comparingDouble((Integer i) -> dot(query, vectors[i])).reversed())
+                .limit(TOP_K)
+                .map(i -> "doc-" + i)
+                .toList();
+    }
+
+    private static double dot(float[] a, float[] b) {
+        double dot = 0;
+        for (int i = 0; i < a.length; i++) dot += a[i] * b[i];
+        return dot;
+    }
+
+    private static float[] normalize(float[] vector) {
+        double norm = Math.sqrt(dot(vector, vector));
+        for (int i = 0; i < vector.length; i++) vector[i] /= (float) norm;
+        return vector;
+    }
+
+    /** Returns the precomputed vector for a text so the benchmark measures only the store. */
+    private class LookupEmbeddingModel implements EmbeddingModel {
+
+        @Override
+        public EmbeddingResponse call(EmbeddingRequest request) {
+            List<String> texts = request.getInstructions();
+            return new EmbeddingResponse(IntStream.range(0, texts.size())
+                    .mapToObj(i -> new Embedding(embed(texts.get(i)), i))
+                    .toList());
+        }
+
+        @Override
+        public float[] embed(String text) {
+            return embeddings.get(text);
+        }
+
+        @Override
+        public float[] embed(Document document) {
+            return embed(document.getText());
+        }
+
+        @Override
+        public int dimensions() {
+            return dimensions;
+        }
+    }
+}
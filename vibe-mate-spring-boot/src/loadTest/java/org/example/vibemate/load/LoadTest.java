@@ -0,0 +1,259 @@
+package org.example.vibemate.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.example.vibemate.VibeMateApplication;
+import org.example.vibemate.dto.ChatRequest;
+import org.example.vibemate.warmup.StartupWarmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.reactive.context.ReactiveWebServerApplicationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Boots the app against stub Ollama and Chroma servers and an in-memory H2 database in PostgreSQL
+ * mode, drives /api/chat at a fixed concurrency and reports requests/s, client-side TTFT percentiles
+ * and the allocation rate of the JVM. Settings are read from load.* system properties; when
+ * load.maxTtftP95Ms or load.minRps is set and missed, the run exits non-zero so CI fails.
+ * load.vectorStore=hnsw swaps the stub Chroma for the in-process HNSW store. load.ollamaBackends=N
+ * starts N stub Ollama nodes behind the router, and load.stopBackendAfterMs stops the first one that
+ * long into the measured run to exercise failover. load.execution=platform|virtual picks where the
+ * blocking stages run, so the two modes can be compared on throughput and tail latency. Load starts
+ * once the readiness probe reports the startup warm-up done.
+ */
+public class LoadTest {
+
+    private static final String MESSAGE = "Tell me something interesting you learned about the ocean today.";
+
+    public static void main(String[] args) throws Exception {
+        int requests = Integer.getInteger("load.requests", 500);
+        int warmup = Integer.getInteger("load.warmup", 50);
+        int concurrency = Integer.getInteger("load.concurrency", 32);
+        int users = Integer.getInteger("load.users", 64);
+        int tokens = Integer.getInteger("load.tokens", 64);
+        Duration firstToken = Duration.ofMillis(Long.getLong("load.firstTokenMs", 50));
+        Duration tokenInterval = Duration.ofMillis(Long.getLong("load.tokenIntervalMs", 5));
+        Duration embedLatency = Duration.ofMillis(Long.getLong("load.embedMs", 5));
+        Duration queryLatency = Duration.ofMillis(Long.getLong("load.chromaMs", 5));
+        int dimensions = Integer.getInteger("load.dimensions", 768);
+        String vectorStore = System.getProperty("load.vectorStore", "chroma");
+        String execution = System.getProperty("load.execution", "platform");
+        int backends = Integer.getInteger("load.ollamaBackends", 1);
+        long stopBackendAfterMs = Long.getLong("load.stopBackendAfterMs", 0);
+        long maxTtftP95Ms = Long.getLong("load.maxTtftP95Ms", 0);
+        double minRps = Double.parseDouble(System.getProperty("load.minRps", "0"));
+        Path reportPath = Path.of(args.length > 0 ? args[0] : "build/reports/load-test/report.json");
+
+        Map<String, Object> report;
+        List<StubOllamaServer> ollamas = new ArrayList<>();
+        try {
+            for (int i = 0; i < backends; i++) {
+                ollamas.add(new StubOllamaServer(firstToken, tokenInterval, tokens, embedLatency, dimensions));
+            }
+            try (StubChromaServer chroma = new StubChromaServer(queryLatency);
+                 ReactiveWebServerApplicationContext context = boot(ollamas, chroma, vectorStore, execution)) {
+                List<UUID> userIds = seed(context.getBean(DatabaseClient.class), users);
+                WebClient client = WebClient.create("http://localhost:" + context.getWebServer().getPort());
+                awaitReady(client);
+
+                run(client, userIds, warmup, concurrency, new Results());
+                Results results = new Results();
+                com.sun.management.ThreadMXBean threads =
+                        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+                long allocatedBefore = threads.getTotalThreadAllocatedBytes();
+                Disposable stopBackend = stopBackendAfterMs > 0
+                        ? Mono.delay(Duration.ofMillis(stopBackendAfterMs)).subscribe(tick -> ollamas.get(0).close())
+                        : Disposables.disposed();
+                long start = System.nanoTime();
+                run(client, userIds, requests, concurrency, results);
+                stopBackend.dispose();
+                double seconds = (System.nanoTime() - start) / 1e9;
+                long allocated = threads.getTotalThreadAllocatedBytes() - allocatedBefore;
+
+                report = new LinkedHashMap<>();
+                report.put("vectorStore", vectorStore);
+                report.put("execution", execution);
+                report.put("ollamaBackends", backends);
+                report.put("timeToReadyMs", context.getBean(StartupWarmup.class).timeToReadyMillis());
+                report.put("chatsPerBackend", ollamas.stream().map(StubOllamaServer::chats).toList());
+                report.put("requests", requests);
+                report.put("concurrency", concurrency);
+                report.put("tokensPerAnswer", tokens);
+                report.put("completed", results.ttft.size());
+                report.put("rejected", results.rejected.get());
+                report.put("failed", results.failed.get());
+                report.put("durationSeconds", round(seconds));
+                report.put("requestsPerSecond", round(results.ttft.size() / seconds));
+                report.put("ttftMs", percentiles(results.ttft));
+                report.put("totalMs", percentiles(results.total));
+                report.put("allocationMBPerSecond", round(allocated / seconds / (1024 * 1024)));
+                report.put("allocatedKBPerRequest", round(allocated / 1024.0 / Math.max(1, requests)));
+            }
+        } finally {
+            ollamas.forEach(StubOllamaServer::close);
+        }
+
+        ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        String json = mapper.writeValueAsString(report);
+        Files.createDirectories(reportPath.toAbsolutePath().getParent());
+        Files.writeString(reportPath, json);
+        System.out.println(json);
+
+        List<String> violations = new ArrayList<>();
+        @SuppressWarnings("unchecked")
+        double ttftP95 = ((Map<String, Double>) report.get("ttftMs")).get("p95");
+        double rps = (double) report.get("requestsPerSecond");
+        if (maxTtftP95Ms > 0 && ttftP95 > maxTtftP95Ms) {
+            violations.add("TTFT p95 %.1fms exceeds %dms".formatted(ttftP95, maxTtftP95Ms));
+        }
+        if (minRps > 0 && rps < minRps) {
+            violations.add("%.1f requests/s is below %.1f".formatted(rps, minRps));
+        }
+        if (!violations.isEmpty()) {
+            violations.forEach(System.err::println);
+            System.exit(1);
+        }
+        System.exit(0);
+    }
+
+    private static ReactiveWebServerApplicationContext boot(List<StubOllamaServer> ollamas, StubChromaServer chroma,
+                                                            String vectorStore, String execution)
+            throws IOException {
+        Path dataDir = Files.createTempDirectory("vibe-mate-load");
+        List<String> properties = new ArrayList<>(List.of(
+                "server.port=0",
+                "spring.r2dbc.url=r2dbc:h2:mem:///vibemate;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+                "spring.r2dbc.username=sa",
+                "spring.r2dbc.password=",
+                "spring.sql.init.schema-locations=classpath:loadtest-schema.sql",
+                "spring.ai.ollama.base-url=" + ollamas.get(0).baseUrl(),
+                "spring.ai.vector-store.chroma.client.host=" + chroma.host(),
+                "spring.ai.vector-store.chroma.client.port=" + chroma.port(),
+                "spring.ai.vector-store.type=" + vectorStore,
+                "vibe-mate.hnsw.data-dir=" + dataDir.resolve("vectors"),
+                "vibe-mate.execution.mode=" + execution,
+                "vibe-mate.embedding-cache.persist-path=",
+                "vibe-mate.upload.cache-dir=" + dataDir.resolve("uploads"),
+                "logging.level.root=WARN"));
+        if (ollamas.size() > 1) {
+            properties.add("spring.ai.model.chat=ollama-routing");
+            properties.add("spring.ai.model.embedding=ollama-routing");
+            properties.add("vibe-mate.ollama-routing.health-interval=1s");
+            for (int i = 0; i < ollamas.size(); i++) {
+                properties.add("vibe-mate.ollama-routing.default-backends[%d]=%s".formatted(i, ollamas.get(i).baseUrl()));
+            }
+        }
+        return (ReactiveWebServerApplicationContext) new SpringApplicationBuilder(VibeMateApplication.class)
+                .web(WebApplicationType.REACTIVE)
+                .run(properties.stream().map(property -> "--" + property).toArray(String[]::new));
+    }
+
+    private static List<UUID> seed(DatabaseClient databaseClient, int users) {
+        List<UUID> userIds = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) userIds.add(UUID.randomUUID());
+        Flux.fromIterable(userIds)
+                .concatMap(userId -> databaseClient
+                        .sql("INSERT INTO users (user_id, full_name, age, gender) VALUES (:userId, :name, 30, 'user')")
+                        .bind("userId", userId)
+                        .bind("name", "Load User " + userId.toString().substring(0, 8))
+                        .then()
+                        .then(databaseClient
+                                .sql("INSERT INTO bot (user_id, bot_name, personality, tone, role) "
+                                        + "VALUES (:userId, 'Milo', 'curious', 'playful', 'friend')")
+                                .bind("userId", userId)
+                                .then()))
+                .blockLast();
+        return userIds;
+    }
+
+    private static void awaitReady(WebClient client) {
+        client.get()
+                .uri("/actuator/health/readiness")
+                .retrieve()
+                .toBodilessEntity()
+                .retryWhen(Retry.fixedDelay(Long.MAX_VALUE, Duration.ofMillis(100)))
+                .block(Duration.ofMinutes(5));
+    }
+
+    private static void run(WebClient client, List<UUID> userIds, int requests, int concurrency, Results results) {
+        Flux.range(0, requests)
+                .flatMap(i -> chat(client, userIds.get(i % userIds.size()), results), concurrency)
+                .blockLast();
+    }
+
+    private static Mono<Void> chat(WebClient client, UUID userId, Results results) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            AtomicInteger frames = new AtomicInteger();
+            return client.post()
+                    .uri("/api/chat")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(new ChatRequest(userId, MESSAGE))
+                    .retrieve()
+                    .bodyToFlux(String.class)
+                    .doOnNext(frame -> {
+                        if (frames.getAndIncrement() == 0) results.ttft.add(System.nanoTime() - start);
+                    })
+                    .then(Mono.fromRunnable(() -> results.total.add(System.nanoTime() - start)))
+                    .onErrorResume(WebClientResponseException.class, ex -> {
+                        if (ex.getStatusCode() == HttpStatus.TOO_MANY_REQUESTS) results.rejected.incrementAndGet();
+                        else results.failed.incrementAndGet();
+                        return Mono.empty();
+                    })
+                    .onErrorResume(ex -> {
+                        results.failed.incrementAndGet();
+                        return Mono.empty();
+                    })
+                    .then();
+        });
+    }
+
+    private static Map<String, Double> percentiles(ConcurrentLinkedQueue<Long> samples) {
+        long[] sorted = samples.stream().mapToLong(Long::longValue).sorted().toArray();
+        Map<String, Double> percentiles = new LinkedHashMap<>();
+        for (double p : new double[]{0.5, 0.9, 0.95, 0.99}) {
+            percentiles.put("p" + (int) Math.round(p * 100), millis(sorted, p));
+        }
+        percentiles.put("max", sorted.length == 0 ? 0 : round(sorted[sorted.length - 1] / 1e6));
+        return percentiles;
+    }
+
+    private static double millis(long[] sorted, double percentile) {
+        if (sorted.length == 0) return 0;
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return round(sorted[Math.max(0, Math.min(sorted.length - 1, index))] / 1e6);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 10) / 10.0;
+    }
+
+    private static final class Results {
+        private final ConcurrentLinkedQueue<Long> ttft = new ConcurrentLinkedQueue<>();
+        private final ConcurrentLinkedQueue<Long> total = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger rejected = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+    }
+}
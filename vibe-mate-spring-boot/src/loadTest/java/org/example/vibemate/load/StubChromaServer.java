@@ -0,0 +1,74 @@
+package org.example.vibemate.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+
+/**
+ * Answers Chroma's tenant, database and collection lookups with a single fixed collection, accepts
+ * writes, and returns empty query results after a fixed latency.
+ */
+class StubChromaServer implements AutoCloseable {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String COLLECTION_ID = "00000000-0000-0000-0000-00000000c0de";
+
+    private final HttpServer server;
+    private final Duration queryLatency;
+
+    StubChromaServer(Duration queryLatency) throws IOException {
+        this.queryLatency = queryLatency;
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/", this::handle);
+        server.start();
+    }
+
+    String host() {
+        return "http://localhost";
+    }
+
+    int port() {
+        return server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        exchange.getRequestBody().readAllBytes();
+        String path = exchange.getRequestURI().getPath();
+        ObjectNode response = MAPPER.createObjectNode();
+        if (path.endsWith("/query")) {
+            StubOllamaServer.sleep(queryLatency);
+            response.putArray("ids").addArray();
+            response.putArray("documents").addArray();
+            response.putArray("metadatas").addArray();
+            response.putArray("distances").addArray();
+            response.putArray("embeddings").addArray();
+        } else if ("GET".equals(exchange.getRequestMethod()) || path.endsWith("/collections")
+                || path.endsWith("/databases") || path.endsWith("/tenants")) {
+            String name = path.substring(path.lastIndexOf('/') + 1);
+            response.put("id", COLLECTION_ID);
+            response.put("name", name);
+            response.put("tenant", "default_tenant");
+            response.put("database", "default_database");
+            response.putObject("metadata");
+        }
+        byte[] bytes = MAPPER.writeValueAsBytes(response);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream body = exchange.getResponseBody()) {
+            body.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
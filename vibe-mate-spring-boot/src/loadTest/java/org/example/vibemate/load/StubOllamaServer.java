@@ -0,0 +1,163 @@
+package org.example.vibemate.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Imitates Ollama's streaming /api/chat, batched /api/embed, /api/version and the /api/generate model
+ * preload with a fixed time to first token, a fixed token rate and a fixed embedding latency, so the
+ * app can be driven without a model.
+ */
+class StubOllamaServer implements AutoCloseable {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String[] WORDS = {" sure", " that", " sounds", " fun", ",", " tell", " me", " more", "."};
+
+    private final HttpServer server;
+    private final Duration firstTokenLatency;
+    private final Duration tokenInterval;
+    private final int tokens;
+    private final Duration embedLatency;
+    private final int dimensions;
+    private final AtomicInteger chats = new AtomicInteger();
+    private final AtomicBoolean stopped = new AtomicBoolean();
+
+    StubOllamaServer(Duration firstTokenLatency, Duration tokenInterval, int tokens, Duration embedLatency,
+                     int dimensions) throws IOException {
+        this.firstTokenLatency = firstTokenLatency;
+        this.tokenInterval = tokenInterval;
+        this.tokens = tokens;
+        this.embedLatency = embedLatency;
+        this.dimensions = dimensions;
+        this.server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/api/chat", this::chat);
+        server.createContext("/api/embed", this::embed);
+        server.createContext("/api/version", this::version);
+        server.createContext("/api/generate", this::generate);
+        server.start();
+    }
+
+    String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    int chats() {
+        return chats.get();
+    }
+
+    private void chat(HttpExchange exchange) throws IOException {
+        chats.incrementAndGet();
+        JsonNode request = MAPPER.readTree(exchange.getRequestBody());
+        String model = request.path("model").asText("stub");
+        int promptChars = 0;
+        for (JsonNode message : request.path("messages")) promptChars += message.path("content").asText().length();
+
+        exchange.getResponseHeaders().set("Content-Type", "application/x-ndjson");
+        exchange.sendResponseHeaders(200, 0);
+        try (OutputStream body = exchange.getResponseBody()) {
+            sleep(firstTokenLatency);
+            for (int i = 0; i < tokens; i++) {
+                if (i > 0) sleep(tokenInterval);
+                writeLine(body, chunk(model, WORDS[i % WORDS.length], false));
+            }
+            ObjectNode done = chunk(model, "", true);
+            done.put("done_reason", "stop");
+            done.put("prompt_eval_count", promptChars / 4);
+            done.put("eval_count", tokens);
+            writeLine(body, done);
+        }
+    }
+
+    private void embed(HttpExchange exchange) throws IOException {
+        JsonNode request = MAPPER.readTree(exchange.getRequestBody());
+        JsonNode input = request.path("input");
+        int count = input.isArray() ? input.size() : 1;
+        sleep(embedLatency);
+
+        ObjectNode response = MAPPER.createObjectNode();
+        response.put("model", request.path("model").asText("stub"));
+        ArrayNode embeddings = response.putArray("embeddings");
+        for (int i = 0; i < count; i++) {
+            Random random = new Random(input.isArray() ? input.get(i).asText().hashCode() : input.asText().hashCode());
+            ArrayNode vector = embeddings.addArray();
+            for (int d = 0; d < dimensions; d++) vector.add(random.nextFloat() - 0.5f);
+        }
+        byte[] bytes = MAPPER.writeValueAsBytes(response);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream body = exchange.getResponseBody()) {
+            body.write(bytes);
+        }
+    }
+
+    private void version(HttpExchange exchange) throws IOException {
+        byte[] bytes = "{\"version\":\"stub\"}".getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream body = exchange.getResponseBody()) {
+            body.write(bytes);
+        }
+    }
+
+    private void generate(HttpExchange exchange) throws IOException {
+        JsonNode request = MAPPER.readTree(exchange.getRequestBody());
+        ObjectNode response = MAPPER.createObjectNode();
+        response.put("model", request.path("model").asText("stub"));
+        response.put("created_at", Instant.now().toString());
+        response.put("response", "");
+        response.put("done", true);
+        byte[] bytes = MAPPER.writeValueAsBytes(response);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream body = exchange.getResponseBody()) {
+            body.write(bytes);
+        }
+    }
+
+    private ObjectNode chunk(String model, String content, boolean done) {
+        ObjectNode chunk = MAPPER.createObjectNode();
+        chunk.put("model", model);
+        chunk.put("created_at", Instant.now().toString());
+        ObjectNode message = chunk.putObject("message");
+        message.put("role", "assistant");
+        message.put("content", content);
+        chunk.put("done", done);
+        return chunk;
+    }
+
+    private static void writeLine(OutputStream body, JsonNode line) throws IOException {
+        body.write(MAPPER.writeValueAsBytes(line));
+        body.write('\n');
+        body.flush();
+    }
+
+    static void sleep(Duration duration) {
+        if (duration.isZero()) return;
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (stopped.compareAndSet(false, true)) server.stop(0);
+    }
+}
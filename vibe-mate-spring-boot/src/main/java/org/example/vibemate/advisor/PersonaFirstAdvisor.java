@@ -0,0 +1,72 @@
+package org.example.vibemate.advisor;
+
+import org.example.vibemate.memory.WriteBehindChatMemory;
+import org.example.vibemate.service.PromptService;
+import org.springframework.ai.chat.client.ChatClientRequest;
+import org.springframework.ai.chat.client.ChatClientResponse;
+import org.springframework.ai.chat.client.advisor.api.Advisor;
+import org.springframework.ai.chat.client.advisor.api.AdvisorChain;
+import org.springframework.ai.chat.client.advisor.api.BaseAdvisor;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.SystemMessage;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Runs right after the chat memory advisor, which puts memory ahead of the request's own messages, and
+ * moves the persona system prompt back to the front so every turn of a conversation starts with the
+ * same tokens. Then asks the prompt service whether the prompt extends the previous one of the
+ * conversation, which is what lets Ollama reuse its cached prefix; {@link #prefix()} reports the answer
+ * as "warm" or "cold" for the time-to-first-token metric. One instance serves one request.
+ */
+public class PersonaFirstAdvisor implements BaseAdvisor {
+
+    private final PromptService promptService;
+    private final UUID conversationId;
+    private volatile String prefix = "cold";
+
+    public PersonaFirstAdvisor(PromptService promptService, UUID conversationId) {
+        this.promptService = promptService;
+        this.conversationId = conversationId;
+    }
+
+    public String prefix() {
+        return prefix;
+    }
+
+    @Override
+    public ChatClientRequest before(ChatClientRequest request, AdvisorChain advisorChain) {
+        List<Message> messages = request.prompt().getInstructions();
+        List<Message> ordered = new ArrayList<>(messages.size());
+        messages.stream().filter(PersonaFirstAdvisor::isPersona).forEach(ordered::add);
+        messages.stream().filter(message -> !isPersona(message)).forEach(ordered::add);
+        prefix = promptService.pin(conversationId, ordered) ? "warm" : "cold";
+        return request.mutate()
+                .prompt(request.prompt().mutate().messages(ordered).build())
+                .build();
+    }
+
+    @Override
+    public ChatClientResponse after(ChatClientResponse response, AdvisorChain advisorChain) {
+        return response;
+    }
+
+    @Override
+    public Scheduler getScheduler() {
+        return Schedulers.immediate();
+    }
+
+    @Override
+    public int getOrder() {
+        return Advisor.DEFAULT_CHAT_MEMORY_PRECEDENCE_ORDER + 1;
+    }
+
+    private static boolean isPersona(Message message) {
+        return message instanceof SystemMessage
+                && !message.getMetadata().containsKey(WriteBehindChatMemory.SUMMARY_METADATA);
+    }
+}
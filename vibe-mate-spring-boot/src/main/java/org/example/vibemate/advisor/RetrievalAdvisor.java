@@ -0,0 +1,75 @@
+package org.example.vibemate.advisor;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.example.vibemate.metrics.ChatMetrics;
+import org.springframework.ai.chat.client.ChatClientRequest;
+import org.springframework.ai.chat.client.ChatClientResponse;
+import org.springframework.ai.chat.client.advisor.api.AdvisorChain;
+import org.springframework.ai.chat.client.advisor.api.BaseAdvisor;
+import org.springframework.ai.chat.client.advisor.vectorstore.QuestionAnswerAdvisor;
+import org.springframework.ai.chat.memory.ChatMemory;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * Single RAG stage for every chat call: skips trivially short queries, scopes the search to the
+ * conversation's user and times the vector store lookup on its own, tagged with the endpoint and model
+ * the calling service put in the advisor context. The embedding call and vector store search block, so
+ * streaming requests run this stage on its own scheduler.
+ */
+public class RetrievalAdvisor implements BaseAdvisor {
+
+    private final QuestionAnswerAdvisor delegate;
+    private final int minQueryLength;
+    private final String userMetadataKey;
+    private final Scheduler scheduler;
+    private final MeterRegistry meterRegistry;
+    private final Counter skippedCounter;
+
+    public RetrievalAdvisor(QuestionAnswerAdvisor delegate, int minQueryLength, String userMetadataKey,
+                            Scheduler scheduler, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.minQueryLength = minQueryLength;
+        this.userMetadataKey = userMetadataKey;
+        this.scheduler = scheduler;
+        this.meterRegistry = meterRegistry;
+        this.skippedCounter = Counter.builder("chat.retrieval.skipped")
+                .description("Requests whose query was too short to retrieve for")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public ChatClientRequest before(ChatClientRequest request, AdvisorChain advisorChain) {
+        String query = request.prompt().getUserMessage().getText();
+        if (query == null || query.strip().length() < minQueryLength) {
+            skippedCounter.increment();
+            return request;
+        }
+        Object userId = request.context().get(ChatMemory.CONVERSATION_ID);
+        ChatClientRequest scoped = userMetadataKey == null || userId == null
+                ? request
+                : request.mutate()
+                        .context(QuestionAnswerAdvisor.FILTER_EXPRESSION, "%s == '%s'".formatted(userMetadataKey, userId))
+                        .build();
+        Timer retrievalTimer = ChatMetrics.stageTimer(meterRegistry, "retrieval",
+                ChatMetrics.endpoint(request.context()), ChatMetrics.model(request.context()));
+        return retrievalTimer.record(() -> delegate.before(scoped, advisorChain));
+    }
+
+    @Override
+    public ChatClientResponse after(ChatClientResponse response, AdvisorChain advisorChain) {
+        if (!response.context().containsKey(QuestionAnswerAdvisor.RETRIEVED_DOCUMENTS)) return response;
+        return delegate.after(response, advisorChain);
+    }
+
+    @Override
+    public Scheduler getScheduler() {
+        return scheduler;
+    }
+
+    @Override
+    public int getOrder() {
+        return delegate.getOrder();
+    }
+}
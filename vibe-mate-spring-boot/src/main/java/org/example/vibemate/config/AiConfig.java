@@ -1,77 +1,23 @@
 package org.example.vibemate.config;
 
-import lombok.Getter;
-import lombok.Setter;
+import org.example.vibemate.advisor.RetrievalAdvisor;
 import org.springframework.ai.chat.client.ChatClient;
-import org.springframework.ai.chat.client.advisor.vectorstore.QuestionAnswerAdvisor;
-import org.springframework.ai.chat.memory.ChatMemory;
-import org.springframework.ai.chat.memory.ChatMemoryRepository;
-import org.springframework.ai.chat.memory.MessageWindowChatMemory;
-import org.springframework.ai.chat.memory.repository.jdbc.JdbcChatMemoryRepository;
-import org.springframework.ai.chat.memory.repository.jdbc.PostgresChatMemoryRepositoryDialect;
-import org.springframework.ai.ollama.OllamaChatModel;
-import org.springframework.ai.vectorstore.SearchRequest;
-import org.springframework.ai.vectorstore.VectorStore;
-import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.ai.chat.model.ChatModel;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
 
-import javax.sql.DataSource;
-
-@Setter
-@Getter
 @Configuration
-@ConfigurationProperties("spring.ai.jdbc.chat.memory")
 public class AiConfig {
 
-    private String className;
-    private String url;
-    private String username;
-    private String password;
-    private int maxMessages;
-
-    @Bean
-    public DataSource dataSource() {
-        DriverManagerDataSource ds = new DriverManagerDataSource();
-        ds.setDriverClassName(className);
-        ds.setUrl(url);
-        ds.setUsername(username);
-        ds.setPassword(password);
-        return ds;
-    }
-
-    @Bean
-    public JdbcTemplate jdbcTemplate(DataSource dataSource) {
-        return new JdbcTemplate(dataSource);
-    }
-
     @Bean
-    public ChatClient chatClient(OllamaChatModel ollamaChatModel, VectorStore vectorStore) {
-        return ChatClient.builder(ollamaChatModel)
-                .defaultAdvisors(
-                        QuestionAnswerAdvisor.builder(vectorStore)
-                                .searchRequest(SearchRequest.builder().build())
-                                .build()
-                )
+    public ChatClient chatClient(ChatModel chatModel, RetrievalAdvisor retrievalAdvisor) {
+        return ChatClient.builder(chatModel)
+                .defaultAdvisors(retrievalAdvisor)
                 .build();
     }
 
     @Bean
-    public ChatMemoryRepository chatMemoryRepository(JdbcTemplate jdbcTemplate) {
-        return JdbcChatMemoryRepository.builder()
-                .jdbcTemplate(jdbcTemplate)
-                .dialect(new PostgresChatMemoryRepositoryDialect())
-                .build();
-    }
-
-    @Bean
-    public ChatMemory createChatMemory(ChatMemoryRepository chatMemoryRepository) {
-        return MessageWindowChatMemory.builder()
-                .chatMemoryRepository(chatMemoryRepository)
-                .maxMessages(maxMessages)
-                .build();
+    public ChatClient documentChatClient(ChatModel chatModel) {
+        return ChatClient.builder(chatModel).build();
     }
 }
-
@@ -0,0 +1,16 @@
+package org.example.vibemate.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties("vibe-mate.bulk-import")
+public class BulkImportConfig {
+
+    private int batchSize = 500;
+    private int concurrency = 4;
+}
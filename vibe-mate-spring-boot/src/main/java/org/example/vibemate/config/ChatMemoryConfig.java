@@ -0,0 +1,92 @@
+package org.example.vibemate.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.example.vibemate.generation.GenerationScheduler;
+import org.example.vibemate.memory.ConversationSummarizer;
+import org.example.vibemate.memory.WriteBehindChatMemory;
+import org.example.vibemate.metrics.ChatMetrics;
+import org.example.vibemate.repository.ChatMemoryPartitionManager;
+import org.example.vibemate.repository.PartitionedChatMemoryRepository;
+import org.example.vibemate.repository.R2dbcChatMemoryRepository;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties("vibe-mate.chat-memory")
+public class ChatMemoryConfig {
+
+    private int maxMessages = 50;
+    private int threads = 16;
+    private int queueSize = 1000;
+    private Duration timeout = Duration.ofSeconds(5);
+    private long cacheSize = 10_000;
+    private Duration cacheTtl = Duration.ofMinutes(30);
+    private Duration flushInterval = Duration.ofMillis(500);
+    private int historyPageSize = 50;
+    private int historyMaxPageSize = 500;
+    private boolean compaction = true;
+    private int keepMessages = 12;
+    private int compactBatch = 8;
+    private int tokenBudget = 1500;
+    private int summaryWords = 150;
+    private int summaryConcurrency = 2;
+    private Storage storage = Storage.LEGACY;
+    private Duration retention = Duration.ofDays(90);
+    private int premakeDays = 3;
+    private Duration maintenanceInterval = Duration.ofHours(1);
+    private boolean archive = true;
+    private int archiveBatch = 200;
+
+    @Bean(destroyMethod = "dispose")
+    public Scheduler chatMemoryScheduler(ExecutionConfig executionConfig) {
+        return executionConfig.scheduler("chat-memory", threads, queueSize);
+    }
+
+    @Bean
+    public R2dbcChatMemoryRepository chatMemoryRepository(DatabaseClient databaseClient, TransactionalOperator transactionalOperator) {
+        return switch (storage) {
+            case LEGACY -> new R2dbcChatMemoryRepository(databaseClient, transactionalOperator, timeout);
+            case PARTITIONED -> new PartitionedChatMemoryRepository(databaseClient, transactionalOperator, timeout);
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "vibe-mate.chat-memory", name = "storage", havingValue = "partitioned")
+    public ChatMemoryPartitionManager chatMemoryPartitionManager(DatabaseClient databaseClient,
+                                                                 MeterRegistry meterRegistry) {
+        return new ChatMemoryPartitionManager(databaseClient, retention, premakeDays, archive, archiveBatch,
+                maintenanceInterval, meterRegistry);
+    }
+
+    @Bean
+    public ConversationSummarizer conversationSummarizer(ChatClient documentChatClient,
+                                                         GenerationScheduler generationScheduler,
+                                                         GenerationConfig generationConfig, ChatMetrics chatMetrics) {
+        return new ConversationSummarizer(documentChatClient, generationScheduler, chatMetrics,
+                generationConfig.getChatModel(), summaryWords);
+    }
+
+    @Bean
+    public ChatMemory chatMemory(R2dbcChatMemoryRepository chatMemoryRepository, Scheduler chatMemoryScheduler,
+                                 MeterRegistry meterRegistry, ConversationSummarizer conversationSummarizer) {
+        return new WriteBehindChatMemory(chatMemoryRepository, chatMemoryScheduler, meterRegistry, this,
+                compaction ? conversationSummarizer : null);
+    }
+
+    public enum Storage {
+        LEGACY, PARTITIONED
+    }
+}
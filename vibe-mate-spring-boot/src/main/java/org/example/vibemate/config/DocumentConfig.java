@@ -0,0 +1,51 @@
+package org.example.vibemate.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.Setter;
+import org.apache.tika.parser.AutoDetectParser;
+import org.apache.tika.parser.Parser;
+import org.example.vibemate.document.ExtractedTextCache;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+import reactor.core.scheduler.Scheduler;
+
+import java.nio.file.Path;
+
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties("vibe-mate.upload")
+public class DocumentConfig {
+
+    private DataSize maxSize = DataSize.ofMegabytes(50);
+    private long maxChars = 1_000_000;
+    private int chunkChars = 4096;
+    private String tempDir = System.getProperty("java.io.tmpdir");
+    private int directTokens = 2000;
+    private int chunkTokens = 1500;
+    private int mapConcurrency = 4;
+    private long cacheMemoryChars = 20_000_000;
+    private DataSize cacheDiskSize = DataSize.ofMegabytes(512);
+    private String cacheDir = "./data/uploads";
+    private int parseThreads = 4;
+    private int parseQueueSize = 100;
+
+    @Bean
+    public Parser documentParser() {
+        return new AutoDetectParser();
+    }
+
+    @Bean
+    public ExtractedTextCache extractedTextCache(Scheduler ioScheduler, MeterRegistry meterRegistry) {
+        return new ExtractedTextCache(cacheMemoryChars, Path.of(cacheDir), cacheDiskSize.toBytes(), ioScheduler,
+                meterRegistry);
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public Scheduler documentScheduler(ExecutionConfig executionConfig) {
+        return executionConfig.scheduler("tika", parseThreads, parseQueueSize);
+    }
+}
@@ -0,0 +1,36 @@
+package org.example.vibemate.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.Setter;
+import org.example.vibemate.embedding.CachingEmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.time.Duration;
+
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties("vibe-mate.embedding-cache")
+public class EmbeddingCacheConfig {
+
+    private String model;
+    private long maxEntries = 50_000;
+    private Duration ttl = Duration.ofHours(24);
+    private boolean offHeap = false;
+    private String persistPath;
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty(prefix = "vibe-mate.embedding-cache", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public CachingEmbeddingModel cachingEmbeddingModel(@Qualifier("ollamaEmbeddingModel") EmbeddingModel ollamaEmbeddingModel,
+                                                       MeterRegistry meterRegistry) {
+        return new CachingEmbeddingModel(ollamaEmbeddingModel, model, maxEntries, ttl, offHeap, persistPath, meterRegistry);
+    }
+}
@@ -0,0 +1,45 @@
+package org.example.vibemate.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Builds the schedulers blocking stages run on. Each blocking resource (JDBC-backed chat memory,
+ * Tika parsing, image decoding, retrieval, other file and HTTP I/O) gets its own scheduler whose thread
+ * cap is that resource's concurrency limit, so one saturated stage can't starve the others. In VIRTUAL mode
+ * the workers are virtual threads, so a stage parked on I/O doesn't hold a platform thread.
+ */
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties("vibe-mate.execution")
+public class ExecutionConfig {
+
+    private static final int TTL_SECONDS = 60;
+
+    private Mode mode = Mode.PLATFORM;
+    private int ioThreads = 32;
+    private int ioQueueSize = 10_000;
+
+    @Bean(destroyMethod = "dispose")
+    public Scheduler ioScheduler() {
+        return scheduler("blocking-io", ioThreads, ioQueueSize);
+    }
+
+    public Scheduler scheduler(String name, int threads, int queueSize) {
+        return switch (mode) {
+            case PLATFORM -> Schedulers.newBoundedElastic(threads, queueSize, name);
+            case VIRTUAL -> Schedulers.newBoundedElastic(threads, queueSize,
+                    Thread.ofVirtual().name(name + "-", 1).factory(), TTL_SECONDS);
+        };
+    }
+
+    public enum Mode {
+        PLATFORM, VIRTUAL
+    }
+}
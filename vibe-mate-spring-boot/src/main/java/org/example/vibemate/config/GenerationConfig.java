@@ -0,0 +1,44 @@
+package org.example.vibemate.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.Setter;
+import org.example.vibemate.generation.GenerationScheduler;
+import org.example.vibemate.generation.PartialAnswerRecorder;
+import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties("vibe-mate.generation")
+public class GenerationConfig {
+
+    private String chatModel;
+    private String visionModel = "llava";
+    private int maxConcurrency = 8;
+    private int defaultModelLimit = 4;
+    private Map<String, Integer> modelLimits = new HashMap<>();
+    private int maxPerUser = 2;
+    private int maxQueue = 100;
+    private Duration maxWait = Duration.ofSeconds(10);
+    private Duration retryAfter = Duration.ofSeconds(5);
+    private PartialAnswerRecorder.Mode onCancel = PartialAnswerRecorder.Mode.TRUNCATE;
+    private String truncatedMarker = " …[truncated]";
+
+    @Bean
+    public GenerationScheduler generationScheduler(MeterRegistry meterRegistry) {
+        return new GenerationScheduler(this, meterRegistry);
+    }
+
+    @Bean
+    public PartialAnswerRecorder partialAnswerRecorder(ChatMemory chatMemory, MeterRegistry meterRegistry) {
+        return new PartialAnswerRecorder(chatMemory, onCancel, truncatedMarker, meterRegistry);
+    }
+}
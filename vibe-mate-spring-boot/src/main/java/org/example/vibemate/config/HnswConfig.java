@@ -0,0 +1,34 @@
+package org.example.vibemate.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.Setter;
+import org.example.vibemate.vectorstore.HnswVectorStore;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties("vibe-mate.hnsw")
+public class HnswConfig {
+
+    private int m = 16;
+    private int efConstruction = 200;
+    private int efSearch = 64;
+    private String dataDir = "./data/vectors";
+    private int snapshotEvery = 10_000;
+    private double maxTombstoneRatio = 0.2;
+
+    @Bean
+    @ConditionalOnProperty(name = "spring.ai.vectorstore.type", havingValue = "hnsw")
+    public HnswVectorStore vectorStore(EmbeddingModel embeddingModel, ObjectMapper objectMapper,
+                                       RetrievalConfig retrievalConfig, MeterRegistry meterRegistry) {
+        return new HnswVectorStore(embeddingModel, objectMapper, retrievalConfig.getUserMetadataKey(), this,
+                meterRegistry);
+    }
+}
@@ -0,0 +1,29 @@
+package org.example.vibemate.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+import reactor.core.scheduler.Scheduler;
+
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties("vibe-mate.vision")
+public class ImageConfig {
+
+    private DataSize maxSize = DataSize.ofMegabytes(20);
+    private int maxDimension = 1024;
+    private long maxPixels = 50_000_000;
+    private DataSize passThroughSize = DataSize.ofKilobytes(512);
+    private float jpegQuality = 0.85f;
+    private int threads = 4;
+    private int queueSize = 100;
+
+    @Bean(destroyMethod = "dispose")
+    public Scheduler imageScheduler(ExecutionConfig executionConfig) {
+        return executionConfig.scheduler("image", threads, queueSize);
+    }
+}
@@ -0,0 +1,43 @@
+package org.example.vibemate.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.Setter;
+import org.example.vibemate.ingestion.MemoryIngestor;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties("vibe-mate.ingestion")
+public class IngestionConfig {
+
+    private boolean enabled = true;
+    private int queueCapacity = 10_000;
+    private int batchSize = 32;
+    private Duration batchWindow = Duration.ofSeconds(2);
+    private int concurrency = 2;
+    private int maxRetries = 5;
+    private Duration retryBackoff = Duration.ofSeconds(1);
+    private int chunkChars = 1200;
+    private int minChars = 40;
+    private Duration shutdownTimeout = Duration.ofSeconds(10);
+
+    @Bean(destroyMethod = "dispose")
+    public Scheduler ingestionScheduler(ExecutionConfig executionConfig) {
+        return executionConfig.scheduler("memory-ingest", concurrency, queueCapacity);
+    }
+
+    @Bean
+    public MemoryIngestor memoryIngestor(VectorStore vectorStore, RetrievalConfig retrievalConfig,
+                                         Scheduler ingestionScheduler, MeterRegistry meterRegistry) {
+        return new MemoryIngestor(vectorStore, retrievalConfig.getUserMetadataKey(), ingestionScheduler, this,
+                meterRegistry);
+    }
+}
@@ -0,0 +1,29 @@
+package org.example.vibemate.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.Setter;
+import org.example.vibemate.metrics.ChatMetrics;
+import org.example.vibemate.metrics.TraceIdFilter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties("vibe-mate.metrics")
+public class MetricsConfig {
+
+    private String traceHeader = "X-Request-Id";
+
+    @Bean
+    public ChatMetrics chatMetrics(MeterRegistry meterRegistry) {
+        return new ChatMetrics(meterRegistry);
+    }
+
+    @Bean
+    public TraceIdFilter traceIdFilter() {
+        return new TraceIdFilter(traceHeader);
+    }
+}
@@ -0,0 +1,112 @@
+package org.example.vibemate.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.observation.ObservationRegistry;
+import lombok.Getter;
+import lombok.Setter;
+import org.example.vibemate.routing.OllamaBackend;
+import org.example.vibemate.routing.OllamaRouter;
+import org.example.vibemate.routing.RoutingChatModel;
+import org.example.vibemate.routing.RoutingEmbeddingModel;
+import org.springframework.ai.ollama.OllamaChatModel;
+import org.springframework.ai.ollama.OllamaEmbeddingModel;
+import org.springframework.ai.ollama.api.OllamaApi;
+import org.springframework.ai.ollama.api.OllamaOptions;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.retry.support.RetryTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Spreads Ollama traffic over several nodes. Enabled by setting spring.ai.model.chat and/or
+ * spring.ai.model.embedding to ollama-routing, which also switches off the single-node Ollama models.
+ * Models listed under backends use those nodes; any other model uses default-backends.
+ */
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties("vibe-mate.ollama-routing")
+@ConditionalOnExpression("'${spring.ai.model.chat:ollama}' == 'ollama-routing' "
+        + "or '${spring.ai.model.embedding:ollama}' == 'ollama-routing'")
+public class OllamaRoutingConfig {
+
+    public static final String ROUTING = "ollama-routing";
+
+    private Map<String, List<String>> backends = new HashMap<>();
+    private List<String> defaultBackends = new ArrayList<>();
+    private String chatModel;
+    private String embeddingModel;
+    private int maxAttempts = 3;
+    private int affinitySlack = 2;
+    private int failureThreshold = 3;
+    private Duration ejection = Duration.ofSeconds(30);
+    private Duration healthInterval = Duration.ofSeconds(10);
+    private Duration healthTimeout = Duration.ofSeconds(2);
+
+    @Bean
+    public OllamaRouter ollamaRouter(Environment environment, ObjectProvider<ObservationRegistry> observationRegistry,
+                                     WebClient.Builder webClientBuilder, MeterRegistry meterRegistry) {
+        OllamaOptions chatOptions = chatOptions(environment);
+        OllamaOptions embeddingOptions = OllamaOptions.builder().model(embeddingModel).build();
+        ObservationRegistry observations = observationRegistry.getIfUnique(() -> ObservationRegistry.NOOP);
+        RetryTemplate noRetry = RetryTemplate.builder().maxAttempts(1).build();
+
+        Map<String, OllamaBackend> nodes = new LinkedHashMap<>();
+        Function<String, OllamaBackend> node = url -> nodes.computeIfAbsent(url, key -> {
+            OllamaApi api = OllamaApi.builder().baseUrl(key).build();
+            return new OllamaBackend(key,
+                    OllamaChatModel.builder()
+                            .ollamaApi(api)
+                            .defaultOptions(chatOptions)
+                            .observationRegistry(observations)
+                            .retryTemplate(noRetry)
+                            .build(),
+                    OllamaEmbeddingModel.builder()
+                            .ollamaApi(api)
+                            .defaultOptions(embeddingOptions)
+                            .observationRegistry(observations)
+                            .build());
+        });
+        Map<String, List<OllamaBackend>> pools = new HashMap<>();
+        backends.forEach((model, urls) -> pools.put(model, urls.stream().map(node).toList()));
+        List<OllamaBackend> defaultPool = defaultBackends.stream().map(node).toList();
+        if (defaultPool.isEmpty()) {
+            throw new IllegalStateException("vibe-mate.ollama-routing.default-backends must list at least one node");
+        }
+        return new OllamaRouter(pools, defaultPool, this, webClientBuilder, meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "spring.ai.model.chat", havingValue = ROUTING)
+    public RoutingChatModel routingChatModel(OllamaRouter ollamaRouter, Environment environment) {
+        return new RoutingChatModel(ollamaRouter, chatModel, chatOptions(environment));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "spring.ai.model.embedding", havingValue = ROUTING)
+    public RoutingEmbeddingModel ollamaEmbeddingModel(OllamaRouter ollamaRouter) {
+        return new RoutingEmbeddingModel(ollamaRouter, embeddingModel);
+    }
+
+    private OllamaOptions chatOptions(Environment environment) {
+        OllamaOptions options = Binder.get(environment)
+                .bind("spring.ai.ollama.chat.options", OllamaOptions.class)
+                .orElseGet(OllamaOptions::new);
+        options.setModel(chatModel);
+        return options;
+    }
+}
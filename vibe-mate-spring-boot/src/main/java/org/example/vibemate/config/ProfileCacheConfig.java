@@ -0,0 +1,36 @@
+package org.example.vibemate.config;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.Getter;
+import lombok.Setter;
+import org.example.vibemate.dto.ChatProfile;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.UUID;
+
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties("vibe-mate.profile-cache")
+public class ProfileCacheConfig {
+
+    private long maxEntries = 10_000;
+    private Duration ttl = Duration.ofMinutes(30);
+
+    @Bean
+    public AsyncCache<UUID, ChatProfile> profileCache(MeterRegistry meterRegistry) {
+        AsyncCache<UUID, ChatProfile> cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache.synchronous(), "user.profile");
+        return cache;
+    }
+}
@@ -0,0 +1,31 @@
+package org.example.vibemate.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.example.vibemate.prompt.PersonaTemplate;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties("vibe-mate.prompt")
+public class PromptConfig {
+
+    private String template = """
+            You are {botName} — my {botRole}. Your tone is {tone} and your personality is {personality}.
+            You're chatting with {userName}, a {userAge}-year-old {userGender}.
+            Be helpful, warm, and responsive in our conversations.
+            Speak in a witty, humorous way without being offensive. Keep things casual but smart.
+            """;
+    private long cacheSize = 10_000;
+    private Duration pinTtl = Duration.ofMinutes(30);
+
+    @Bean
+    public PersonaTemplate personaTemplate() {
+        return PersonaTemplate.parse(template);
+    }
+}
@@ -0,0 +1,35 @@
+package org.example.vibemate.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.Setter;
+import org.example.vibemate.response.SemanticResponseCache;
+import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties("vibe-mate.response-cache")
+public class ResponseCacheConfig {
+
+    private boolean enabled = true;
+    private double similarityThreshold = 0.95;
+    private int maxMessageLength = 80;
+    private long maxEntries = 50_000;
+    private int maxEntriesPerPersona = 200;
+    private Duration ttl = Duration.ofHours(6);
+
+    @Bean
+    public SemanticResponseCache semanticResponseCache(EmbeddingModel embeddingModel, ChatMemory chatMemory,
+                                                       Scheduler ioScheduler, MeterRegistry meterRegistry) {
+        return new SemanticResponseCache(embeddingModel, chatMemory, enabled, similarityThreshold, maxMessageLength,
+                maxEntries, maxEntriesPerPersona, ttl, ioScheduler, meterRegistry);
+    }
+}
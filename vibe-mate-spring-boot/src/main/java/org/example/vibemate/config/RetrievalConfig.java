@@ -0,0 +1,46 @@
+package org.example.vibemate.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Getter;
+import lombok.Setter;
+import org.example.vibemate.advisor.RetrievalAdvisor;
+import org.springframework.ai.chat.client.advisor.vectorstore.QuestionAnswerAdvisor;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties("vibe-mate.retrieval")
+public class RetrievalConfig {
+
+    private int topK = SearchRequest.DEFAULT_TOP_K;
+    private double similarityThreshold = SearchRequest.SIMILARITY_THRESHOLD_ACCEPT_ALL;
+    private int minQueryLength = 12;
+    private boolean perUserFilter = true;
+    private String userMetadataKey = "userId";
+    private int threads = 8;
+    private int queueSize = 1000;
+
+    @Bean(destroyMethod = "dispose")
+    public Scheduler retrievalScheduler(ExecutionConfig executionConfig) {
+        return executionConfig.scheduler("retrieval", threads, queueSize);
+    }
+
+    @Bean
+    public RetrievalAdvisor retrievalAdvisor(VectorStore vectorStore, Scheduler retrievalScheduler,
+                                             MeterRegistry meterRegistry) {
+        QuestionAnswerAdvisor questionAnswerAdvisor = QuestionAnswerAdvisor.builder(vectorStore)
+                .searchRequest(SearchRequest.builder()
+                        .topK(topK)
+                        .similarityThreshold(similarityThreshold)
+                        .build())
+                .build();
+        return new RetrievalAdvisor(questionAnswerAdvisor, minQueryLength, perUserFilter ? userMetadataKey : null,
+                retrievalScheduler, meterRegistry);
+    }
+}
@@ -0,0 +1,28 @@
+package org.example.vibemate.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.example.vibemate.streaming.TokenFramer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties("vibe-mate.streaming")
+public class StreamingConfig {
+
+    private int frameTokens = 24;
+    private Duration frameWindow = Duration.ofMillis(30);
+    private long replayStreams = 10_000;
+    private Duration replayTtl = Duration.ofMinutes(2);
+    private Duration resumeGrace = Duration.ofSeconds(30);
+
+    @Bean
+    public TokenFramer tokenFramer() {
+        return new TokenFramer(frameTokens, frameWindow, replayStreams, replayTtl, resumeGrace);
+    }
+}
@@ -0,0 +1,65 @@
+package org.example.vibemate.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.spi.ConnectionFactory;
+import lombok.Getter;
+import lombok.Setter;
+import org.apache.tika.parser.Parser;
+import org.example.vibemate.repository.R2dbcChatMemoryRepository;
+import org.example.vibemate.routing.OllamaRouter;
+import org.example.vibemate.service.UserService;
+import org.example.vibemate.warmup.FirstRequestFilter;
+import org.example.vibemate.warmup.StartupWarmup;
+import org.example.vibemate.warmup.WarmupHealthIndicator;
+import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.util.List;
+
+@Setter
+@Getter
+@Configuration
+@ConfigurationProperties("vibe-mate.warmup")
+public class WarmupConfig {
+
+    private boolean enabled = true;
+    private Duration timeout = Duration.ofMinutes(3);
+    private Duration keepAlive = Duration.ofMinutes(30);
+    private String baseUrl = "http://localhost:11434";
+    private String embeddingModel;
+    private int hotConversations = 200;
+    private Duration hotWindow = Duration.ofHours(24);
+    private int concurrency = 8;
+
+    @Bean
+    public StartupWarmup startupWarmup(GenerationConfig generationConfig, RetrievalConfig retrievalConfig,
+                                       ObjectProvider<OllamaRouter> ollamaRouter, WebClient.Builder webClientBuilder,
+                                       Parser documentParser, Scheduler documentScheduler, Scheduler ioScheduler,
+                                       Scheduler chatMemoryScheduler, ConnectionFactory connectionFactory,
+                                       DatabaseClient databaseClient, VectorStore vectorStore,
+                                       R2dbcChatMemoryRepository chatMemoryRepository, ChatMemory chatMemory,
+                                       UserService userService, MeterRegistry meterRegistry) {
+        List<String> chatModels = List.of(generationConfig.getChatModel(), generationConfig.getVisionModel());
+        return new StartupWarmup(this, chatModels, ollamaRouter.getIfAvailable(), webClientBuilder, documentParser,
+                documentScheduler, ioScheduler, chatMemoryScheduler, connectionFactory, databaseClient, vectorStore,
+                retrievalConfig.getUserMetadataKey(), chatMemoryRepository, chatMemory, userService, meterRegistry);
+    }
+
+    @Bean
+    public WarmupHealthIndicator warmupHealthIndicator(StartupWarmup startupWarmup) {
+        return new WarmupHealthIndicator(startupWarmup);
+    }
+
+    @Bean
+    public FirstRequestFilter firstRequestFilter(StartupWarmup startupWarmup, MeterRegistry meterRegistry) {
+        return new FirstRequestFilter(startupWarmup, meterRegistry);
+    }
+}
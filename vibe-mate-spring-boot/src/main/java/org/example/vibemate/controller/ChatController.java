@@ -1,17 +1,25 @@
 package org.example.vibemate.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.example.vibemate.config.GenerationConfig;
+import org.example.vibemate.dto.ChatHistoryMessage;
+import org.example.vibemate.dto.ChatProfile;
+import org.example.vibemate.memory.HistoryCursor;
+import org.example.vibemate.metrics.ChatMetrics;
 import org.example.vibemate.service.ChatService;
+import org.example.vibemate.service.DocumentService;
 import org.example.vibemate.service.UserService;
 import org.springframework.ai.chat.messages.Message;
-import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.http.codec.multipart.FilePart;
 import org.springframework.web.bind.annotation.*;
 import org.example.vibemate.dto.ChatRequest;
+import org.example.vibemate.streaming.TokenFramer;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
 
@@ -24,15 +32,26 @@ public class ChatController {
 
     private final UserService userService;
     private final ChatService chatService;
+    private final DocumentService documentService;
+    private final TokenFramer tokenFramer;
+    private final ChatMetrics chatMetrics;
+    private final GenerationConfig generationConfig;
 
     @PostMapping(produces = MediaType.TEXT_MARKDOWN_VALUE)
     public Flux<String> chat(@RequestBody ChatRequest request) {
-        return Mono.zip(
-                        userService.getUser(request.userId()),
-                        userService.getBotConfig(request.userId())
-                )
-                .flatMapMany(tuple ->
-                        chatService.getChatResponse(tuple.getT2(), tuple.getT1(), request));
+        return tokenFramer.frames(profile("chat", request)
+                .flatMapMany(profile -> chatService.getChatResponse(profile, request)));
+    }
+
+    @PostMapping(value = "/sse", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<String>> chatEvents(@RequestBody ChatRequest request) {
+        return tokenFramer.events(profile("chat", request)
+                .flatMapMany(profile -> chatService.getChatResponse(profile, request)));
+    }
+
+    @GetMapping(value = "/sse", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<String>> resumeChatEvents(@RequestHeader("Last-Event-ID") String lastEventId) {
+        return tokenFramer.resume(lastEventId);
     }
 
     @PostMapping(value = "/upload")
@@ -42,12 +61,9 @@ public class ChatController {
             @RequestPart("message") String message
     ) {
         ChatRequest request = new ChatRequest(UUID.fromString(userId), message);
-        return DataBufferUtils.join(filePart.content())
-                .flatMap(chatService::extractTextFromBuffer)
-                .flatMapMany(content -> Mono.zip(
-                        userService.getUser(request.userId()),
-                        userService.getBotConfig(request.userId())
-                ).flatMapMany(tuple -> chatService.askOllamaAboutText(tuple.getT2(), tuple.getT1(), content, request)));
+        return tokenFramer.frames(profile("upload", request)
+                .flatMapMany(profile -> chatService.askOllamaAboutText(
+                        profile, documentService.extractText(filePart.content()), request)));
     }
 
     @PostMapping(value = "/vision")
@@ -57,26 +73,36 @@ public class ChatController {
             @RequestPart("message") String message
     ) {
         ChatRequest chatRequest = new ChatRequest(UUID.fromString(userId), message);
-        return DataBufferUtils.join(filePart.content())
-                .map(dataBuffer -> {
-                    byte[] bytes = new byte[dataBuffer.readableByteCount()];
-                    dataBuffer.read(bytes);
-                    DataBufferUtils.release(dataBuffer);
-                    return bytes;
-                })
-                .flatMapMany(imageBytes ->
-                        chatService.describeImageWithContext(imageBytes, chatRequest));
+        return tokenFramer.frames(chatService.describeImageWithContext(filePart.content(), chatRequest));
     }
 
     @PostMapping("/memory")
-    public List<Message> getChatMemory(@RequestBody ChatRequest request) {
+    public Mono<List<Message>> getChatMemory(@RequestBody ChatRequest request) {
         return chatService.chatMemory(request.userId());
     }
 
+    @GetMapping(value = "/history/{userId}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<ChatHistoryMessage> getChatHistory(
+            @PathVariable UUID userId,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Instant since,
+            @RequestParam(required = false) String before,
+            @RequestParam(required = false) Integer limit
+    ) {
+        Instant afterTimestamp = after != null ? HistoryCursor.decode(after) : since;
+        Instant beforeTimestamp = before != null ? HistoryCursor.decode(before) : null;
+        return chatService.history(userId, afterTimestamp, beforeTimestamp, limit);
+    }
+
     @DeleteMapping("/clear")
     public Mono<Void> clearChatMemory(@RequestBody ChatRequest request) {
         return chatService.clearMemory(request.userId());
     }
 
+    private Mono<ChatProfile> profile(String endpoint, ChatRequest request) {
+        return chatMetrics.stage("profile", endpoint, userService.getProfile(request.userId()))
+                .contextWrite(ChatMetrics.tags(endpoint, generationConfig.getChatModel()));
+    }
+
 }
 
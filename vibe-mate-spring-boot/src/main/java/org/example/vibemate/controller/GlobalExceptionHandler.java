@@ -2,7 +2,9 @@ package org.example.vibemate.controller;
 
 import lombok.extern.slf4j.Slf4j;
 import org.example.vibemate.dto.Response;
+import org.example.vibemate.generation.GenerationRejectedException;
 import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -19,6 +21,15 @@ public class GlobalExceptionHandler {
         return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse));
     }
 
+    @ExceptionHandler(GenerationRejectedException.class)
+    public Mono<ResponseEntity<Response>> handleGenerationRejected(GenerationRejectedException ex) {
+        log.warn("Generation rejected: {}", ex.getMessage());
+        Response errorResponse = new Response(ex.getMessage(), null, HttpStatus.TOO_MANY_REQUESTS);
+        return Mono.just(ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfter().toSeconds()))
+                .body(errorResponse));
+    }
+
     @ExceptionHandler(Exception.class)
     public Mono<ResponseEntity<Response>> handleGeneralException(Exception ex) {
         log.error("Unhandled exception: ", ex);
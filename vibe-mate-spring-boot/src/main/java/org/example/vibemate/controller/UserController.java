@@ -2,12 +2,15 @@ package org.example.vibemate.controller;
 
 import lombok.RequiredArgsConstructor;
 import org.example.vibemate.dto.BotConfig;
+import org.example.vibemate.dto.ImportResult;
 import org.example.vibemate.dto.Response;
 import org.example.vibemate.dto.UserInfo;
 import org.example.vibemate.model.Bot;
 import org.example.vibemate.model.User;
 import org.example.vibemate.service.UserService;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.util.UUID;
@@ -30,6 +33,20 @@ public class UserController {
         return userService.saveBotConfig(bot);
     }
 
+    @PostMapping(value = "/info/bulk",
+            consumes = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<ImportResult> importUsers(@RequestBody Flux<User> users) {
+        return userService.importUsers(users);
+    }
+
+    @PostMapping(value = "/bot/bulk",
+            consumes = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE},
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<ImportResult> importBots(@RequestBody Flux<Bot> bots) {
+        return userService.importBots(bots);
+    }
+
     @GetMapping("/{userId}")
     public Mono<UserInfo> getUser(@PathVariable UUID userId) {
         return userService.getUser(userId);
@@ -0,0 +1,57 @@
+package org.example.vibemate.document;
+
+import reactor.core.publisher.FluxSink;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Receives text from Tika as it is parsed and pushes it downstream in fixed-size chunks,
+ * stopping the parse once the configured character budget is used up.
+ */
+public class ChunkingWriter extends Writer {
+
+    private final FluxSink<String> sink;
+    private final int chunkSize;
+    private final long maxChars;
+    private final StringBuilder buffer;
+    private long written;
+
+    public ChunkingWriter(FluxSink<String> sink, int chunkSize, long maxChars) {
+        this.sink = sink;
+        this.chunkSize = chunkSize;
+        this.maxChars = maxChars;
+        this.buffer = new StringBuilder(chunkSize);
+    }
+
+    @Override
+    public void write(char[] chars, int offset, int length) throws IOException {
+        if (sink.isCancelled()) throw new LimitReachedException("Extraction cancelled");
+        int accepted = (int) Math.min(length, maxChars - written);
+        buffer.append(chars, offset, accepted);
+        written += accepted;
+        while (buffer.length() >= chunkSize) {
+            sink.next(buffer.substring(0, chunkSize));
+            buffer.delete(0, chunkSize);
+        }
+        if (accepted < length) throw new LimitReachedException("Extracted text exceeds " + maxChars + " characters");
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+        if (!buffer.isEmpty()) {
+            sink.next(buffer.toString());
+            buffer.setLength(0);
+        }
+    }
+
+    public static class LimitReachedException extends IOException {
+        public LimitReachedException(String message) {
+            super(message);
+        }
+    }
+}
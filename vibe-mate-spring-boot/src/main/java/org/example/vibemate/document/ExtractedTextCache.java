@@ -0,0 +1,121 @@
+package org.example.vibemate.document;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Content-addressed store of text extracted from uploads, keyed by the SHA-256 of the uploaded bytes.
+ * A small in-memory tier sits in front of a gzip file per document, pruned oldest-first by total size.
+ */
+@Slf4j
+public class ExtractedTextCache {
+
+    private final Cache<String, String> memory;
+    private final Path directory;
+    private final long maxDiskBytes;
+    private final Scheduler scheduler;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter bytesSaved;
+
+    public ExtractedTextCache(long maxMemoryChars, Path directory, long maxDiskBytes, Scheduler scheduler,
+                              MeterRegistry meterRegistry) {
+        this.memory = Caffeine.newBuilder()
+                .maximumWeight(maxMemoryChars)
+                .weigher((String hash, String text) -> text.length())
+                .build();
+        this.directory = directory;
+        this.maxDiskBytes = maxDiskBytes;
+        this.scheduler = scheduler;
+        this.hits = Counter.builder("upload.dedup.hits").register(meterRegistry);
+        this.misses = Counter.builder("upload.dedup.misses").register(meterRegistry);
+        this.bytesSaved = Counter.builder("upload.dedup.bytes.saved")
+                .description("Upload bytes whose parsing was skipped")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public Mono<String> get(String hash, long uploadBytes) {
+        return Mono.justOrEmpty(memory.getIfPresent(hash))
+                .switchIfEmpty(Mono.fromCallable(() -> readFromDisk(hash))
+                        .subscribeOn(scheduler)
+                        .doOnNext(text -> memory.put(hash, text)))
+                .doOnNext(text -> {
+                    hits.increment();
+                    bytesSaved.increment(uploadBytes);
+                })
+                .switchIfEmpty(Mono.<String>fromRunnable(misses::increment));
+    }
+
+    public Mono<Void> put(String hash, String text) {
+        memory.put(hash, text);
+        return Mono.<Void>fromRunnable(() -> writeToDisk(hash, text))
+                .subscribeOn(scheduler);
+    }
+
+    private String readFromDisk(String hash) throws IOException {
+        Path file = directory.resolve(hash + ".txt.gz");
+        if (!Files.exists(file)) return null;
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            String text = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+            Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+            return text;
+        }
+    }
+
+    private void writeToDisk(String hash, String text) {
+        try {
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, hash, ".tmp");
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp))) {
+                out.write(text.getBytes(StandardCharsets.UTF_8));
+            }
+            Files.move(temp, directory.resolve(hash + ".txt.gz"), StandardCopyOption.REPLACE_EXISTING);
+            prune();
+        } catch (IOException ex) {
+            log.warn("Failed to store extracted text for upload {}", hash, ex);
+        }
+    }
+
+    private synchronized void prune() throws IOException {
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(directory)) {
+            files = stream.filter(file -> file.getFileName().toString().endsWith(".txt.gz"))
+                    .sorted(Comparator.comparing(ExtractedTextCache::lastModified).reversed())
+                    .toList();
+        }
+        long total = 0;
+        for (Path file : files) {
+            total += Files.size(file);
+            if (total > maxDiskBytes) Files.deleteIfExists(file);
+        }
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException ex) {
+            return FileTime.fromMillis(0);
+        }
+    }
+}
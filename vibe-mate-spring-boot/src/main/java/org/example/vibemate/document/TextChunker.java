@@ -0,0 +1,43 @@
+package org.example.vibemate.document;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public final class TextChunker {
+
+    public static final int CHARS_PER_TOKEN = 4;
+
+    private static final String[] BREAKS = {"\n\n", "\n", ". ", " "};
+
+    private TextChunker() {
+    }
+
+    public static Flux<String> chunk(Flux<String> text, int maxChars) {
+        return Flux.defer(() -> {
+            StringBuilder buffer = new StringBuilder();
+            return text
+                    .concatMapIterable(piece -> {
+                        buffer.append(piece);
+                        List<String> chunks = new ArrayList<>();
+                        while (buffer.length() >= maxChars) {
+                            int cut = breakPoint(buffer, maxChars);
+                            chunks.add(buffer.substring(0, cut));
+                            buffer.delete(0, cut);
+                        }
+                        return chunks;
+                    })
+                    .concatWith(Mono.fromSupplier(() -> buffer.toString().strip()).filter(rest -> !rest.isEmpty()));
+        });
+    }
+
+    private static int breakPoint(StringBuilder buffer, int maxChars) {
+        for (String separator : BREAKS) {
+            int index = buffer.lastIndexOf(separator, maxChars - separator.length());
+            if (index >= maxChars / 2) return index + separator.length();
+        }
+        return maxChars;
+    }
+}
@@ -11,7 +11,8 @@ public record BotConfig(
         String botName,
         String personality,
         String tone,
-        String role
+        String role,
+        Boolean responseCache
 ) {
     public BotConfig(Bot bot) {
         this(
@@ -19,7 +20,8 @@ public record BotConfig(
                 bot.getBotName(),
                 bot.getPersonality(),
                 bot.getTone(),
-                bot.getRole()
+                bot.getRole(),
+                bot.getResponseCache()
         );
     }
 }
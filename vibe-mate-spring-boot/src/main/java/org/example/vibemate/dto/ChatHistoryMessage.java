@@ -0,0 +1,22 @@
+package org.example.vibemate.dto;
+
+import org.example.vibemate.memory.HistoryCursor;
+import org.example.vibemate.model.ChatMemoryEntry;
+
+import java.time.Instant;
+
+public record ChatHistoryMessage(
+        String type,
+        String content,
+        Instant timestamp,
+        String cursor
+) {
+    public ChatHistoryMessage(ChatMemoryEntry entry) {
+        this(
+                entry.message().getMessageType().name(),
+                entry.message().getText(),
+                entry.timestamp(),
+                HistoryCursor.encode(entry.timestamp())
+        );
+    }
+}
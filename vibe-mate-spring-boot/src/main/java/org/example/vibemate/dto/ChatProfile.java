@@ -0,0 +1,3 @@
+package org.example.vibemate.dto;
+
+public record ChatProfile(UserInfo user, BotConfig bot, String systemPrompt) {}
@@ -0,0 +1,8 @@
+package org.example.vibemate.dto;
+
+import java.util.UUID;
+
+public record ImportResult(long index, UUID userId, Status status, String error) {
+
+    public enum Status { CREATED, UPDATED, FAILED }
+}
@@ -0,0 +1,5 @@
+package org.example.vibemate.dto;
+
+import org.springframework.util.MimeType;
+
+public record PreparedImage(MimeType mimeType, byte[] bytes) {}
@@ -0,0 +1,188 @@
+package org.example.vibemate.embedding;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.Embedding;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Caches query and document embeddings by model and normalized text so repeated companion
+ * messages do not round-trip to Ollama. Vectors are held as primitive floats, on or off heap.
+ */
+@Slf4j
+public class CachingEmbeddingModel implements EmbeddingModel, DisposableBean {
+
+    private static final int MAX_INLINE_KEY_LENGTH = 256;
+
+    private final EmbeddingModel delegate;
+    private final String model;
+    private final boolean offHeap;
+    private final Path persistPath;
+    private final Cache<String, FloatBuffer> cache;
+
+    public CachingEmbeddingModel(EmbeddingModel delegate, String model, long maxEntries, Duration ttl,
+                                 boolean offHeap, String persistPath, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.model = model;
+        this.offHeap = offHeap;
+        this.persistPath = StringUtils.hasText(persistPath) ? Path.of(persistPath) : null;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterAccess(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "embedding.cache", "model", model);
+        load();
+    }
+
+    @Override
+    public EmbeddingResponse call(EmbeddingRequest request) {
+        List<String> texts = request.getInstructions();
+        float[][] vectors = new float[texts.size()][];
+        List<String> missingTexts = new ArrayList<>();
+        List<Integer> missingIndexes = new ArrayList<>();
+        for (int i = 0; i < texts.size(); i++) {
+            vectors[i] = lookup(texts.get(i));
+            if (vectors[i] == null) {
+                missingTexts.add(texts.get(i));
+                missingIndexes.add(i);
+            }
+        }
+        if (!missingTexts.isEmpty()) {
+            EmbeddingResponse response = delegate.call(new EmbeddingRequest(missingTexts, request.getOptions()));
+            List<Embedding> results = response.getResults();
+            for (int i = 0; i < results.size(); i++) {
+                int index = missingIndexes.get(i);
+                vectors[index] = results.get(i).getOutput();
+                store(texts.get(index), vectors[index]);
+            }
+        }
+        List<Embedding> embeddings = new ArrayList<>(vectors.length);
+        for (int i = 0; i < vectors.length; i++) {
+            embeddings.add(new Embedding(vectors[i], i));
+        }
+        return new EmbeddingResponse(embeddings);
+    }
+
+    @Override
+    public float[] embed(String text) {
+        float[] cached = lookup(text);
+        if (cached != null) return cached;
+        float[] vector = delegate.embed(text);
+        store(text, vector);
+        return vector;
+    }
+
+    @Override
+    public float[] embed(Document document) {
+        return embed(document.getText());
+    }
+
+    @Override
+    public int dimensions() {
+        return delegate.dimensions();
+    }
+
+    @Override
+    public void destroy() {
+        if (persistPath == null) return;
+        try {
+            Files.createDirectories(persistPath.toAbsolutePath().getParent());
+            Path temp = Files.createTempFile(persistPath.toAbsolutePath().getParent(), "embeddings", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                Map<String, FloatBuffer> entries = Map.copyOf(cache.asMap());
+                out.writeInt(entries.size());
+                for (Map.Entry<String, FloatBuffer> entry : entries.entrySet()) {
+                    float[] vector = toArray(entry.getValue());
+                    out.writeUTF(entry.getKey());
+                    out.writeInt(vector.length);
+                    for (float value : vector) out.writeFloat(value);
+                }
+            }
+            Files.move(temp, persistPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Persisted {} cached embeddings to {}", cache.estimatedSize(), persistPath);
+        } catch (IOException ex) {
+            log.warn("Failed to persist embedding cache to {}", persistPath, ex);
+        }
+    }
+
+    private void load() {
+        if (persistPath == null || !Files.exists(persistPath)) return;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(persistPath)))) {
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String key = in.readUTF();
+                float[] vector = new float[in.readInt()];
+                for (int j = 0; j < vector.length; j++) vector[j] = in.readFloat();
+                if (key.startsWith(model + '\u0000')) cache.put(key, toBuffer(vector));
+            }
+            log.info("Loaded {} cached embeddings from {}", cache.estimatedSize(), persistPath);
+        } catch (IOException ex) {
+            log.warn("Failed to load embedding cache from {}", persistPath, ex);
+        }
+    }
+
+    private float[] lookup(String text) {
+        FloatBuffer buffer = cache.getIfPresent(key(text));
+        return buffer != null ? toArray(buffer) : null;
+    }
+
+    private void store(String text, float[] vector) {
+        cache.put(key(text), toBuffer(vector));
+    }
+
+    private FloatBuffer toBuffer(float[] vector) {
+        if (!offHeap) return FloatBuffer.wrap(vector.clone());
+        FloatBuffer buffer = ByteBuffer.allocateDirect(vector.length * Float.BYTES).asFloatBuffer();
+        buffer.put(vector).flip();
+        return buffer;
+    }
+
+    private static float[] toArray(FloatBuffer buffer) {
+        float[] vector = new float[buffer.remaining()];
+        buffer.duplicate().get(vector);
+        return vector;
+    }
+
+    private String key(String text) {
+        String normalized = text == null ? "" : text.strip().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        return model + '\u0000' + (normalized.length() > MAX_INLINE_KEY_LENGTH ? sha256(normalized) : normalized);
+    }
+
+    private static String sha256(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package org.example.vibemate.generation;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+@Getter
+public class GenerationRejectedException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public GenerationRejectedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+}
@@ -0,0 +1,172 @@
+package org.example.vibemate.generation;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.example.vibemate.config.GenerationConfig;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Admission control in front of Ollama: caps concurrent generations globally, per model and per user,
+ * and serves waiting users round-robin from a bounded queue so one user or model cannot starve the rest.
+ * Calls made on a user's behalf are scheduled under that user's id and count against max-per-user like
+ * their chat answers: the section summaries of an upload (which is why the map phase runs at most
+ * max-per-user of them at once) and memory compaction, which waits behind the user's own chats and, if
+ * it hits max-wait, is retried on a later turn.
+ */
+public class GenerationScheduler {
+
+    private final GenerationConfig config;
+    private final Map<String, Integer> modelInFlight = new HashMap<>();
+    private final Map<UUID, Integer> userInFlight = new HashMap<>();
+    private final LinkedHashMap<UUID, Deque<Waiter>> queues = new LinkedHashMap<>();
+    private final Timer waitTimer;
+    private final Counter rejected;
+    private int inFlight;
+    private int queued;
+
+    public GenerationScheduler(GenerationConfig config, MeterRegistry meterRegistry) {
+        this.config = config;
+        this.waitTimer = Timer.builder("generation.queue.wait")
+                .description("Time a generation waited for a slot")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.rejected = Counter.builder("generation.rejected").register(meterRegistry);
+        Gauge.builder("generation.queue.depth", this, scheduler -> scheduler.queued).register(meterRegistry);
+        Gauge.builder("generation.in.flight", this, scheduler -> scheduler.inFlight).register(meterRegistry);
+    }
+
+    public <T> Flux<T> schedule(String model, UUID userId, Supplier<Flux<T>> generation) {
+        return acquire(model, userId)
+                .flatMapMany(waiter -> Flux.defer(generation).doFinally(signal -> release(waiter)));
+    }
+
+    private Mono<Waiter> acquire(String model, UUID userId) {
+        return Mono.<Waiter>create(sink -> {
+                    Waiter waiter = new Waiter(model, userId, sink, System.nanoTime());
+                    synchronized (this) {
+                        if (queued >= config.getMaxQueue()) {
+                            rejected.increment();
+                            sink.error(rejection());
+                            return;
+                        }
+                        queues.computeIfAbsent(userId, id -> new ArrayDeque<>()).addLast(waiter);
+                        queued++;
+                    }
+                    sink.onCancel(() -> cancel(waiter));
+                    dispatch();
+                })
+                .timeout(config.getMaxWait(), Mono.error(() -> {
+                    rejected.increment();
+                    return rejection();
+                }));
+    }
+
+    private void dispatch() {
+        List<Waiter> granted = new ArrayList<>();
+        synchronized (this) {
+            boolean progress = true;
+            while (progress && inFlight < config.getMaxConcurrency()) {
+                progress = false;
+                for (UUID userId : List.copyOf(queues.keySet())) {
+                    Deque<Waiter> queue = queues.get(userId);
+                    Waiter next = inFlight < config.getMaxConcurrency() ? firstRunnable(queue) : null;
+                    if (next == null) continue;
+                    queue.remove(next);
+                    queued--;
+                    queues.remove(userId);
+                    if (!queue.isEmpty()) queues.put(userId, queue);
+                    start(next);
+                    granted.add(next);
+                    progress = true;
+                }
+            }
+        }
+        granted.forEach(waiter -> {
+            waitTimer.record(System.nanoTime() - waiter.enqueuedAt, TimeUnit.NANOSECONDS);
+            waiter.sink.success(waiter);
+        });
+    }
+
+    /**
+     * The user's oldest waiter that fits, so a call for a model at its limit does not hold up the same
+     * user's calls for other models.
+     */
+    private Waiter firstRunnable(Deque<Waiter> queue) {
+        for (Waiter waiter : queue) {
+            if (canRun(waiter)) return waiter;
+        }
+        return null;
+    }
+
+    private boolean canRun(Waiter waiter) {
+        int modelLimit = config.getModelLimits().getOrDefault(waiter.model, config.getDefaultModelLimit());
+        return modelInFlight.getOrDefault(waiter.model, 0) < modelLimit
+                && userInFlight.getOrDefault(waiter.userId, 0) < config.getMaxPerUser();
+    }
+
+    private void start(Waiter waiter) {
+        waiter.running = true;
+        inFlight++;
+        modelInFlight.merge(waiter.model, 1, Integer::sum);
+        userInFlight.merge(waiter.userId, 1, Integer::sum);
+    }
+
+    private void cancel(Waiter waiter) {
+        synchronized (this) {
+            if (!waiter.running) {
+                Deque<Waiter> queue = queues.get(waiter.userId);
+                if (queue != null && queue.remove(waiter)) {
+                    queued--;
+                    if (queue.isEmpty()) queues.remove(waiter.userId);
+                }
+                return;
+            }
+        }
+        release(waiter);
+    }
+
+    private void release(Waiter waiter) {
+        synchronized (this) {
+            if (!waiter.running) return;
+            waiter.running = false;
+            inFlight--;
+            modelInFlight.merge(waiter.model, -1, Integer::sum);
+            userInFlight.computeIfPresent(waiter.userId, (id, count) -> count > 1 ? count - 1 : null);
+        }
+        dispatch();
+    }
+
+    private GenerationRejectedException rejection() {
+        return new GenerationRejectedException("Too many chats in progress, please retry shortly", config.getRetryAfter());
+    }
+
+    private static final class Waiter {
+        private final String model;
+        private final UUID userId;
+        private final MonoSink<Waiter> sink;
+        private final long enqueuedAt;
+        private boolean running;
+
+        private Waiter(String model, UUID userId, MonoSink<Waiter> sink, long enqueuedAt) {
+            this.model = model;
+            this.userId = userId;
+            this.sink = sink;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package org.example.vibemate.generation;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import reactor.core.publisher.Flux;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Handles a client disconnecting mid-answer: the memory advisor only records completed replies, so the
+ * partial answer is either stored with a truncation marker or dropped, and the tokens generated before
+ * the cancel (wasted) and the estimated tokens not generated (saved) are counted.
+ */
+public class PartialAnswerRecorder {
+
+    public enum Mode { TRUNCATE, DISCARD }
+
+    private final ChatMemory chatMemory;
+    private final Mode mode;
+    private final String marker;
+    private final Counter wastedTokens;
+    private final Counter savedTokens;
+    private final Counter cancellations;
+    private volatile double averageTokens;
+
+    public PartialAnswerRecorder(ChatMemory chatMemory, Mode mode, String marker, MeterRegistry meterRegistry) {
+        this.chatMemory = chatMemory;
+        this.mode = mode;
+        this.marker = marker;
+        this.wastedTokens = Counter.builder("generation.tokens.wasted")
+                .description("Tokens generated for answers the client disconnected from")
+                .register(meterRegistry);
+        this.savedTokens = Counter.builder("generation.tokens.saved")
+                .description("Estimated tokens not generated because the stream was cancelled")
+                .register(meterRegistry);
+        this.cancellations = Counter.builder("generation.cancelled").register(meterRegistry);
+    }
+
+    public Flux<String> track(UUID conversationId, Flux<String> tokens) {
+        return Flux.defer(() -> {
+            StringBuilder partial = new StringBuilder();
+            AtomicInteger count = new AtomicInteger();
+            return tokens
+                    .doOnNext(token -> {
+                        partial.append(token);
+                        count.incrementAndGet();
+                    })
+                    .doOnComplete(() -> averageTokens = averageTokens == 0
+                            ? count.get()
+                            : averageTokens * 0.9 + count.get() * 0.1)
+                    .doOnCancel(() -> cancelled(conversationId, partial, count.get()));
+        });
+    }
+
+    private void cancelled(UUID conversationId, StringBuilder partial, int generated) {
+        cancellations.increment();
+        wastedTokens.increment(generated);
+        savedTokens.increment(Math.max(0, averageTokens - generated));
+        if (mode == Mode.TRUNCATE && !partial.isEmpty()) {
+            chatMemory.add(conversationId.toString(), new AssistantMessage(partial + marker));
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package org.example.vibemate.ingestion;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record IngestionItem(UUID userId, String source, String text, Instant submittedAt) {}
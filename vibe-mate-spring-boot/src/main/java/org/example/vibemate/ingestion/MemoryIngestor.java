@@ -0,0 +1,148 @@
+package org.example.vibemate.ingestion;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.example.vibemate.config.IngestionConfig;
+import org.example.vibemate.document.TextChunker;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.beans.factory.DisposableBean;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+import reactor.util.retry.Retry;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Writes completed chat turns and upload text into the vector store in the background so retrieval
+ * has per-user long-term memory. Submissions go into a bounded queue and are dropped, never waited on,
+ * when it is full. They are chunked, tagged with the user metadata key the retrieval filter uses, and
+ * written in batches so the embedding model sees one request per batch. Document IDs derive from the
+ * content, so a retried or repeated write upserts instead of duplicating. The queue outlives its
+ * subscriber, so if the pipeline fails it resubscribes and carries on from what is still queued.
+ */
+@Slf4j
+public class MemoryIngestor implements DisposableBean {
+
+    private final VectorStore vectorStore;
+    private final boolean enabled;
+    private final String userMetadataKey;
+    private final int chunkChars;
+    private final int minChars;
+    private final Duration shutdownTimeout;
+    private final Sinks.Many<IngestionItem> queue;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final CountDownLatch terminated = new CountDownLatch(1);
+    private final Timer lag;
+    private final Timer batchTimer;
+    private final Counter dropped;
+    private final Counter failed;
+    private final MeterRegistry meterRegistry;
+    private final Disposable pipeline;
+
+    public MemoryIngestor(VectorStore vectorStore, String userMetadataKey, Scheduler scheduler,
+                          IngestionConfig config, MeterRegistry meterRegistry) {
+        this.vectorStore = vectorStore;
+        this.enabled = config.isEnabled();
+        this.userMetadataKey = userMetadataKey;
+        this.chunkChars = config.getChunkChars();
+        this.minChars = config.getMinChars();
+        this.shutdownTimeout = config.getShutdownTimeout();
+        this.meterRegistry = meterRegistry;
+        this.queue = Sinks.many().multicast().onBackpressureBuffer(config.getQueueCapacity(), false);
+        this.lag = Timer.builder("memory.ingest.lag")
+                .description("Time from a turn or upload being submitted to a chunk of it being stored")
+                .register(meterRegistry);
+        this.batchTimer = Timer.builder("memory.ingest.batch")
+                .description("Embedding and vector store write time per batch")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("memory.ingest.dropped")
+                .description("Submissions dropped because the ingestion queue was full")
+                .register(meterRegistry);
+        this.failed = Counter.builder("memory.ingest.failed")
+                .description("Chunks that could not be stored after retries")
+                .register(meterRegistry);
+        meterRegistry.gauge("memory.ingest.queued", queued);
+
+        this.pipeline = queue.asFlux()
+                .doOnNext(item -> queued.decrementAndGet())
+                .concatMap(item -> TextChunker.chunk(Flux.just(item.text()), chunkChars)
+                        .map(chunk -> new Chunk(item, toDocument(item, chunk))))
+                .bufferTimeout(config.getBatchSize(), config.getBatchWindow(), true)
+                .flatMap(batch -> write(batch, scheduler, config), config.getConcurrency())
+                .doOnError(ex -> log.error("Memory ingestion pipeline failed, resubscribing", ex))
+                .retry()
+                .doFinally(signal -> terminated.countDown())
+                .subscribe();
+    }
+
+    public void submit(UUID userId, String source, String text) {
+        if (!enabled || text == null || text.strip().length() < minChars) return;
+        IngestionItem item = new IngestionItem(userId, source, text, Instant.now());
+        Sinks.EmitResult result;
+        while ((result = queue.tryEmitNext(item)) == Sinks.EmitResult.FAIL_NON_SERIALIZED) {
+            Thread.onSpinWait();
+        }
+        if (result.isSuccess()) {
+            queued.incrementAndGet();
+        } else {
+            dropped.increment();
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        queue.tryEmitComplete();
+        if (!terminated.await(shutdownTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+            log.warn("Memory ingestion did not drain within {}, {} submissions pending", shutdownTimeout, queued.get());
+            pipeline.dispose();
+        }
+    }
+
+    private Mono<Void> write(List<Chunk> batch, Scheduler scheduler, IngestionConfig config) {
+        List<Document> documents = batch.stream().map(Chunk::document).toList();
+        return Mono.fromRunnable(() -> batchTimer.record(() -> vectorStore.add(documents)))
+                .subscribeOn(scheduler)
+                .retryWhen(Retry.backoff(config.getMaxRetries(), config.getRetryBackoff()))
+                .doOnSuccess(done -> {
+                    Instant now = Instant.now();
+                    batch.forEach(chunk -> {
+                        lag.record(Duration.between(chunk.item().submittedAt(), now));
+                        Counter.builder("memory.ingest.documents")
+                                .tag("source", chunk.item().source())
+                                .register(meterRegistry)
+                                .increment();
+                    });
+                })
+                .onErrorResume(ex -> {
+                    log.error("Failed to store {} memory chunks after retries", documents.size(), ex);
+                    failed.increment(documents.size());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    private Document toDocument(IngestionItem item, String chunk) {
+        String id = UUID.nameUUIDFromBytes((item.userId() + "\u0000" + item.source() + "\u0000" + chunk)
+                .getBytes(StandardCharsets.UTF_8)).toString();
+        return new Document(id, chunk, Map.of(
+                userMetadataKey, item.userId().toString(),
+                "source", item.source(),
+                "timestamp", item.submittedAt().toEpochMilli()));
+    }
+
+    private record Chunk(IngestionItem item, Document document) {}
+}
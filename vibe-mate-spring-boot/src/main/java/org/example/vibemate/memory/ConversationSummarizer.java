@@ -0,0 +1,66 @@
+package org.example.vibemate.memory;
+
+import org.example.vibemate.generation.GenerationScheduler;
+import org.example.vibemate.metrics.ChatMetrics;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.messages.Message;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Folds older turns of a conversation into its running summary with one model call, queued through the
+ * generation scheduler under the conversation's user, so it shares that user's max-per-user slots.
+ */
+public class ConversationSummarizer {
+
+    private static final String SUMMARY_PROMPT = """
+            You keep a running summary of a conversation between a user and their AI companion.
+            Update the current summary with the new messages. Keep names, preferences, facts, plans and
+            the emotional context the companion should remember; drop small talk.
+            Write in the third person, at most %d words, without any preamble.
+            """;
+
+    private final ChatClient chatClient;
+    private final GenerationScheduler generationScheduler;
+    private final ChatMetrics chatMetrics;
+    private final String model;
+    private final String systemPrompt;
+
+    public ConversationSummarizer(ChatClient chatClient, GenerationScheduler generationScheduler,
+                                  ChatMetrics chatMetrics, String model, int maxWords) {
+        this.chatClient = chatClient;
+        this.generationScheduler = generationScheduler;
+        this.chatMetrics = chatMetrics;
+        this.model = model;
+        this.systemPrompt = SUMMARY_PROMPT.formatted(maxWords);
+    }
+
+    public Mono<String> summarize(String conversationId, String previousSummary, List<Message> messages) {
+        String transcript = messages.stream()
+                .map(message -> message.getMessageType().name() + ": " + message.getText())
+                .collect(Collectors.joining("\n"));
+        String user = "Current summary:\n" + (previousSummary != null ? previousSummary : "(none)")
+                + "\n\nNew messages:\n" + transcript;
+        return chatMetrics.generation("memory", model, "summary", "none",
+                        generationScheduler.schedule(model, userId(conversationId), () -> chatClient.prompt()
+                                .system(systemPrompt)
+                                .user(user)
+                                .stream()
+                                .chatResponse()))
+                .collect(Collectors.joining())
+                .map(String::strip)
+                .filter(summary -> !summary.isEmpty());
+    }
+
+    private static UUID userId(String conversationId) {
+        try {
+            return UUID.fromString(conversationId);
+        } catch (IllegalArgumentException ex) {
+            return UUID.nameUUIDFromBytes(conversationId.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
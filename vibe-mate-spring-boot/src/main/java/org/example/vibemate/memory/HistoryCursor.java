@@ -0,0 +1,26 @@
+package org.example.vibemate.memory;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Opaque paging cursor for chat history: the message timestamp in microseconds, which is unique within
+ * a conversation and matches the (conversation_id, timestamp) index.
+ */
+public final class HistoryCursor {
+
+    private HistoryCursor() {
+    }
+
+    public static String encode(Instant timestamp) {
+        return Long.toString(ChronoUnit.MICROS.between(Instant.EPOCH, timestamp), Character.MAX_RADIX);
+    }
+
+    public static Instant decode(String cursor) {
+        try {
+            return Instant.EPOCH.plus(Long.parseLong(cursor, Character.MAX_RADIX), ChronoUnit.MICROS);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid history cursor: " + cursor);
+        }
+    }
+}
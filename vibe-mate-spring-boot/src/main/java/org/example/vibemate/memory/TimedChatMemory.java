@@ -0,0 +1,37 @@
+package org.example.vibemate.memory;
+
+import io.micrometer.core.instrument.Timer;
+import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.ai.chat.messages.Message;
+
+import java.util.List;
+
+/**
+ * Per-call view of the chat memory that records loads on a stage timer tagged with the endpoint and
+ * model of the call, so the memory advisor's load shows up next to the other stages of that request.
+ */
+public class TimedChatMemory implements ChatMemory {
+
+    private final ChatMemory delegate;
+    private final Timer loadTimer;
+
+    public TimedChatMemory(ChatMemory delegate, Timer loadTimer) {
+        this.delegate = delegate;
+        this.loadTimer = loadTimer;
+    }
+
+    @Override
+    public void add(String conversationId, List<Message> messages) {
+        delegate.add(conversationId, messages);
+    }
+
+    @Override
+    public List<Message> get(String conversationId) {
+        return loadTimer.record(() -> delegate.get(conversationId));
+    }
+
+    @Override
+    public void clear(String conversationId) {
+        delegate.clear(conversationId);
+    }
+}
@@ -0,0 +1,406 @@
+package org.example.vibemate.memory;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.example.vibemate.config.ChatMemoryConfig;
+import org.example.vibemate.document.TextChunker;
+import org.example.vibemate.metrics.ChatMetrics;
+import org.example.vibemate.model.ChatMemoryEntry;
+import org.example.vibemate.model.ConversationSummary;
+import org.example.vibemate.repository.R2dbcChatMemoryRepository;
+import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.beans.factory.DisposableBean;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps the recent window of hot conversations in memory and appends new messages to
+ * SPRING_AI_CHAT_MEMORY in batches from a background flush instead of rewriting the window per turn.
+ * With a summarizer, turns older than the verbatim tail are folded off the request path into a running
+ * summary kept in SPRING_AI_CHAT_MEMORY_SUMMARY, and get() returns that summary followed by as many
+ * recent messages as fit the token budget. A window over the budget is compacted rather than trimmed
+ * turn by turn, so between compactions each prompt extends the previous one and the model server can
+ * reuse its cached prefix.
+ */
+@Slf4j
+public class WriteBehindChatMemory implements ChatMemory, DisposableBean {
+
+    /**
+     * Metadata key marking the summary system message, so it can be told apart from the persona prompt.
+     */
+    public static final String SUMMARY_METADATA = "vibe-mate.summary";
+
+    private static final String SUMMARY_PREFIX = "Summary of the earlier conversation with the user:\n";
+
+    private final R2dbcChatMemoryRepository repository;
+    private final ConversationSummarizer summarizer;
+    private final int maxMessages;
+    private final int keepMessages;
+    private final int compactBatch;
+    private final int tokenBudget;
+    private final Duration timeout;
+    private final Scheduler scheduler;
+    private final Cache<String, Window> windows;
+    private final Map<String, List<ChatMemoryEntry>> evicted = new ConcurrentHashMap<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final Object flushLock = new Object();
+    private final Sinks.Many<Compaction> compactions = Sinks.many().unicast().onBackpressureBuffer();
+    private final Timer flushLag;
+    private final Timer persistTimer;
+    private final DistributionSummary promptTokens;
+    private final DistributionSummary compactionRatio;
+    private final Counter compacted;
+    private final Counter compactionFailures;
+    private final Disposable flushTask;
+    private final Disposable compactionTask;
+
+    public WriteBehindChatMemory(R2dbcChatMemoryRepository repository, Scheduler scheduler,
+                                 MeterRegistry meterRegistry, ChatMemoryConfig config,
+                                 ConversationSummarizer summarizer) {
+        this.repository = repository;
+        this.summarizer = summarizer;
+        this.maxMessages = config.getMaxMessages();
+        this.keepMessages = config.getKeepMessages();
+        this.compactBatch = config.getCompactBatch();
+        this.tokenBudget = config.getTokenBudget();
+        this.timeout = config.getTimeout();
+        this.scheduler = scheduler;
+        this.windows = Caffeine.newBuilder()
+                .maximumSize(config.getCacheSize())
+                .expireAfterAccess(config.getCacheTtl())
+                .executor(scheduler::schedule)
+                .evictionListener(this::onEviction)
+                .recordStats()
+                .build();
+        this.flushLag = Timer.builder("chat.memory.flush.lag")
+                .description("Time between a message being added and reaching the database")
+                .register(meterRegistry);
+        this.persistTimer = ChatMetrics.stageTimer(meterRegistry, "memory.persist", ChatMetrics.ALL_ENDPOINTS);
+        this.promptTokens = DistributionSummary.builder("chat.memory.prompt.tokens")
+                .description("Estimated tokens of memory replayed into each prompt")
+                .baseUnit("tokens")
+                .register(meterRegistry);
+        this.compactionRatio = DistributionSummary.builder("chat.memory.compaction.ratio")
+                .description("Summary size relative to the summary and messages it replaced")
+                .register(meterRegistry);
+        this.compacted = Counter.builder("chat.memory.compactions").tag("outcome", "success").register(meterRegistry);
+        this.compactionFailures = Counter.builder("chat.memory.compactions").tag("outcome", "failure").register(meterRegistry);
+        CaffeineCacheMetrics.monitor(meterRegistry, windows, "chat.memory.window");
+        meterRegistry.gauge("chat.memory.pending", pendingCount);
+
+        long interval = config.getFlushInterval().toMillis();
+        this.flushTask = scheduler.schedulePeriodically(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+        this.compactionTask = summarizer == null
+                ? Disposables.disposed()
+                : compactions.asFlux().flatMap(this::compact, config.getSummaryConcurrency()).subscribe();
+    }
+
+    @Override
+    public void add(String conversationId, List<Message> messages) {
+        // Appending inside compute() keeps eviction and clear() out while the window is updated, so
+        // messages either land in a mapped window's pending list or are orphaned; never in a dropped window.
+        Compaction[] compaction = new Compaction[1];
+        windows.asMap().compute(conversationId, (id, window) -> {
+            if (window == null) {
+                Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+                List<ChatMemoryEntry> entries = new ArrayList<>(messages.size());
+                for (int i = 0; i < messages.size(); i++) {
+                    entries.add(new ChatMemoryEntry(id, messages.get(i), now.plusNanos(1000L * i)));
+                }
+                orphan(id, entries);
+                pendingCount.addAndGet(entries.size());
+                return null;
+            }
+            synchronized (window) {
+                for (Message message : messages) {
+                    ChatMemoryEntry entry = new ChatMemoryEntry(id, message, window.nextTimestamp());
+                    window.messages.addLast(entry);
+                    window.pending.add(entry);
+                }
+                while (window.messages.size() > maxMessages) {
+                    window.messages.removeFirst();
+                }
+                pendingCount.addAndGet(messages.size());
+                compaction[0] = compactionFor(id, window);
+            }
+            return window;
+        });
+        if (compaction[0] != null) {
+            compactions.emitNext(compaction[0], Sinks.EmitFailureHandler.busyLooping(Duration.ofMillis(100)));
+        }
+    }
+
+    @Override
+    public List<Message> get(String conversationId) {
+        Window window = windows.get(conversationId, this::load);
+        synchronized (window) {
+            return promptView(window);
+        }
+    }
+
+    /**
+     * Shares the flush lock so the delete cannot land while a flush is still writing messages of this
+     * conversation that it drained before the clear, which would bring them back.
+     */
+    @Override
+    public void clear(String conversationId) {
+        synchronized (flushLock) {
+            Window window = windows.asMap().remove(conversationId);
+            if (window != null) {
+                synchronized (window) {
+                    pendingCount.addAndGet(-window.pending.size());
+                    window.pending.clear();
+                    window.cleared = true;
+                }
+            }
+            List<ChatMemoryEntry> orphans = evicted.remove(conversationId);
+            if (orphans != null) pendingCount.addAndGet(-orphans.size());
+            repository.delete(conversationId)
+                    .then(repository.deleteSummary(conversationId))
+                    .block(timeout);
+        }
+    }
+
+    /**
+     * Writes one conversation's pending messages now, so a read that goes straight to the repository,
+     * such as a history page, includes the latest turns.
+     */
+    public void flush(String conversationId) {
+        synchronized (flushLock) {
+            List<ChatMemoryEntry> batch = new ArrayList<>();
+            Window window = windows.asMap().get(conversationId);
+            if (window != null) {
+                synchronized (window) {
+                    batch.addAll(window.pending);
+                    window.pending.clear();
+                }
+            }
+            List<ChatMemoryEntry> orphans = evicted.remove(conversationId);
+            if (orphans != null) batch.addAll(orphans);
+            write(batch);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        flushTask.dispose();
+        compactionTask.dispose();
+        flush();
+    }
+
+    private Window load(String conversationId) {
+        ConversationSummary summary = summarizer != null ? repository.summary(conversationId).block(timeout) : null;
+        List<ChatMemoryEntry> stored = repository
+                .recentEntries(conversationId, summary != null ? summary.coveredUntil() : null, maxMessages)
+                .collectList()
+                .block(timeout);
+        Window window = new Window();
+        if (summary != null) {
+            window.summary = summary.content();
+            window.summarizedUntil = summary.coveredUntil();
+        }
+        if (stored != null) stored.forEach(window::restore);
+        List<ChatMemoryEntry> orphans = evicted.get(conversationId);
+        if (orphans != null) {
+            orphans.stream()
+                    .filter(entry -> entry.timestamp().isAfter(window.summarizedUntil))
+                    .forEach(window::restore);
+        }
+        while (window.messages.size() > maxMessages) {
+            window.messages.removeFirst();
+        }
+        return window;
+    }
+
+    private List<Message> promptView(Window window) {
+        int used = window.summary != null ? tokens(window.summary) : 0;
+        Deque<Message> recent = new ArrayDeque<>();
+        Iterator<ChatMemoryEntry> newestFirst = window.messages.descendingIterator();
+        while (newestFirst.hasNext()) {
+            Message message = newestFirst.next().message();
+            int messageTokens = tokens(message.getText());
+            if (tokenBudget > 0 && !recent.isEmpty() && used + messageTokens > tokenBudget) break;
+            used += messageTokens;
+            recent.addFirst(message);
+        }
+        promptTokens.record(used);
+        List<Message> view = new ArrayList<>(recent.size() + 1);
+        if (window.summary != null) {
+            view.add(SystemMessage.builder()
+                    .text(SUMMARY_PREFIX + window.summary)
+                    .metadata(Map.of(SUMMARY_METADATA, true))
+                    .build());
+        }
+        view.addAll(recent);
+        return view;
+    }
+
+    private Compaction compactionFor(String conversationId, Window window) {
+        if (summarizer == null || window.compacting) return null;
+        int older = window.messages.size() - keepMessages;
+        if (older <= 0 || (older < compactBatch && !overBudget(window))) return null;
+        window.compacting = true;
+        List<ChatMemoryEntry> folded = window.messages.stream().limit(older).toList();
+        return new Compaction(conversationId, window, window.summary, folded);
+    }
+
+    private boolean overBudget(Window window) {
+        if (tokenBudget <= 0) return false;
+        int used = window.summary != null ? tokens(window.summary) : 0;
+        for (ChatMemoryEntry entry : window.messages) used += tokens(entry.message().getText());
+        return used > tokenBudget;
+    }
+
+    private Mono<Void> compact(Compaction compaction) {
+        Window window = compaction.window();
+        List<Message> messages = compaction.folded().stream().map(ChatMemoryEntry::message).toList();
+        Instant coveredUntil = compaction.folded().get(compaction.folded().size() - 1).timestamp();
+        return summarizer.summarize(compaction.conversationId(), compaction.previousSummary(), messages)
+                .publishOn(scheduler)
+                .filter(summary -> saveUnlessCleared(compaction, summary, coveredUntil))
+                .doOnNext(summary -> {
+                    synchronized (window) {
+                        window.summary = summary;
+                        window.summarizedUntil = coveredUntil;
+                        while (!window.messages.isEmpty()
+                                && !window.messages.peekFirst().timestamp().isAfter(coveredUntil)) {
+                            window.messages.removeFirst();
+                        }
+                    }
+                    int replaced = messages.stream().mapToInt(message -> tokens(message.getText())).sum()
+                            + (compaction.previousSummary() != null ? tokens(compaction.previousSummary()) : 0);
+                    compactionRatio.record(replaced == 0 ? 1.0 : (double) tokens(summary) / replaced);
+                    compacted.increment();
+                })
+                .doOnError(ex -> {
+                    compactionFailures.increment();
+                    log.warn("Failed to compact conversation {}, retrying on a later turn",
+                            compaction.conversationId(), ex);
+                })
+                .onErrorResume(ex -> Mono.empty())
+                .doFinally(signal -> {
+                    synchronized (window) {
+                        window.compacting = false;
+                    }
+                })
+                .then();
+    }
+
+    /**
+     * Takes the flush lock that clear() holds while it deletes, so a clear either lands first and the
+     * summary is dropped, or lands after the save and deletes the summary with the rest.
+     */
+    private boolean saveUnlessCleared(Compaction compaction, String summary, Instant coveredUntil) {
+        synchronized (flushLock) {
+            if (compaction.window().cleared) return false;
+            repository.saveSummary(new ConversationSummary(compaction.conversationId(), summary, coveredUntil))
+                    .block(timeout);
+            return true;
+        }
+    }
+
+    private void onEviction(String conversationId, Window window, RemovalCause cause) {
+        if (conversationId == null || window == null) return;
+        synchronized (window) {
+            if (window.pending.isEmpty()) return;
+            orphan(conversationId, window.pending);
+            window.pending.clear();
+        }
+    }
+
+    private void flush() {
+        synchronized (flushLock) {
+            flushPending();
+        }
+    }
+
+    private void flushPending() {
+        List<ChatMemoryEntry> batch = new ArrayList<>();
+        windows.asMap().values().forEach(window -> {
+            synchronized (window) {
+                batch.addAll(window.pending);
+                window.pending.clear();
+            }
+        });
+        evicted.keySet().forEach(id -> {
+            List<ChatMemoryEntry> orphans = evicted.remove(id);
+            if (orphans != null) batch.addAll(orphans);
+        });
+        write(batch);
+    }
+
+    private void write(List<ChatMemoryEntry> batch) {
+        if (batch.isEmpty()) return;
+
+        try {
+            persistTimer.record(() -> repository.appendAll(batch).block(timeout));
+            pendingCount.addAndGet(-batch.size());
+            Instant now = Instant.now();
+            batch.forEach(entry -> flushLag.record(Duration.between(entry.timestamp(), now)));
+        } catch (Exception ex) {
+            log.error("Failed to flush {} chat memory messages, retrying on next flush", batch.size(), ex);
+            batch.forEach(entry -> orphan(entry.conversationId(), List.of(entry)));
+        }
+    }
+
+    private void orphan(String conversationId, List<ChatMemoryEntry> entries) {
+        evicted.merge(conversationId, List.copyOf(entries), (existing, added) -> {
+            List<ChatMemoryEntry> merged = new ArrayList<>(existing);
+            merged.addAll(added);
+            return merged;
+        });
+    }
+
+    private static int tokens(String text) {
+        return text == null ? 0 : (text.length() + TextChunker.CHARS_PER_TOKEN - 1) / TextChunker.CHARS_PER_TOKEN;
+    }
+
+    private record Compaction(String conversationId, Window window, String previousSummary,
+                              List<ChatMemoryEntry> folded) {}
+
+    private static final class Window {
+        private final Deque<ChatMemoryEntry> messages = new ArrayDeque<>();
+        private final List<ChatMemoryEntry> pending = new ArrayList<>();
+        private Instant lastTimestamp = Instant.EPOCH;
+        private String summary;
+        private Instant summarizedUntil = Instant.EPOCH;
+        private boolean compacting;
+        private volatile boolean cleared;
+
+        private void restore(ChatMemoryEntry entry) {
+            messages.addLast(entry);
+            if (entry.timestamp().isAfter(lastTimestamp)) lastTimestamp = entry.timestamp();
+        }
+
+        private Instant nextTimestamp() {
+            Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+            lastTimestamp = now.isAfter(lastTimestamp) ? now : lastTimestamp.plusNanos(1000);
+            return lastTimestamp;
+        }
+    }
+}
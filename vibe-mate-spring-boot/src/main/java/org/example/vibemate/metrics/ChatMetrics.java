@@ -0,0 +1,184 @@
+package org.example.vibemate.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+import reactor.util.context.ContextView;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Per-request view of the chat pipeline: a chat.stage timer per stage and endpoint, and for each model
+ * call the time to first token, total generation time, tokens in and out, decode rate and the number of
+ * streams currently open. Stage timers carry the endpoint and the model the stage served; stages that
+ * run inside a model call (prompt rendering, retrieval, memory load) read both from the Reactor context
+ * or the advisor context (see {@link #tags}), and those without a model are tagged model "none".
+ */
+@Slf4j
+public class ChatMetrics {
+
+    public static final String STAGE_TIMER = "chat.stage";
+    public static final String ALL_ENDPOINTS = "all";
+    public static final String NO_MODEL = "none";
+    public static final String ENDPOINT = "chat.endpoint";
+    public static final String MODEL = "chat.model";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, AtomicInteger> activeStreams = new ConcurrentHashMap<>();
+
+    public ChatMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public static Timer stageTimer(MeterRegistry meterRegistry, String stage, String endpoint) {
+        return stageTimer(meterRegistry, stage, endpoint, NO_MODEL);
+    }
+
+    public static Timer stageTimer(MeterRegistry meterRegistry, String stage, String endpoint, String model) {
+        return Timer.builder(STAGE_TIMER)
+                .description("Latency of one stage of the chat pipeline")
+                .tag("stage", stage)
+                .tag("endpoint", endpoint)
+                .tag("model", model)
+                .register(meterRegistry);
+    }
+
+    public Timer stageTimer(String stage, String endpoint, String model) {
+        return stageTimer(meterRegistry, stage, endpoint, model);
+    }
+
+    public static Context tags(String endpoint, String model) {
+        return Context.of(ENDPOINT, endpoint, MODEL, model);
+    }
+
+    public static String endpoint(ContextView context) {
+        return context.getOrDefault(ENDPOINT, ALL_ENDPOINTS);
+    }
+
+    public static String model(ContextView context) {
+        return context.getOrDefault(MODEL, NO_MODEL);
+    }
+
+    public static String endpoint(Map<String, Object> context) {
+        return context.getOrDefault(ENDPOINT, ALL_ENDPOINTS).toString();
+    }
+
+    public static String model(Map<String, Object> context) {
+        return context.getOrDefault(MODEL, NO_MODEL).toString();
+    }
+
+    public <T> Mono<T> stage(String stage, String endpoint, Mono<T> mono) {
+        Timer timer = stageTimer(meterRegistry, stage, endpoint);
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return mono.doFinally(signal -> timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+        });
+    }
+
+    public <T> Flux<T> stage(String stage, String endpoint, Flux<T> flux) {
+        Timer timer = stageTimer(meterRegistry, stage, endpoint);
+        return Flux.defer(() -> {
+            long start = System.nanoTime();
+            return flux.doFinally(signal -> timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS));
+        });
+    }
+
+    public Flux<String> generation(String endpoint, String model, String call, String prompt,
+                                   Flux<ChatResponse> responses) {
+        return generation(endpoint, model, call, () -> prompt, responses);
+    }
+
+    /**
+     * The prompt tag is read at the first token, once the advisors that decide it have run.
+     */
+    public Flux<String> generation(String endpoint, String model, String call, Supplier<String> prompt,
+                                   Flux<ChatResponse> responses) {
+        Counter tokensIn = tokens(endpoint, model, "in");
+        Counter tokensOut = tokens(endpoint, model, "out");
+        DistributionSummary rate = DistributionSummary.builder("chat.tokens.rate")
+                .description("Generated tokens per second after the first token")
+                .baseUnit("tokens/s")
+                .tags("endpoint", endpoint, "model", model)
+                .register(meterRegistry);
+        AtomicInteger active = activeStreams.computeIfAbsent(endpoint, key ->
+                meterRegistry.gauge("chat.streams.active", Tags.of("endpoint", key), new AtomicInteger()));
+
+        return Flux.deferContextual(context -> {
+            String traceId = context.getOrDefault(TraceIdFilter.TRACE_ID, "-");
+            long start = System.nanoTime();
+            AtomicLong firstToken = new AtomicLong();
+            AtomicLong chunks = new AtomicLong();
+            AtomicReference<Usage> usage = new AtomicReference<>();
+            active.incrementAndGet();
+            return responses
+                    .doOnNext(response -> {
+                        Usage reported = response.getMetadata().getUsage();
+                        if (reported != null && reported.getCompletionTokens() != null && reported.getCompletionTokens() > 0) {
+                            usage.set(reported);
+                        }
+                    })
+                    .map(ChatMetrics::text)
+                    .filter(text -> !text.isEmpty())
+                    .doOnNext(text -> {
+                        chunks.incrementAndGet();
+                        if (firstToken.compareAndSet(0, System.nanoTime())) {
+                            Timer.builder("chat.ttft")
+                                    .description("Time from request to the first generated token, including queueing")
+                                    .tags("endpoint", endpoint, "model", model, "call", call, "prompt", prompt.get())
+                                    .register(meterRegistry)
+                                    .record(firstToken.get() - start, TimeUnit.NANOSECONDS);
+                        }
+                    })
+                    .doFinally(signal -> {
+                        active.decrementAndGet();
+                        long end = System.nanoTime();
+                        Timer.builder("chat.generation")
+                                .description("Total model call time, including queueing")
+                                .tags("endpoint", endpoint, "model", model, "call", call, "outcome", signal.name())
+                                .register(meterRegistry)
+                                .record(end - start, TimeUnit.NANOSECONDS);
+                        Usage reported = usage.get();
+                        long generated = reported != null ? reported.getCompletionTokens() : chunks.get();
+                        if (reported != null && reported.getPromptTokens() != null) {
+                            tokensIn.increment(reported.getPromptTokens());
+                        }
+                        tokensOut.increment(generated);
+                        long decodeNanos = firstToken.get() == 0 ? 0 : end - firstToken.get();
+                        if (generated > 1 && decodeNanos > 0) {
+                            rate.record((generated - 1) / (decodeNanos / 1e9));
+                        }
+                        log.debug("trace={} endpoint={} model={} call={} outcome={} ttft={}ms total={}ms tokens={}",
+                                traceId, endpoint, model, call, signal,
+                                firstToken.get() == 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(firstToken.get() - start),
+                                TimeUnit.NANOSECONDS.toMillis(end - start), generated);
+                    });
+        });
+    }
+
+    private Counter tokens(String endpoint, String model, String direction) {
+        return Counter.builder("chat.tokens")
+                .description("Prompt (in) and generated (out) tokens")
+                .tags("endpoint", endpoint, "model", model, "direction", direction)
+                .register(meterRegistry);
+    }
+
+    private static String text(ChatResponse response) {
+        if (response.getResult() == null || response.getResult().getOutput() == null) return "";
+        String text = response.getResult().getOutput().getText();
+        return text != null ? text : "";
+    }
+}
@@ -0,0 +1,32 @@
+package org.example.vibemate.metrics;
+
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+/**
+ * Gives every request a trace ID, taken from the incoming header or generated, echoes it on the
+ * response and puts it in the Reactor context so pipeline stages can log against it.
+ */
+public class TraceIdFilter implements WebFilter {
+
+    public static final String TRACE_ID = "traceId";
+
+    private final String header;
+
+    public TraceIdFilter(String header) {
+        this.header = header;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String incoming = exchange.getRequest().getHeaders().getFirst(header);
+        String traceId = StringUtils.hasText(incoming) ? incoming : UUID.randomUUID().toString();
+        exchange.getResponse().getHeaders().set(header, traceId);
+        return chain.filter(exchange).contextWrite(context -> context.put(TRACE_ID, traceId));
+    }
+}
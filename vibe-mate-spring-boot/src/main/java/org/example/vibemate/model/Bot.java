@@ -18,5 +18,6 @@ public class Bot {
     private String personality;
     private String tone;
     private String role;
+    private Boolean responseCache;
 }
 
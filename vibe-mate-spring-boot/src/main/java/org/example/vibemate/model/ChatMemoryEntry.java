@@ -0,0 +1,7 @@
+package org.example.vibemate.model;
+
+import org.springframework.ai.chat.messages.Message;
+
+import java.time.Instant;
+
+public record ChatMemoryEntry(String conversationId, Message message, Instant timestamp) {}
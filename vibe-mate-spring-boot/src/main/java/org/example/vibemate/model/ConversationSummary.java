@@ -0,0 +1,5 @@
+package org.example.vibemate.model;
+
+import java.time.Instant;
+
+public record ConversationSummary(String conversationId, String content, Instant coveredUntil) {}
@@ -0,0 +1,56 @@
+package org.example.vibemate.prompt;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A persona prompt parsed once into literal and {placeholder} segments, so rendering is a single
+ * pass over pre-split parts instead of re-scanning a format string per message.
+ */
+public final class PersonaTemplate {
+
+    private final List<String> literals;
+    private final List<String> variables;
+    private final int literalLength;
+
+    private PersonaTemplate(List<String> literals, List<String> variables) {
+        this.literals = literals;
+        this.variables = variables;
+        this.literalLength = literals.stream().mapToInt(String::length).sum();
+    }
+
+    public static PersonaTemplate parse(String template) {
+        List<String> literals = new ArrayList<>();
+        List<String> variables = new ArrayList<>();
+        int position = 0;
+        while (true) {
+            int open = template.indexOf('{', position);
+            if (open < 0) break;
+            int close = template.indexOf('}', open);
+            if (close < 0) throw new IllegalArgumentException("Unclosed placeholder at index " + open);
+            literals.add(template.substring(position, open));
+            variables.add(template.substring(open + 1, close).strip());
+            position = close + 1;
+        }
+        literals.add(template.substring(position));
+        return new PersonaTemplate(List.copyOf(literals), List.copyOf(variables));
+    }
+
+    public List<String> variables() {
+        return variables;
+    }
+
+    public String render(Map<String, String> values) {
+        StringBuilder builder = new StringBuilder(literalLength + variables.size() * 16);
+        for (int i = 0; i < variables.size(); i++) {
+            builder.append(literals.get(i));
+            String value = values.get(variables.get(i));
+            if (value == null && !values.containsKey(variables.get(i))) {
+                throw new IllegalArgumentException("No value for prompt placeholder " + variables.get(i));
+            }
+            builder.append(value);
+        }
+        return builder.append(literals.getLast()).toString();
+    }
+}
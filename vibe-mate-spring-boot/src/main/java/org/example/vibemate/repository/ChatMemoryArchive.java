@@ -0,0 +1,61 @@
+package org.example.vibemate.repository;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Gzipped payload of one conversation's messages from one archived partition, stored in
+ * SPRING_AI_CHAT_MEMORY_ARCHIVE.
+ */
+public final class ChatMemoryArchive {
+
+    private ChatMemoryArchive() {
+    }
+
+    public static byte[] encode(List<Entry> entries) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(bytes))) {
+            out.writeInt(entries.size());
+            for (Entry entry : entries) {
+                out.writeLong(entry.timestamp().getEpochSecond());
+                out.writeInt(entry.timestamp().getNano());
+                out.writeUTF(entry.type());
+                byte[] content = entry.content().getBytes(StandardCharsets.UTF_8);
+                out.writeInt(content.length);
+                out.write(content);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static List<Entry> decode(byte[] payload) {
+        try (DataInputStream in = new DataInputStream(new GZIPInputStream(new ByteArrayInputStream(payload)))) {
+            int count = in.readInt();
+            List<Entry> entries = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                Instant timestamp = Instant.ofEpochSecond(in.readLong(), in.readInt());
+                String type = in.readUTF();
+                byte[] content = new byte[in.readInt()];
+                in.readFully(content);
+                entries.add(new Entry(timestamp, type, new String(content, StandardCharsets.UTF_8)));
+            }
+            return entries;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    public record Entry(Instant timestamp, String type, String content) {}
+}
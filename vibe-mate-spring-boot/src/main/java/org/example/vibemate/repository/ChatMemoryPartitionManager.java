@@ -0,0 +1,241 @@
+package org.example.vibemate.repository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps SPRING_AI_CHAT_MEMORY_PARTITIONED split into daily partitions: creates the next few days ahead
+ * of time and, once a day falls out of the retention window, copies its visible messages per
+ * conversation into SPRING_AI_CHAT_MEMORY_ARCHIVE as a gzipped payload and drops the partition, which
+ * is a metadata operation rather than a bulk DELETE. Rows that landed in the default partition because
+ * their day had no partition yet are moved into one, so they age out the same way. A tombstone older
+ * than the window is removed once no row it hides is left.
+ */
+@Slf4j
+public class ChatMemoryPartitionManager implements DisposableBean {
+
+    private static final String TABLE = "spring_ai_chat_memory_partitioned";
+    private static final String DEFAULT_PARTITION = "spring_ai_chat_memory_default";
+    private static final String PREFIX = "spring_ai_chat_memory_p";
+    private static final Pattern PARTITION = Pattern.compile(PREFIX + "\\d{8}");
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final String SELECT_PARTITIONS = """
+            SELECT child.relname FROM pg_inherits
+            JOIN pg_class parent ON parent.oid = pg_inherits.inhparent
+            JOIN pg_class child ON child.oid = pg_inherits.inhrelid
+            WHERE parent.relname = :table
+            """;
+    private static final String SELECT_VISIBLE = """
+            SELECT m.conversation_id, m.content, m.type, m.timestamp FROM %s m
+            LEFT JOIN SPRING_AI_CHAT_MEMORY_TOMBSTONE t ON t.conversation_id = m.conversation_id
+            WHERE t.cleared_at IS NULL OR m.timestamp > t.cleared_at
+            ORDER BY m.conversation_id, m.timestamp
+            """;
+    private static final String INSERT_ARCHIVE = """
+            INSERT INTO SPRING_AI_CHAT_MEMORY_ARCHIVE (conversation_id, partition_day, messages, payload, archived_at)
+            VALUES ($1, $2, $3, $4, $5)
+            ON CONFLICT (conversation_id, partition_day) DO NOTHING
+            """;
+    private static final String SELECT_DEFAULT_DAYS =
+            "SELECT DISTINCT CAST(timestamp AS DATE) AS day FROM " + DEFAULT_PARTITION;
+    private static final String CREATE_PARTITION =
+            "CREATE TABLE IF NOT EXISTS %s PARTITION OF %s FOR VALUES FROM ('%s') TO ('%s')";
+    /**
+     * Postgres refuses to create a partition while the default partition holds rows for its range, so
+     * the default is detached, the day created and its rows moved across, then the default re-attached.
+     * A DO block runs as one statement, so this commits or rolls back as a whole.
+     */
+    private static final String MOVE_OUT_OF_DEFAULT = """
+            DO $$
+            BEGIN
+                ALTER TABLE %1$s DETACH PARTITION %2$s;
+                CREATE TABLE IF NOT EXISTS %3$s PARTITION OF %1$s FOR VALUES FROM ('%4$s') TO ('%5$s');
+                INSERT INTO %3$s (message_id, conversation_id, content, type, timestamp)
+                    SELECT message_id, conversation_id, content, type, timestamp FROM %2$s
+                    WHERE timestamp >= '%4$s' AND timestamp < '%5$s';
+                DELETE FROM %2$s WHERE timestamp >= '%4$s' AND timestamp < '%5$s';
+                ALTER TABLE %1$s ATTACH PARTITION %2$s DEFAULT;
+            END $$
+            """;
+    private static final String DELETE_TOMBSTONES = """
+            DELETE FROM SPRING_AI_CHAT_MEMORY_TOMBSTONE t
+            WHERE t.cleared_at < :cutoff
+            AND NOT EXISTS (
+                SELECT 1 FROM SPRING_AI_CHAT_MEMORY_PARTITIONED m
+                WHERE m.conversation_id = t.conversation_id AND m.timestamp <= t.cleared_at
+            )
+            """;
+
+    private final DatabaseClient databaseClient;
+    private final int retentionDays;
+    private final int premakeDays;
+    private final boolean archive;
+    private final int archiveBatch;
+    private final Timer maintenanceTimer;
+    private final Counter partitionsDropped;
+    private final Counter conversationsArchived;
+    private final Disposable maintenance;
+
+    public ChatMemoryPartitionManager(DatabaseClient databaseClient, Duration retention, int premakeDays,
+                                      boolean archive, int archiveBatch, Duration interval,
+                                      MeterRegistry meterRegistry) {
+        this.databaseClient = databaseClient;
+        this.retentionDays = (int) Math.max(1, retention.toDays());
+        this.premakeDays = premakeDays;
+        this.archive = archive;
+        this.archiveBatch = archiveBatch;
+        this.maintenanceTimer = Timer.builder("chat.memory.partition.maintenance")
+                .description("Time taken to create, archive and drop chat memory partitions")
+                .register(meterRegistry);
+        this.partitionsDropped = Counter.builder("chat.memory.partition.dropped")
+                .description("Chat memory partitions dropped after falling out of retention")
+                .register(meterRegistry);
+        this.conversationsArchived = Counter.builder("chat.memory.partition.archived")
+                .description("Conversation days copied to the chat memory archive before their partition was dropped")
+                .register(meterRegistry);
+        this.maintenance = Flux.interval(Duration.ZERO, interval)
+                .onBackpressureDrop()
+                .concatMap(tick -> maintain()
+                        .onErrorResume(ex -> {
+                            log.warn("Chat memory partition maintenance failed", ex);
+                            return Mono.empty();
+                        }))
+                .subscribe();
+    }
+
+    public Mono<Void> maintain() {
+        return Mono.defer(() -> {
+            LocalDate today = LocalDate.now();
+            LocalDate cutoff = today.minusDays(retentionDays);
+            long start = System.nanoTime();
+            return drainDefault()
+                    .then(ensurePartitions(today, today.plusDays(premakeDays)))
+                    .then(expire(cutoff))
+                    .then(databaseClient.sql(DELETE_TOMBSTONES)
+                            .bind("cutoff", cutoff.atStartOfDay())
+                            .fetch()
+                            .rowsUpdated())
+                    .doOnSuccess(deleted -> maintenanceTimer.record(Duration.ofNanos(System.nanoTime() - start)))
+                    .then();
+        });
+    }
+
+    /**
+     * Creates the daily partitions covering [from, to]. Days that already exist are left alone; a day
+     * whose rows were written to the default partition before it existed is created with those rows.
+     */
+    public Mono<Void> ensurePartitions(LocalDate from, LocalDate to) {
+        return Flux.fromStream(from.datesUntil(to.plusDays(1)))
+                .concatMap(this::createPartition)
+                .then();
+    }
+
+    @Override
+    public void destroy() {
+        maintenance.dispose();
+    }
+
+    /**
+     * Gives every day found in the default partition its own partition, so those rows are archived and
+     * dropped with their day instead of outliving the retention window.
+     */
+    private Mono<Void> drainDefault() {
+        return databaseClient.sql(SELECT_DEFAULT_DAYS)
+                .map((row, metadata) -> row.get("day", LocalDate.class))
+                .all()
+                .sort()
+                .concatMap(this::createPartition)
+                .then();
+    }
+
+    private Mono<Void> createPartition(LocalDate day) {
+        String partition = PREFIX + day.format(SUFFIX);
+        return databaseClient.sql(CREATE_PARTITION.formatted(partition, TABLE, day, day.plusDays(1)))
+                .then()
+                .onErrorResume(ex -> databaseClient.sql(MOVE_OUT_OF_DEFAULT.formatted(TABLE, DEFAULT_PARTITION,
+                                partition, day, day.plusDays(1)))
+                        .then()
+                        .doOnSuccess(done -> log.info("Moved chat memory rows for {} out of the default partition", day)))
+                .onErrorResume(ex -> {
+                    log.warn("Could not create chat memory partition for {}: {}", day, ex.getMessage());
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<Void> expire(LocalDate cutoff) {
+        return databaseClient.sql(SELECT_PARTITIONS)
+                .bind("table", TABLE)
+                .map((row, metadata) -> row.get("relname", String.class))
+                .all()
+                .filter(name -> PARTITION.matcher(name).matches())
+                .filter(name -> LocalDate.parse(name.substring(PREFIX.length()), SUFFIX).isBefore(cutoff))
+                .sort()
+                .concatMap(this::expirePartition)
+                .then();
+    }
+
+    private Mono<Void> expirePartition(String partition) {
+        LocalDate day = LocalDate.parse(partition.substring(PREFIX.length()), SUFFIX);
+        Mono<Void> archived = archive ? archivePartition(partition, day) : Mono.empty();
+        return archived
+                .then(databaseClient.sql("DROP TABLE IF EXISTS " + partition).then())
+                .doOnSuccess(done -> {
+                    partitionsDropped.increment();
+                    log.info("Dropped chat memory partition {}", partition);
+                });
+    }
+
+    private Mono<Void> archivePartition(String partition, LocalDate day) {
+        LocalDateTime archivedAt = LocalDateTime.now();
+        return databaseClient.sql(SELECT_VISIBLE.formatted(partition))
+                .map((row, metadata) -> new Row(
+                        row.get("conversation_id", UUID.class),
+                        new ChatMemoryArchive.Entry(
+                                row.get("timestamp", LocalDateTime.class).atZone(ZoneId.systemDefault()).toInstant(),
+                                row.get("type", String.class),
+                                Objects.requireNonNullElse(row.get("content", String.class), ""))))
+                .all()
+                .windowUntilChanged(Row::conversationId)
+                .concatMap(rows -> rows.collectList()
+                        .map(conversation -> new Archived(conversation.get(0).conversationId(),
+                                conversation.stream().map(Row::entry).toList())))
+                .buffer(archiveBatch)
+                .concatMap(batch -> databaseClient.inConnectionMany(connection -> {
+                    Statement statement = connection.createStatement(INSERT_ARCHIVE);
+                    for (int i = 0; i < batch.size(); i++) {
+                        if (i > 0) statement.add();
+                        Archived archived = batch.get(i);
+                        statement.bind(0, archived.conversationId())
+                                .bind(1, day)
+                                .bind(2, archived.entries().size())
+                                .bind(3, ChatMemoryArchive.encode(archived.entries()))
+                                .bind(4, archivedAt);
+                    }
+                    return Flux.from(statement.execute()).flatMap(Result::getRowsUpdated);
+                }).then(Mono.fromRunnable(() -> conversationsArchived.increment(batch.size()))))
+                .then();
+    }
+
+    private record Row(UUID conversationId, ChatMemoryArchive.Entry entry) {}
+
+    private record Archived(UUID conversationId, List<ChatMemoryArchive.Entry> entries) {}
+}
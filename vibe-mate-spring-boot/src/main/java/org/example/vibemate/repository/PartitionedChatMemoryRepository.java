@@ -0,0 +1,173 @@
+package org.example.vibemate.repository;
+
+import io.r2dbc.spi.Readable;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
+import org.example.vibemate.model.ChatMemoryEntry;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Chat memory in SPRING_AI_CHAT_MEMORY_PARTITIONED: UUID conversation keys, one partition per day (see
+ * {@link ChatMemoryPartitionManager}), and clears recorded as a tombstone that hides everything written
+ * before it instead of deleting rows. Hidden rows go away when their partition is dropped.
+ */
+public class PartitionedChatMemoryRepository extends R2dbcChatMemoryRepository {
+
+    private static final String CLEARED_AT = """
+            COALESCE((SELECT cleared_at FROM SPRING_AI_CHAT_MEMORY_TOMBSTONE WHERE conversation_id = :conversationId),
+                     '-infinity'::timestamp)""";
+    private static final String SELECT_CONVERSATION_IDS =
+            "SELECT DISTINCT conversation_id FROM SPRING_AI_CHAT_MEMORY_PARTITIONED";
+    private static final String SELECT_RECENT_CONVERSATION_IDS = """
+            SELECT conversation_id FROM SPRING_AI_CHAT_MEMORY_PARTITIONED
+            WHERE timestamp > :since
+            GROUP BY conversation_id
+            ORDER BY MAX(timestamp) DESC
+            LIMIT :limit
+            """;
+    private static final String SELECT_MESSAGES = """
+            SELECT content, type FROM SPRING_AI_CHAT_MEMORY_PARTITIONED
+            WHERE conversation_id = :conversationId AND timestamp > %s
+            ORDER BY timestamp
+            """.formatted(CLEARED_AT);
+    private static final String SELECT_PAGE_AFTER = """
+            SELECT content, type, timestamp FROM SPRING_AI_CHAT_MEMORY_PARTITIONED
+            WHERE conversation_id = :conversationId AND timestamp > :after AND timestamp > %s
+            ORDER BY timestamp
+            LIMIT :limit
+            """.formatted(CLEARED_AT);
+    private static final String SELECT_PAGE_BEFORE = """
+            SELECT content, type, timestamp FROM (
+                SELECT content, type, timestamp FROM SPRING_AI_CHAT_MEMORY_PARTITIONED
+                WHERE conversation_id = :conversationId AND timestamp < :before AND timestamp > %s
+                ORDER BY timestamp DESC
+                LIMIT :limit
+            ) page ORDER BY timestamp
+            """.formatted(CLEARED_AT);
+    private static final String SELECT_LATEST_PAGE = """
+            SELECT content, type, timestamp FROM (
+                SELECT content, type, timestamp FROM SPRING_AI_CHAT_MEMORY_PARTITIONED
+                WHERE conversation_id = :conversationId AND timestamp > %s
+                ORDER BY timestamp DESC
+                LIMIT :limit
+            ) page ORDER BY timestamp
+            """.formatted(CLEARED_AT);
+    private static final String SELECT_RECENT_AFTER = """
+            SELECT content, type, timestamp FROM (
+                SELECT content, type, timestamp FROM SPRING_AI_CHAT_MEMORY_PARTITIONED
+                WHERE conversation_id = :conversationId AND timestamp > :after AND timestamp > %s
+                ORDER BY timestamp DESC
+                LIMIT :limit
+            ) recent ORDER BY timestamp
+            """.formatted(CLEARED_AT);
+    private static final String INSERT_MESSAGE =
+            "INSERT INTO SPRING_AI_CHAT_MEMORY_PARTITIONED (conversation_id, content, type, timestamp) VALUES ($1, $2, $3, $4)";
+    private static final String UPSERT_TOMBSTONE = """
+            INSERT INTO SPRING_AI_CHAT_MEMORY_TOMBSTONE (conversation_id, cleared_at)
+            VALUES (:conversationId, :clearedAt)
+            ON CONFLICT (conversation_id) DO UPDATE SET cleared_at = EXCLUDED.cleared_at
+            """;
+
+    public PartitionedChatMemoryRepository(DatabaseClient databaseClient, TransactionalOperator transactionalOperator,
+                                           Duration timeout) {
+        super(databaseClient, transactionalOperator, timeout);
+    }
+
+    @Override
+    public Flux<String> conversationIds() {
+        return databaseClient.sql(SELECT_CONVERSATION_IDS)
+                .map((row, metadata) -> row.get("conversation_id", UUID.class).toString())
+                .all();
+    }
+
+    @Override
+    public Flux<String> recentConversationIds(Instant since, int limit) {
+        return databaseClient.sql(SELECT_RECENT_CONVERSATION_IDS)
+                .bind("since", toLocalDateTime(since))
+                .bind("limit", limit)
+                .map((row, metadata) -> row.get("conversation_id", UUID.class).toString())
+                .all();
+    }
+
+    @Override
+    public Flux<Message> messages(String conversationId) {
+        return databaseClient.sql(SELECT_MESSAGES)
+                .bind("conversationId", UUID.fromString(conversationId))
+                .map((row, metadata) -> toMessage(row.get("content", String.class), row.get("type", String.class)))
+                .all();
+    }
+
+    @Override
+    public Flux<ChatMemoryEntry> page(String conversationId, Instant after, Instant before, int limit) {
+        DatabaseClient.GenericExecuteSpec spec;
+        if (after != null) {
+            spec = databaseClient.sql(SELECT_PAGE_AFTER).bind("after", toLocalDateTime(after));
+        } else if (before != null) {
+            spec = databaseClient.sql(SELECT_PAGE_BEFORE).bind("before", toLocalDateTime(before));
+        } else {
+            spec = databaseClient.sql(SELECT_LATEST_PAGE);
+        }
+        return spec.bind("conversationId", UUID.fromString(conversationId))
+                .bind("limit", limit)
+                .map(row -> toEntry(conversationId, row))
+                .all();
+    }
+
+    @Override
+    public Flux<ChatMemoryEntry> recentEntries(String conversationId, Instant after, int limit) {
+        if (after == null) return page(conversationId, null, null, limit);
+        return databaseClient.sql(SELECT_RECENT_AFTER)
+                .bind("conversationId", UUID.fromString(conversationId))
+                .bind("after", toLocalDateTime(after))
+                .bind("limit", limit)
+                .map(row -> toEntry(conversationId, row))
+                .all();
+    }
+
+    @Override
+    public Mono<Void> appendAll(List<ChatMemoryEntry> entries) {
+        if (entries.isEmpty()) return Mono.empty();
+        return databaseClient.inConnectionMany(connection -> {
+                    Statement statement = connection.createStatement(INSERT_MESSAGE);
+                    for (int i = 0; i < entries.size(); i++) {
+                        if (i > 0) statement.add();
+                        ChatMemoryEntry entry = entries.get(i);
+                        Message message = entry.message();
+                        statement.bind(0, UUID.fromString(entry.conversationId()))
+                                .bind(1, message.getText() != null ? message.getText() : "")
+                                .bind(2, message.getMessageType().name())
+                                .bind(3, toLocalDateTime(entry.timestamp()));
+                    }
+                    return Flux.from(statement.execute()).flatMap(Result::getRowsUpdated);
+                })
+                .then();
+    }
+
+    @Override
+    public Mono<Void> delete(String conversationId) {
+        return Mono.defer(() -> databaseClient.sql(UPSERT_TOMBSTONE)
+                .bind("conversationId", UUID.fromString(conversationId))
+                .bind("clearedAt", toLocalDateTime(Instant.now().truncatedTo(ChronoUnit.MICROS)))
+                .fetch()
+                .rowsUpdated()
+                .then());
+    }
+
+    private static ChatMemoryEntry toEntry(String conversationId, Readable row) {
+        return new ChatMemoryEntry(
+                conversationId,
+                toMessage(row.get("content", String.class), row.get("type", String.class)),
+                toInstant(row.get("timestamp", LocalDateTime.class)));
+    }
+}
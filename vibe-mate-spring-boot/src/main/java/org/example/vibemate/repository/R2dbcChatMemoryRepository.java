@@ -0,0 +1,250 @@
+package org.example.vibemate.repository;
+
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
+import lombok.RequiredArgsConstructor;
+import org.example.vibemate.model.ChatMemoryEntry;
+import org.example.vibemate.model.ConversationSummary;
+import org.springframework.ai.chat.memory.ChatMemoryRepository;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.MessageType;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.ToolResponseMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class R2dbcChatMemoryRepository implements ChatMemoryRepository {
+
+    private static final String SELECT_CONVERSATION_IDS =
+            "SELECT DISTINCT conversation_id FROM SPRING_AI_CHAT_MEMORY";
+    private static final String SELECT_RECENT_CONVERSATION_IDS = """
+            SELECT conversation_id FROM SPRING_AI_CHAT_MEMORY
+            WHERE timestamp > :since
+            GROUP BY conversation_id
+            ORDER BY MAX(timestamp) DESC
+            LIMIT :limit
+            """;
+    private static final String SELECT_MESSAGES =
+            "SELECT content, type FROM SPRING_AI_CHAT_MEMORY WHERE conversation_id = :conversationId ORDER BY timestamp";
+    private static final String SELECT_PAGE_AFTER = """
+            SELECT content, type, timestamp FROM SPRING_AI_CHAT_MEMORY
+            WHERE conversation_id = :conversationId AND timestamp > :after
+            ORDER BY timestamp
+            LIMIT :limit
+            """;
+    private static final String SELECT_PAGE_BEFORE = """
+            SELECT content, type, timestamp FROM (
+                SELECT content, type, timestamp FROM SPRING_AI_CHAT_MEMORY
+                WHERE conversation_id = :conversationId AND timestamp < :before
+                ORDER BY timestamp DESC
+                LIMIT :limit
+            ) page ORDER BY timestamp
+            """;
+    private static final String SELECT_LATEST_PAGE = """
+            SELECT content, type, timestamp FROM (
+                SELECT content, type, timestamp FROM SPRING_AI_CHAT_MEMORY
+                WHERE conversation_id = :conversationId
+                ORDER BY timestamp DESC
+                LIMIT :limit
+            ) page ORDER BY timestamp
+            """;
+    private static final String SELECT_RECENT_AFTER = """
+            SELECT content, type, timestamp FROM (
+                SELECT content, type, timestamp FROM SPRING_AI_CHAT_MEMORY
+                WHERE conversation_id = :conversationId AND timestamp > :after
+                ORDER BY timestamp DESC
+                LIMIT :limit
+            ) recent ORDER BY timestamp
+            """;
+    private static final String SELECT_SUMMARY =
+            "SELECT content, covered_until FROM SPRING_AI_CHAT_MEMORY_SUMMARY WHERE conversation_id = :conversationId";
+    private static final String UPSERT_SUMMARY = """
+            INSERT INTO SPRING_AI_CHAT_MEMORY_SUMMARY (conversation_id, content, covered_until, updated_at)
+            VALUES (:conversationId, :content, :coveredUntil, :updatedAt)
+            ON CONFLICT (conversation_id) DO UPDATE
+            SET content = EXCLUDED.content, covered_until = EXCLUDED.covered_until, updated_at = EXCLUDED.updated_at
+            """;
+    private static final String DELETE_SUMMARY =
+            "DELETE FROM SPRING_AI_CHAT_MEMORY_SUMMARY WHERE conversation_id = :conversationId";
+    private static final String DELETE_MESSAGES =
+            "DELETE FROM SPRING_AI_CHAT_MEMORY WHERE conversation_id = :conversationId";
+    private static final String INSERT_MESSAGE =
+            "INSERT INTO SPRING_AI_CHAT_MEMORY (conversation_id, content, type, timestamp) VALUES ($1, $2, $3, $4)";
+
+    protected final DatabaseClient databaseClient;
+    protected final TransactionalOperator transactionalOperator;
+    protected final Duration timeout;
+
+    public Flux<String> conversationIds() {
+        return databaseClient.sql(SELECT_CONVERSATION_IDS)
+                .map((row, metadata) -> row.get("conversation_id", String.class))
+                .all();
+    }
+
+    public Flux<String> recentConversationIds(Instant since, int limit) {
+        return databaseClient.sql(SELECT_RECENT_CONVERSATION_IDS)
+                .bind("since", toLocalDateTime(since))
+                .bind("limit", limit)
+                .map((row, metadata) -> row.get("conversation_id", String.class))
+                .all();
+    }
+
+    public Flux<Message> messages(String conversationId) {
+        return databaseClient.sql(SELECT_MESSAGES)
+                .bind("conversationId", conversationId)
+                .map((row, metadata) -> toMessage(row.get("content", String.class), row.get("type", String.class)))
+                .all();
+    }
+
+    public Flux<ChatMemoryEntry> page(String conversationId, Instant after, Instant before, int limit) {
+        DatabaseClient.GenericExecuteSpec spec;
+        if (after != null) {
+            spec = databaseClient.sql(SELECT_PAGE_AFTER).bind("after", toLocalDateTime(after));
+        } else if (before != null) {
+            spec = databaseClient.sql(SELECT_PAGE_BEFORE).bind("before", toLocalDateTime(before));
+        } else {
+            spec = databaseClient.sql(SELECT_LATEST_PAGE);
+        }
+        return spec.bind("conversationId", conversationId)
+                .bind("limit", limit)
+                .map((row, metadata) -> new ChatMemoryEntry(
+                        conversationId,
+                        toMessage(row.get("content", String.class), row.get("type", String.class)),
+                        toInstant(row.get("timestamp", LocalDateTime.class))))
+                .all();
+    }
+
+    public Flux<ChatMemoryEntry> recentEntries(String conversationId, Instant after, int limit) {
+        if (after == null) return page(conversationId, null, null, limit);
+        return databaseClient.sql(SELECT_RECENT_AFTER)
+                .bind("conversationId", conversationId)
+                .bind("after", toLocalDateTime(after))
+                .bind("limit", limit)
+                .map((row, metadata) -> new ChatMemoryEntry(
+                        conversationId,
+                        toMessage(row.get("content", String.class), row.get("type", String.class)),
+                        toInstant(row.get("timestamp", LocalDateTime.class))))
+                .all();
+    }
+
+    public Mono<ConversationSummary> summary(String conversationId) {
+        return databaseClient.sql(SELECT_SUMMARY)
+                .bind("conversationId", conversationId)
+                .map((row, metadata) -> new ConversationSummary(
+                        conversationId,
+                        row.get("content", String.class),
+                        toInstant(row.get("covered_until", LocalDateTime.class))))
+                .one();
+    }
+
+    public Mono<Void> saveSummary(ConversationSummary summary) {
+        return databaseClient.sql(UPSERT_SUMMARY)
+                .bind("conversationId", summary.conversationId())
+                .bind("content", summary.content())
+                .bind("coveredUntil", toLocalDateTime(summary.coveredUntil()))
+                .bind("updatedAt", LocalDateTime.now())
+                .fetch()
+                .rowsUpdated()
+                .then();
+    }
+
+    public Mono<Void> deleteSummary(String conversationId) {
+        return databaseClient.sql(DELETE_SUMMARY)
+                .bind("conversationId", conversationId)
+                .fetch()
+                .rowsUpdated()
+                .then();
+    }
+
+    public Mono<Void> append(String conversationId, List<Message> messages) {
+        Instant now = Instant.now();
+        List<ChatMemoryEntry> entries = new ArrayList<>(messages.size());
+        for (int i = 0; i < messages.size(); i++) {
+            entries.add(new ChatMemoryEntry(conversationId, messages.get(i), now.plusMillis(i)));
+        }
+        return appendAll(entries);
+    }
+
+    public Mono<Void> appendAll(List<ChatMemoryEntry> entries) {
+        if (entries.isEmpty()) return Mono.empty();
+        return databaseClient.inConnectionMany(connection -> {
+                    Statement statement = connection.createStatement(INSERT_MESSAGE);
+                    for (int i = 0; i < entries.size(); i++) {
+                        if (i > 0) statement.add();
+                        ChatMemoryEntry entry = entries.get(i);
+                        Message message = entry.message();
+                        statement.bind(0, entry.conversationId())
+                                .bind(1, message.getText() != null ? message.getText() : "")
+                                .bind(2, message.getMessageType().name())
+                                .bind(3, toLocalDateTime(entry.timestamp()));
+                    }
+                    return Flux.from(statement.execute()).flatMap(Result::getRowsUpdated);
+                })
+                .then();
+    }
+
+    /**
+     * The new rows are timestamped only once the delete has run, so they land after a tombstone it writes.
+     */
+    public Mono<Void> replace(String conversationId, List<Message> messages) {
+        return transactionalOperator.transactional(delete(conversationId)
+                .then(Mono.defer(() -> append(conversationId, messages))));
+    }
+
+    public Mono<Void> delete(String conversationId) {
+        return databaseClient.sql(DELETE_MESSAGES)
+                .bind("conversationId", conversationId)
+                .fetch()
+                .rowsUpdated()
+                .then();
+    }
+
+    @Override
+    public List<String> findConversationIds() {
+        return conversationIds().collectList().block(timeout);
+    }
+
+    @Override
+    public List<Message> findByConversationId(String conversationId) {
+        return messages(conversationId).collectList().block(timeout);
+    }
+
+    @Override
+    public void saveAll(String conversationId, List<Message> messages) {
+        replace(conversationId, messages).block(timeout);
+    }
+
+    @Override
+    public void deleteByConversationId(String conversationId) {
+        delete(conversationId).block(timeout);
+    }
+
+    protected static LocalDateTime toLocalDateTime(Instant instant) {
+        return LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+    }
+
+    protected static Instant toInstant(LocalDateTime timestamp) {
+        return timestamp.atZone(ZoneId.systemDefault()).toInstant();
+    }
+
+    protected static Message toMessage(String content, String type) {
+        return switch (MessageType.valueOf(type)) {
+            case USER -> new UserMessage(content);
+            case ASSISTANT -> new AssistantMessage(content);
+            case SYSTEM -> new SystemMessage(content);
+            case TOOL -> new ToolResponseMessage(List.of());
+        };
+    }
+}
@@ -0,0 +1,247 @@
+package org.example.vibemate.response;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.example.vibemate.dto.ChatProfile;
+import org.example.vibemate.dto.ChatRequest;
+import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.embedding.EmbeddingModel;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Replays earlier answers to short messages ("good morning", "tell me a joke") for the same persona when
+ * a new message embeds close enough to a cached one, and lets concurrent identical requests from a user
+ * share one generation. Entries are keyed on the persona and on the answer the conversation last ended
+ * with, so a short follow-up ("why?", "and then?") is only replayed at the same point of a
+ * conversation, never after the conversation has moved on. The persona key is the rendered system
+ * prompt, which includes the user's name, so answers are never shared across users: a reply addressed
+ * to one user must not reach another.
+ */
+@Slf4j
+public class SemanticResponseCache {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern TRAILING_PUNCTUATION = Pattern.compile("[\\p{Punct}\\s]+$");
+    private static final Pattern TOKEN_BOUNDARY = Pattern.compile("(?<=\\s)");
+    private static final float[] NO_VECTOR = new float[0];
+
+    private final EmbeddingModel embeddingModel;
+    private final ChatMemory chatMemory;
+    private final Scheduler scheduler;
+    private final boolean enabled;
+    private final double similarityThreshold;
+    private final int maxMessageLength;
+    private final int maxEntriesPerPersona;
+    private final Duration ttl;
+    private final Cache<String, Bucket> buckets;
+    private final Map<Flight, Flux<String>> flights = new ConcurrentHashMap<>();
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter bypassed;
+    private final Counter coalesced;
+    private final DistributionSummary similarity;
+
+    public SemanticResponseCache(EmbeddingModel embeddingModel, ChatMemory chatMemory, boolean enabled,
+                                 double similarityThreshold,
+                                 int maxMessageLength, long maxEntries, int maxEntriesPerPersona, Duration ttl,
+                                 Scheduler scheduler, MeterRegistry meterRegistry) {
+        this.embeddingModel = embeddingModel;
+        this.chatMemory = chatMemory;
+        this.scheduler = scheduler;
+        this.enabled = enabled;
+        this.similarityThreshold = similarityThreshold;
+        this.maxMessageLength = maxMessageLength;
+        this.maxEntriesPerPersona = maxEntriesPerPersona;
+        this.ttl = ttl;
+        this.buckets = Caffeine.newBuilder()
+                .maximumWeight(maxEntries)
+                .weigher((String key, Bucket bucket) -> bucket.entries().size())
+                .expireAfterAccess(ttl)
+                .build();
+        this.hits = result("hit", meterRegistry);
+        this.misses = result("miss", meterRegistry);
+        this.bypassed = result("bypass", meterRegistry);
+        this.coalesced = result("coalesced", meterRegistry);
+        this.similarity = DistributionSummary.builder("chat.response.cache.similarity")
+                .description("Cosine similarity of the cached message a hit was served from")
+                .register(meterRegistry);
+        Gauge.builder("chat.response.cache.entries", buckets, cache -> cache.asMap().values().stream()
+                        .mapToInt(bucket -> bucket.entries().size())
+                        .sum())
+                .register(meterRegistry);
+        Gauge.builder("chat.response.cache.in.flight", flights, Map::size).register(meterRegistry);
+    }
+
+    public Flux<String> answer(ChatProfile profile, ChatRequest request, Supplier<Flux<String>> generation) {
+        String message = request.message() != null ? normalize(request.message()) : "";
+        if (!enabled || Boolean.FALSE.equals(profile.bot().responseCache())
+                || message.isEmpty() || message.length() > maxMessageLength) {
+            bypassed.increment();
+            return generation.get();
+        }
+        Flight flight = new Flight(request.userId(), digest(profile.systemPrompt()), message);
+        Flux<String> shared = Flux.defer(() -> lookupOrGenerate(flight, request, generation))
+                .doFinally(signal -> flights.remove(flight))
+                .replay()
+                .refCount();
+        Flux<String> existing = flights.putIfAbsent(flight, shared);
+        if (existing != null) {
+            coalesced.increment();
+            return existing;
+        }
+        return shared;
+    }
+
+    private Flux<String> lookupOrGenerate(Flight flight, ChatRequest request, Supplier<Flux<String>> generation) {
+        return Mono.zip(embed(flight.message()), context(request.userId())).flatMapMany(found -> {
+            if (found.getT2().isEmpty()) {
+                bypassed.increment();
+                return generation.get();
+            }
+            String key = flight.persona() + ":" + found.getT2().get();
+            float[] vector = found.getT1();
+            Match match = find(key, flight.message(), vector);
+            if (match != null) {
+                hits.increment();
+                similarity.record(match.similarity());
+                return replay(request, match.entry().answer());
+            }
+            misses.increment();
+            StringBuilder answer = new StringBuilder();
+            return generation.get()
+                    .doOnNext(answer::append)
+                    .doOnComplete(() -> store(key, flight.message(), vector, answer.toString()));
+        });
+    }
+
+    /**
+     * Digest of the last answer in the user's conversation, empty when memory could not be read, in
+     * which case the turn bypasses the cache.
+     */
+    private Mono<Optional<String>> context(UUID userId) {
+        return Mono.fromCallable(() -> {
+                    List<Message> messages = chatMemory.get(userId.toString());
+                    String lastAnswer = "";
+                    for (int i = messages.size() - 1; i >= 0; i--) {
+                        if (messages.get(i) instanceof AssistantMessage assistant) {
+                            lastAnswer = Optional.ofNullable(assistant.getText()).orElse("");
+                            break;
+                        }
+                    }
+                    return Optional.of(digest(lastAnswer));
+                })
+                .subscribeOn(scheduler)
+                .onErrorResume(ex -> {
+                    log.warn("Could not read chat memory, bypassing the response cache", ex);
+                    return Mono.just(Optional.empty());
+                });
+    }
+
+    private Mono<float[]> embed(String message) {
+        return Mono.fromCallable(() -> embeddingModel.embed(message))
+                .subscribeOn(scheduler)
+                .onErrorResume(ex -> {
+                    log.warn("Embedding failed, matching cached responses exactly", ex);
+                    return Mono.just(NO_VECTOR);
+                });
+    }
+
+    private Match find(String key, String message, float[] vector) {
+        Bucket bucket = buckets.getIfPresent(key);
+        if (bucket == null) return null;
+        Instant oldest = Instant.now().minus(ttl);
+        Match best = null;
+        for (Entry entry : bucket.entries()) {
+            if (entry.createdAt().isBefore(oldest)) continue;
+            double score = entry.message().equals(message) ? 1.0 : cosine(vector, entry.vector());
+            if (score >= similarityThreshold && (best == null || score > best.similarity())) {
+                best = new Match(entry, score);
+            }
+        }
+        return best;
+    }
+
+    private void store(String key, String message, float[] vector, String answer) {
+        if (answer.isBlank()) return;
+        Entry entry = new Entry(message, vector, answer, Instant.now());
+        buckets.asMap().compute(key, (ignored, bucket) -> {
+            List<Entry> entries = new ArrayList<>(bucket != null ? bucket.entries() : List.of());
+            entries.removeIf(existing -> existing.message().equals(entry.message()));
+            entries.add(entry);
+            if (entries.size() > maxEntriesPerPersona) entries.remove(0);
+            return new Bucket(List.copyOf(entries));
+        });
+    }
+
+    private Flux<String> replay(ChatRequest request, String answer) {
+        return Flux.fromArray(TOKEN_BOUNDARY.split(answer))
+                .doOnComplete(() -> chatMemory.add(request.userId().toString(),
+                        List.of(new UserMessage(request.message()), new AssistantMessage(answer))));
+    }
+
+    private static double cosine(float[] a, float[] b) {
+        if (a.length == 0 || a.length != b.length) return 0;
+        double dot = 0, normA = 0, normB = 0;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+            normA += a[i] * a[i];
+            normB += b[i] * b[i];
+        }
+        return normA == 0 || normB == 0 ? 0 : dot / Math.sqrt(normA * normB);
+    }
+
+    private static String normalize(String message) {
+        String collapsed = WHITESPACE.matcher(message.strip().toLowerCase(Locale.ROOT)).replaceAll(" ");
+        return TRAILING_PUNCTUATION.matcher(collapsed).replaceAll("");
+    }
+
+    private static String digest(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static Counter result(String result, MeterRegistry meterRegistry) {
+        return Counter.builder("chat.response.cache")
+                .description("Chat requests by response cache outcome")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private record Flight(UUID userId, String persona, String message) {}
+
+    private record Entry(String message, float[] vector, String answer, Instant createdAt) {}
+
+    private record Bucket(List<Entry> entries) {}
+
+    private record Match(Entry entry, double similarity) {}
+}
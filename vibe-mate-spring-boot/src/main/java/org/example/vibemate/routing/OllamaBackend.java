@@ -0,0 +1,47 @@
+package org.example.vibemate.routing;
+
+import lombok.Getter;
+import org.springframework.ai.ollama.OllamaChatModel;
+import org.springframework.ai.ollama.OllamaEmbeddingModel;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One Ollama node: its chat and embedding clients, the requests currently in flight on it, and whether
+ * it is taking traffic. A node is skipped while the health check fails or while it is ejected after
+ * consecutive connection failures.
+ */
+@Getter
+public class OllamaBackend {
+
+    private final String baseUrl;
+    private final OllamaChatModel chatModel;
+    private final OllamaEmbeddingModel embeddingModel;
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private volatile boolean healthy = true;
+    private volatile long ejectedUntil;
+
+    public OllamaBackend(String baseUrl, OllamaChatModel chatModel, OllamaEmbeddingModel embeddingModel) {
+        this.baseUrl = baseUrl;
+        this.chatModel = chatModel;
+        this.embeddingModel = embeddingModel;
+    }
+
+    public boolean isAvailable(long nowMillis) {
+        return healthy && nowMillis >= ejectedUntil;
+    }
+
+    void setHealthy(boolean healthy) {
+        this.healthy = healthy;
+    }
+
+    void ejectUntil(long millis) {
+        this.ejectedUntil = millis;
+    }
+
+    @Override
+    public String toString() {
+        return baseUrl;
+    }
+}
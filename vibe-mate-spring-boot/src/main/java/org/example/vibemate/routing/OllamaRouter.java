@@ -0,0 +1,260 @@
+package org.example.vibemate.routing;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.example.vibemate.config.OllamaRoutingConfig;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.net.ConnectException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Picks an Ollama node for each model call. Calls go to the node with the fewest requests in flight,
+ * except that a conversation sticks to its rendezvous-hashed node (so Ollama's prompt cache for it stays
+ * warm) unless that node is more than affinitySlack requests busier than the least loaded one. Nodes
+ * failing the health check or failureThreshold calls in a row are skipped until they recover; if every
+ * node is out, all are tried anyway. A call that fails to connect before producing anything is retried
+ * on another node, up to maxAttempts.
+ */
+@Slf4j
+public class OllamaRouter implements DisposableBean {
+
+    public static final String AFFINITY = "ollama.affinity";
+
+    private final Map<String, List<OllamaBackend>> pools;
+    private final List<OllamaBackend> defaultPool;
+    private final int maxAttempts;
+    private final int affinitySlack;
+    private final int failureThreshold;
+    private final Duration ejection;
+    private final MeterRegistry meterRegistry;
+    private final Disposable healthChecks;
+
+    public OllamaRouter(Map<String, List<OllamaBackend>> pools, List<OllamaBackend> defaultPool,
+                        OllamaRoutingConfig config, WebClient.Builder webClientBuilder, MeterRegistry meterRegistry) {
+        this.pools = pools;
+        this.defaultPool = defaultPool;
+        this.maxAttempts = config.getMaxAttempts();
+        this.affinitySlack = config.getAffinitySlack();
+        this.failureThreshold = config.getFailureThreshold();
+        this.ejection = config.getEjection();
+        this.meterRegistry = meterRegistry;
+
+        Set<OllamaBackend> backends = new HashSet<>(defaultPool);
+        pools.values().forEach(backends::addAll);
+        for (OllamaBackend backend : backends) {
+            Gauge.builder("ollama.backend.outstanding", backend, b -> b.getOutstanding().get())
+                    .description("Requests in flight on an Ollama node")
+                    .tag("backend", backend.getBaseUrl())
+                    .register(meterRegistry);
+            Gauge.builder("ollama.backend.available", backend, b -> b.isAvailable(System.currentTimeMillis()) ? 1 : 0)
+                    .description("Whether an Ollama node is taking traffic")
+                    .tag("backend", backend.getBaseUrl())
+                    .register(meterRegistry);
+        }
+        WebClient webClient = webClientBuilder.build();
+        this.healthChecks = Flux.interval(Duration.ZERO, config.getHealthInterval())
+                .onBackpressureDrop()
+                .concatMap(tick -> Flux.fromIterable(backends)
+                        .flatMap(backend -> probe(webClient, backend, config.getHealthTimeout()))
+                        .then())
+                .subscribe();
+    }
+
+    public static Context affinity(String key) {
+        return Context.of(AFFINITY, key);
+    }
+
+    public <T> Flux<T> stream(String model, String affinityKey, Function<OllamaBackend, Flux<T>> call) {
+        return Flux.defer(() -> attempt(model, affinityKey, call, new HashSet<>(), 1));
+    }
+
+    public <T> T call(String model, String affinityKey, Function<OllamaBackend, T> call) {
+        Set<OllamaBackend> tried = new HashSet<>();
+        for (int attempt = 1; ; attempt++) {
+            OllamaBackend backend = select(model, affinityKey, tried);
+            tried.add(backend);
+            backend.getOutstanding().incrementAndGet();
+            long start = System.nanoTime();
+            try {
+                T result = call.apply(backend);
+                succeeded(backend);
+                latency(backend, model, "call", "success").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                return result;
+            } catch (RuntimeException ex) {
+                latency(backend, model, "call", "error").record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                if (!isConnectionError(ex)) throw ex;
+                failed(backend, ex);
+                if (attempt >= maxAttempts || !hasAlternative(model, tried)) throw ex;
+                failover(model);
+            } finally {
+                backend.getOutstanding().decrementAndGet();
+            }
+        }
+    }
+
+    public List<OllamaBackend> backends(String model) {
+        return pool(model);
+    }
+
+    @Override
+    public void destroy() {
+        healthChecks.dispose();
+    }
+
+    private OllamaBackend select(String model, String affinityKey, Set<OllamaBackend> tried) {
+        List<OllamaBackend> pool = pool(model);
+        long now = System.currentTimeMillis();
+        List<OllamaBackend> candidates = pool.stream().filter(b -> !tried.contains(b) && b.isAvailable(now)).toList();
+        if (candidates.isEmpty()) candidates = pool.stream().filter(b -> !tried.contains(b)).toList();
+        if (candidates.isEmpty()) candidates = pool;
+
+        int offset = ThreadLocalRandom.current().nextInt(candidates.size());
+        OllamaBackend least = null;
+        for (int i = 0; i < candidates.size(); i++) {
+            OllamaBackend backend = candidates.get((offset + i) % candidates.size());
+            if (least == null || backend.getOutstanding().get() < least.getOutstanding().get()) least = backend;
+        }
+        if (affinityKey == null) return least;
+
+        OllamaBackend preferred = null;
+        long best = Long.MIN_VALUE;
+        for (OllamaBackend backend : candidates) {
+            long weight = mix(affinityKey.hashCode() * 31L + backend.getBaseUrl().hashCode());
+            if (preferred == null || weight > best) {
+                preferred = backend;
+                best = weight;
+            }
+        }
+        return preferred.getOutstanding().get() <= least.getOutstanding().get() + affinitySlack ? preferred : least;
+    }
+
+    private <T> Flux<T> attempt(String model, String affinityKey, Function<OllamaBackend, Flux<T>> call,
+                                Set<OllamaBackend> tried, int attempt) {
+        OllamaBackend backend = select(model, affinityKey, tried);
+        tried.add(backend);
+        AtomicBoolean emitted = new AtomicBoolean();
+        Timer firstByte = Timer.builder("ollama.backend.ttfb")
+                .description("Time from sending a streaming request to an Ollama node to its first chunk")
+                .tags("backend", backend.getBaseUrl(), "model", model)
+                .register(meterRegistry);
+        return Flux.defer(() -> {
+                    long start = System.nanoTime();
+                    backend.getOutstanding().incrementAndGet();
+                    return call.apply(backend)
+                            .doOnNext(item -> {
+                                if (emitted.compareAndSet(false, true)) {
+                                    firstByte.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                                }
+                            })
+                            .doOnComplete(() -> succeeded(backend))
+                            .doOnError(ex -> {
+                                if (isConnectionError(ex)) failed(backend, ex);
+                            })
+                            .doFinally(signal -> {
+                                backend.getOutstanding().decrementAndGet();
+                                latency(backend, model, "stream", signal.name().toLowerCase())
+                                        .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                            });
+                })
+                .onErrorResume(ex -> !emitted.get() && isConnectionError(ex) && attempt < maxAttempts
+                                && hasAlternative(model, tried),
+                        ex -> {
+                            failover(model);
+                            return attempt(model, affinityKey, call, tried, attempt + 1);
+                        });
+    }
+
+    private Mono<Void> probe(WebClient webClient, OllamaBackend backend, Duration timeout) {
+        return webClient.get()
+                .uri(backend.getBaseUrl() + "/api/version")
+                .retrieve()
+                .toBodilessEntity()
+                .timeout(timeout)
+                .map(response -> true)
+                .onErrorReturn(false)
+                .doOnNext(healthy -> {
+                    if (healthy != backend.isHealthy()) {
+                        log.warn("Ollama node {} is now {}", backend.getBaseUrl(), healthy ? "healthy" : "unhealthy");
+                    }
+                    backend.setHealthy(healthy);
+                    if (healthy) backend.getConsecutiveFailures().set(0);
+                })
+                .then();
+    }
+
+    private void succeeded(OllamaBackend backend) {
+        backend.getConsecutiveFailures().set(0);
+    }
+
+    private void failed(OllamaBackend backend, Throwable ex) {
+        if (backend.getConsecutiveFailures().incrementAndGet() < failureThreshold) return;
+        backend.getConsecutiveFailures().set(0);
+        backend.ejectUntil(System.currentTimeMillis() + ejection.toMillis());
+        Counter.builder("ollama.backend.ejections")
+                .description("Times an Ollama node was taken out of rotation after connection failures")
+                .tag("backend", backend.getBaseUrl())
+                .register(meterRegistry)
+                .increment();
+        log.warn("Ejecting Ollama node {} for {} after {} connection failures: {}",
+                backend.getBaseUrl(), ejection, failureThreshold, ex.getMessage());
+    }
+
+    private void failover(String model) {
+        Counter.builder("ollama.backend.failovers")
+                .description("Model calls retried on another Ollama node after a connection failure")
+                .tag("model", model)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private Timer latency(OllamaBackend backend, String model, String call, String outcome) {
+        return Timer.builder("ollama.backend.latency")
+                .description("Time an Ollama node took to complete a model call")
+                .tags("backend", backend.getBaseUrl(), "model", model, "call", call, "outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private List<OllamaBackend> pool(String model) {
+        return pools.getOrDefault(model, defaultPool);
+    }
+
+    private boolean hasAlternative(String model, Collection<OllamaBackend> tried) {
+        return pool(model).stream().anyMatch(backend -> !tried.contains(backend));
+    }
+
+    private static boolean isConnectionError(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConnectException || cause instanceof WebClientRequestException
+                    || cause instanceof ResourceAccessException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+}
@@ -0,0 +1,47 @@
+package org.example.vibemate.routing;
+
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import reactor.core.publisher.Flux;
+
+/**
+ * Chat model that sends each prompt to one of the Ollama nodes serving the prompt's model. Streams
+ * carry the conversation affinity key from the Reactor context.
+ */
+public class RoutingChatModel implements ChatModel {
+
+    private final OllamaRouter router;
+    private final String defaultModel;
+    private final ChatOptions defaultOptions;
+
+    public RoutingChatModel(OllamaRouter router, String defaultModel, ChatOptions defaultOptions) {
+        this.router = router;
+        this.defaultModel = defaultModel;
+        this.defaultOptions = defaultOptions;
+    }
+
+    @Override
+    public ChatResponse call(Prompt prompt) {
+        return router.call(model(prompt), null, backend -> backend.getChatModel().call(prompt));
+    }
+
+    @Override
+    public Flux<ChatResponse> stream(Prompt prompt) {
+        return Flux.deferContextual(context -> {
+            String affinity = context.getOrDefault(OllamaRouter.AFFINITY, null);
+            return router.stream(model(prompt), affinity, backend -> backend.getChatModel().stream(prompt));
+        });
+    }
+
+    @Override
+    public ChatOptions getDefaultOptions() {
+        return defaultOptions;
+    }
+
+    private String model(Prompt prompt) {
+        ChatOptions options = prompt.getOptions();
+        return options != null && options.getModel() != null ? options.getModel() : defaultModel;
+    }
+}
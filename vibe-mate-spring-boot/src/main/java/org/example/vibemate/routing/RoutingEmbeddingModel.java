@@ -0,0 +1,30 @@
+package org.example.vibemate.routing;
+
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.embedding.EmbeddingOptions;
+import org.springframework.ai.embedding.EmbeddingRequest;
+import org.springframework.ai.embedding.EmbeddingResponse;
+
+public class RoutingEmbeddingModel implements EmbeddingModel {
+
+    private final OllamaRouter router;
+    private final String defaultModel;
+
+    public RoutingEmbeddingModel(OllamaRouter router, String defaultModel) {
+        this.router = router;
+        this.defaultModel = defaultModel;
+    }
+
+    @Override
+    public EmbeddingResponse call(EmbeddingRequest request) {
+        EmbeddingOptions options = request.getOptions();
+        String model = options != null && options.getModel() != null ? options.getModel() : defaultModel;
+        return router.call(model, null, backend -> backend.getEmbeddingModel().call(request));
+    }
+
+    @Override
+    public float[] embed(Document document) {
+        return embed(document.getText());
+    }
+}
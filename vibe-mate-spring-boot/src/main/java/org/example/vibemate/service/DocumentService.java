@@ -0,0 +1,10 @@
+package org.example.vibemate.service;
+
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+@Service
+public interface DocumentService {
+    Flux<String> extractText(Flux<DataBuffer> content);
+}
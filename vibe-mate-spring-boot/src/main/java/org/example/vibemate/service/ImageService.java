@@ -0,0 +1,12 @@
+package org.example.vibemate.service;
+
+import org.example.vibemate.dto.PreparedImage;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Service
+public interface ImageService {
+    Mono<PreparedImage> prepare(Flux<DataBuffer> content);
+}
@@ -0,0 +1,25 @@
+package org.example.vibemate.service;
+
+import org.example.vibemate.dto.BotConfig;
+import org.example.vibemate.dto.UserInfo;
+import org.example.vibemate.metrics.ChatMetrics;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.UUID;
+
+@Service
+public interface PromptService {
+    String systemPrompt(BotConfig bot, UserInfo user, String endpoint, String model);
+
+    /**
+     * Records the prompt about to be sent for a conversation and returns whether it starts with the
+     * previous prompt, up to that prompt's final message.
+     */
+    boolean pin(UUID conversationId, List<Message> prompt);
+
+    default String systemPrompt(BotConfig bot, UserInfo user) {
+        return systemPrompt(bot, user, ChatMetrics.ALL_ENDPOINTS, ChatMetrics.NO_MODEL);
+    }
+}
@@ -1,11 +1,14 @@
 package org.example.vibemate.service;
 
 import org.example.vibemate.dto.BotConfig;
+import org.example.vibemate.dto.ChatProfile;
+import org.example.vibemate.dto.ImportResult;
 import org.example.vibemate.dto.Response;
 import org.example.vibemate.dto.UserInfo;
 import org.example.vibemate.model.Bot;
 import org.example.vibemate.model.User;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.util.UUID;
@@ -14,7 +17,10 @@ import java.util.UUID;
 public interface UserService {
     Mono<Response> saveUser(User user);
     Mono<Response> saveBotConfig(Bot bot);
+    Flux<ImportResult> importUsers(Flux<User> users);
+    Flux<ImportResult> importBots(Flux<Bot> bots);
     Mono<UserInfo> getUser(UUID userId);
     Mono<BotConfig> getBotConfig(UUID userId);
+    Mono<ChatProfile> getProfile(UUID userId);
 }
 
@@ -1,165 +1,248 @@
 package org.example.vibemate.service.impl;
 
 import lombok.RequiredArgsConstructor;
-import org.apache.tika.Tika;
-import org.example.vibemate.dto.BotConfig;
+import org.example.vibemate.advisor.PersonaFirstAdvisor;
+import org.example.vibemate.config.ChatMemoryConfig;
+import org.example.vibemate.config.DocumentConfig;
+import org.example.vibemate.config.GenerationConfig;
+import org.example.vibemate.document.TextChunker;
+import org.example.vibemate.dto.ChatHistoryMessage;
+import org.example.vibemate.dto.ChatProfile;
 import org.example.vibemate.dto.ChatRequest;
-import org.example.vibemate.dto.UserInfo;
+import org.example.vibemate.generation.GenerationScheduler;
+import org.example.vibemate.generation.PartialAnswerRecorder;
+import org.example.vibemate.ingestion.MemoryIngestor;
+import org.example.vibemate.memory.TimedChatMemory;
+import org.example.vibemate.memory.WriteBehindChatMemory;
+import org.example.vibemate.metrics.ChatMetrics;
+import org.example.vibemate.repository.R2dbcChatMemoryRepository;
+import org.example.vibemate.response.SemanticResponseCache;
+import org.example.vibemate.routing.OllamaRouter;
 import org.example.vibemate.service.ChatService;
+import org.example.vibemate.service.ImageService;
+import org.example.vibemate.service.PromptService;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.chat.client.advisor.MessageChatMemoryAdvisor;
-import org.springframework.ai.chat.client.advisor.vectorstore.QuestionAnswerAdvisor;
 import org.springframework.ai.chat.memory.ChatMemory;
 import org.springframework.ai.chat.messages.Message;
 import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.model.ChatResponse;
 import org.springframework.ai.chat.prompt.ChatOptions;
 import org.springframework.ai.chat.prompt.Prompt;
 import org.springframework.ai.content.Media;
-import org.springframework.ai.ollama.api.OllamaModel;
 import org.springframework.ai.ollama.api.OllamaOptions;
-import org.springframework.ai.vectorstore.SearchRequest;
-import org.springframework.ai.vectorstore.VectorStore;
 import org.springframework.core.io.ByteArrayResource;
-import org.springframework.core.io.Resource;
 import org.springframework.core.io.buffer.DataBuffer;
-import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.stereotype.Service;
-import org.springframework.util.MimeTypeUtils;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
+import reactor.core.scheduler.Scheduler;
 
-import java.io.ByteArrayInputStream;
-import java.io.InputStream;
-import java.net.URLConnection;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class ChatServiceImpl implements ChatService {
 
+    private static final String SECTION_SUMMARY_PROMPT = """
+            Summarize this section of a document the user uploaded in a few sentences.
+            Keep names, numbers and facts that help answer the user's question.
+            """;
+
     private final ChatClient chatClient;
+    private final ChatClient documentChatClient;
+    private final DocumentConfig documentConfig;
+    private final GenerationConfig generationConfig;
+    private final GenerationScheduler generationScheduler;
+    private final PartialAnswerRecorder partialAnswerRecorder;
     private final ChatMemory chatMemory;
-    private final VectorStore vectorStore;
+    private final ChatMemoryConfig chatMemoryConfig;
+    private final R2dbcChatMemoryRepository chatMemoryRepository;
+    private final Scheduler chatMemoryScheduler;
+    private final PromptService promptService;
+    private final ImageService imageService;
+    private final SemanticResponseCache semanticResponseCache;
+    private final MemoryIngestor memoryIngestor;
+    private final ChatMetrics chatMetrics;
 
     @Override
-    public Flux<String> getChatResponse(BotConfig bot, UserInfo user, ChatRequest request) {
-        String systemPrompt = getSystemPrompt(bot, user);
-        return chatClient.prompt()
-                .advisors(
-                        MessageChatMemoryAdvisor
-                                .builder(chatMemory)
-                                .conversationId(request.userId().toString())
-                                .build(),
-                        QuestionAnswerAdvisor
-                                .builder(vectorStore)
-                                .searchRequest(SearchRequest.builder().build())
-                                .build()
-                )
-                .system(systemPrompt)
-                .user(request.message())
-                .stream()
-                .content();
+    public Flux<String> getChatResponse(ChatProfile profile, ChatRequest request) {
+        return semanticResponseCache.answer(profile, request, () -> converse("chat", generationConfig.getChatModel(),
+                request, persona -> chatClient.prompt()
+                        .advisors(conversation(request, "chat", generationConfig.getChatModel(), persona))
+                        .system(profile.systemPrompt())
+                        .user(request.message())
+                        .stream()
+                        .chatResponse()));
     }
 
+    /**
+     * Looks at the first two chunks of the same subscription that parses the document, so a client that goes
+     * away cancels the parse and its ingestion instead of leaving them to run to the end of the file.
+     */
     @Override
-    public Mono<String> extractTextFromBuffer(DataBuffer dataBuffer) {
-        return Mono.fromCallable(() -> {
-            byte[] bytes = new byte[dataBuffer.readableByteCount()];
-            dataBuffer.read(bytes);
-            DataBufferUtils.release(dataBuffer); // Release buffer memory
-            try (InputStream inputStream = new ByteArrayInputStream(bytes)) {
-                Tika tika = new Tika();
-                return tika.parseToString(inputStream);
-            }
-        }).subscribeOn(Schedulers.boundedElastic());
+    public Flux<String> askOllamaAboutText(ChatProfile profile, Flux<String> extractedText, ChatRequest request) {
+        int directChars = documentConfig.getDirectTokens() * TextChunker.CHARS_PER_TOKEN;
+        Flux<String> chunks = TextChunker.chunk(extractedText,
+                        documentConfig.getChunkTokens() * TextChunker.CHARS_PER_TOKEN)
+                .doOnNext(chunk -> memoryIngestor.submit(request.userId(), "upload", chunk));
+        return chunks.switchOnFirst((first, all) -> {
+            if (first.isOnError()) return Flux.error(first.getThrowable());
+            if (!first.hasValue()) return answerAboutText(profile, "", request);
+            return all.skip(1).switchOnFirst((second, rest) -> {
+                if (second.isOnError()) return Flux.error(second.getThrowable());
+                if (!second.hasValue() && first.get().length() <= directChars) {
+                    return answerAboutText(profile, first.get(), request);
+                }
+                return mapReduce(profile, Flux.concat(Mono.just(first.get()), rest), request, directChars);
+            });
+        });
     }
 
-    @Override
-    public Flux<String> askOllamaAboutText(BotConfig bot, UserInfo user, String extractedText, ChatRequest request) {
-        String systemPrompt = getSystemPrompt(bot, user);
-        return chatClient.prompt()
-                .advisors(
-                        MessageChatMemoryAdvisor
-                                .builder(chatMemory)
-                                .conversationId(request.userId().toString())
-                                .build()
-                )
-                .system(systemPrompt)
-                .user(request.message() + extractedText)
-                .stream()
-                .content();
+    private Flux<String> mapReduce(ChatProfile profile, Flux<String> chunks, ChatRequest request, int directChars) {
+        List<String> summaries = new ArrayList<>();
+        Flux<String> progress = chunks
+                .flatMapSequential(chunk -> summarize(chunk, request), mapConcurrency())
+                .map(summary -> {
+                    summaries.add(summary);
+                    return "_Read section %d of the document…_\n".formatted(summaries.size());
+                });
+        Flux<String> answer = Mono.defer(() -> reduce(summaries, request, directChars))
+                .flatMapMany(summary -> answerAboutText(profile, summary, request));
+        return Flux.concat(progress, Flux.just("\n"), answer);
     }
 
     @Override
-    public Flux<String> describeImageWithContext(byte[] imageBytes, ChatRequest request) {
-        return Mono.fromCallable(() -> {
-                    String mimeType = URLConnection.guessContentTypeFromStream(new ByteArrayInputStream(imageBytes));
-                    if (!"image/jpeg".equalsIgnoreCase(mimeType) && !"image/png".equalsIgnoreCase(mimeType) && !"image/gif".equalsIgnoreCase(mimeType)) {
-                        throw new IllegalArgumentException("Only JPEG and PNG images are supported.");
-                    }
-                    return imageBytes;
-                })
-                .subscribeOn(Schedulers.boundedElastic())
-                .flatMapMany(validBytes -> {
-                    Resource resource = new ByteArrayResource(validBytes);
-
+    public Flux<String> describeImageWithContext(Flux<DataBuffer> image, ChatRequest request) {
+        return imageService.prepare(image)
+                .flatMapMany(prepared -> {
                     Message userMessage = UserMessage
                             .builder()
-                            .media(
-                                    new Media(MimeTypeUtils.IMAGE_PNG, resource),
-                                    new Media(MimeTypeUtils.IMAGE_JPEG, resource),
-                                    new Media(MimeTypeUtils.IMAGE_GIF, resource)
-                            )
+                            .media(new Media(prepared.mimeType(), new ByteArrayResource(prepared.bytes())))
                             .text(request.message())
                             .build();
 
                     ChatOptions chatOptions = OllamaOptions.builder()
-                            .model(OllamaModel.LLAVA)
+                            .model(generationConfig.getVisionModel())
                             .build();
 
-                    return chatClient
+                    return converse("vision", generationConfig.getVisionModel(), request, persona -> chatClient
                             .prompt(new Prompt(userMessage, chatOptions))
-                            .advisors(
-                                    MessageChatMemoryAdvisor
-                                            .builder(chatMemory)
-                                            .conversationId(request.userId().toString())
-                                            .build()
-                            )
+                            .advisors(conversation(request, "vision", generationConfig.getVisionModel(), persona))
                             .stream()
-                            .content();
+                            .chatResponse());
                 });
     }
 
     @Override
-    public List<Message> chatMemory(UUID id) {
-        return chatMemory.get(id.toString());
+    public Mono<List<Message>> chatMemory(UUID id) {
+        return Mono.fromCallable(() -> chatMemory.get(id.toString()))
+                .subscribeOn(chatMemoryScheduler);
+    }
+
+    @Override
+    public Flux<ChatHistoryMessage> history(UUID id, Instant after, Instant before, Integer limit) {
+        if (after != null && before != null) {
+            return Flux.error(new IllegalArgumentException("Page either after or before a cursor, not both"));
+        }
+        int pageSize = Math.min(limit != null ? limit : chatMemoryConfig.getHistoryPageSize(),
+                chatMemoryConfig.getHistoryMaxPageSize());
+        if (pageSize <= 0) return Flux.error(new IllegalArgumentException("Limit must be positive"));
+        Mono<Void> flushed = chatMemory instanceof WriteBehindChatMemory writeBehind
+                ? Mono.<Void>fromRunnable(() -> writeBehind.flush(id.toString())).subscribeOn(chatMemoryScheduler)
+                : Mono.empty();
+        return flushed.thenMany(chatMemoryRepository.page(id.toString(), after, before, pageSize))
+                .map(ChatHistoryMessage::new);
     }
 
     @Override
     public Mono<Void> clearMemory(UUID id) {
-        return Mono.fromRunnable(() -> chatMemory.clear(id.toString()));
+        return Mono.<Void>fromRunnable(() -> chatMemory.clear(id.toString()))
+                .subscribeOn(chatMemoryScheduler);
+    }
+
+    private Consumer<ChatClient.AdvisorSpec> conversation(ChatRequest request, String endpoint, String model,
+                                                          PersonaFirstAdvisor persona) {
+        return advisors -> advisors
+                .advisors(MessageChatMemoryAdvisor
+                        .builder(new TimedChatMemory(chatMemory, chatMetrics.stageTimer("memory.load", endpoint, model)))
+                        .scheduler(chatMemoryScheduler)
+                        .build(), persona)
+                .param(ChatMemory.CONVERSATION_ID, request.userId().toString())
+                .param(ChatMetrics.ENDPOINT, endpoint)
+                .param(ChatMetrics.MODEL, model);
+    }
+
+    private Flux<String> answerAboutText(ChatProfile profile, String text, ChatRequest request) {
+        return converse("upload", generationConfig.getChatModel(), request, persona -> chatClient.prompt()
+                .advisors(conversation(request, "upload", generationConfig.getChatModel(), persona))
+                .system(profile.systemPrompt())
+                .user(request.message() + "\n\n" + text)
+                .stream()
+                .chatResponse());
+    }
+
+    private Mono<String> summarize(String chunk, ChatRequest request) {
+        return generate("upload", "summary", generationConfig.getChatModel(), () -> "none", request,
+                () -> documentChatClient.prompt()
+                        .system(SECTION_SUMMARY_PROMPT)
+                        .user("Question: " + request.message() + "\n\nSection:\n" + chunk)
+                        .stream()
+                        .chatResponse())
+                .collect(Collectors.joining());
+    }
+
+    private Mono<String> reduce(List<String> summaries, ChatRequest request, int directChars) {
+        String combined = String.join("\n\n", summaries);
+        if (summaries.size() <= 1 || combined.length() <= directChars) return Mono.just(combined);
+        return TextChunker.chunk(Flux.fromIterable(summaries).map(summary -> summary + "\n\n"),
+                        documentConfig.getChunkTokens() * TextChunker.CHARS_PER_TOKEN)
+                .flatMapSequential(chunk -> summarize(chunk, request), mapConcurrency())
+                .collectList()
+                .flatMap(next -> next.size() < summaries.size()
+                        ? reduce(next, request, directChars)
+                        : Mono.just(String.join("\n\n", next)));
+    }
+
+    /**
+     * Section summaries are scheduled under the uploading user, so running more of them than the per-user
+     * limit would only park the rest in the generation queue, where they time out after progress has
+     * already streamed.
+     */
+    private int mapConcurrency() {
+        return Math.max(1, Math.min(documentConfig.getMapConcurrency(), generationConfig.getMaxPerUser()));
+    }
+
+    private Flux<String> generate(String endpoint, String call, String model, Supplier<String> prompt,
+                                  ChatRequest request, Supplier<Flux<ChatResponse>> generation) {
+        return chatMetrics.generation(endpoint, model, call, prompt,
+                generationScheduler.schedule(model, request.userId(), () -> generation.get()
+                        .contextWrite(OllamaRouter.affinity(request.userId().toString()))));
+    }
+
+    private Flux<String> converse(String endpoint, String model, ChatRequest request,
+                                  Function<PersonaFirstAdvisor, Flux<ChatResponse>> generation) {
+        return Flux.defer(() -> {
+            PersonaFirstAdvisor persona = new PersonaFirstAdvisor(promptService, request.userId());
+            return remember(endpoint, request, partialAnswerRecorder.track(request.userId(),
+                    generate(endpoint, "answer", model, persona::prefix, request, () -> generation.apply(persona))));
+        });
     }
 
-    private String getSystemPrompt(BotConfig bot, UserInfo user) {
-        String userAge = user.age() != null ? user.age().toString() : "unknown age";
-        String userGender = user.gender() != null ? user.gender() : "user";
-        String botRole = bot.role() != null ? bot.role() : "companion";
-
-        return """
-                You are %s — my %s. Your tone is %s and your personality is %s.
-                You're chatting with %s, a %s-year-old %s.
-                Be helpful, warm, and responsive in our conversations.
-                Speak in a witty, humorous way without being offensive. Keep things casual but smart.
-                """.formatted(
-                bot.botName(),
-                botRole,
-                bot.tone(),
-                bot.personality(),
-                user.fullName(),
-                userAge,
-                userGender
-        );
+    private Flux<String> remember(String source, ChatRequest request, Flux<String> tokens) {
+        return Flux.defer(() -> {
+            StringBuilder answer = new StringBuilder();
+            return tokens
+                    .doOnNext(answer::append)
+                    .doOnComplete(() -> memoryIngestor.submit(request.userId(), source,
+                            "User: " + request.message() + "\nAssistant: " + answer));
+        });
     }
 }
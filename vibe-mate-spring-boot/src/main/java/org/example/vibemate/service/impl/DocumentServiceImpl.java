@@ -0,0 +1,146 @@
+package org.example.vibemate.service.impl;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.tika.io.TikaInputStream;
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.parser.ParseContext;
+import org.apache.tika.parser.Parser;
+import org.apache.tika.sax.BodyContentHandler;
+import org.example.vibemate.config.DocumentConfig;
+import org.example.vibemate.document.ChunkingWriter;
+import org.example.vibemate.document.ExtractedTextCache;
+import org.example.vibemate.metrics.ChatMetrics;
+import org.example.vibemate.service.DocumentService;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@Service
+public class DocumentServiceImpl implements DocumentService {
+
+    private final Parser documentParser;
+    private final DocumentConfig config;
+    private final ExtractedTextCache extractedTextCache;
+    private final Scheduler documentScheduler;
+    private final Scheduler ioScheduler;
+    private final Timer extractionTimer;
+
+    public DocumentServiceImpl(Parser documentParser, DocumentConfig config, ExtractedTextCache extractedTextCache,
+                               Scheduler documentScheduler, Scheduler ioScheduler, MeterRegistry meterRegistry) {
+        this.documentParser = documentParser;
+        this.config = config;
+        this.extractedTextCache = extractedTextCache;
+        this.documentScheduler = documentScheduler;
+        this.ioScheduler = ioScheduler;
+        this.extractionTimer = ChatMetrics.stageTimer(meterRegistry, "extraction", "upload");
+    }
+
+    @Override
+    public Flux<String> extractText(Flux<DataBuffer> content) {
+        return Flux.usingWhen(
+                Mono.fromCallable(() -> Files.createTempFile(Path.of(config.getTempDir()), "upload", ".tmp"))
+                        .subscribeOn(ioScheduler),
+                file -> Flux.defer(() -> {
+                    MessageDigest digest = sha256();
+                    AtomicLong received = new AtomicLong();
+                    return DataBufferUtils.write(limit(content, digest, received), file)
+                            .then(Mono.fromSupplier(() -> HexFormat.of().formatHex(digest.digest())))
+                            .flatMapMany(hash -> extractedTextCache.get(hash, received.get())
+                                    .flatMapMany(this::split)
+                                    .switchIfEmpty(Flux.defer(() -> parseAndCache(hash, file))));
+                }),
+                this::delete,
+                (file, error) -> delete(file),
+                this::delete
+        );
+    }
+
+    private Flux<DataBuffer> limit(Flux<DataBuffer> content, MessageDigest digest, AtomicLong received) {
+        long maxBytes = config.getMaxSize().toBytes();
+        return content.handle((buffer, sink) -> {
+            if (received.addAndGet(buffer.readableByteCount()) > maxBytes) {
+                DataBufferUtils.release(buffer);
+                sink.error(new IllegalArgumentException("File exceeds the maximum upload size of " + config.getMaxSize()));
+                return;
+            }
+            try (DataBuffer.ByteBufferIterator iterator = buffer.readableByteBuffers()) {
+                iterator.forEachRemaining(digest::update);
+            }
+            sink.next(buffer);
+        });
+    }
+
+    private Flux<String> parseAndCache(String hash, Path file) {
+        StringBuilder text = new StringBuilder();
+        return parse(file)
+                .doOnNext(text::append)
+                .concatWith(Mono.defer(() -> extractedTextCache.put(hash, text.toString())).then(Mono.<String>empty()));
+    }
+
+    private Flux<String> split(String text) {
+        int chunkChars = config.getChunkChars();
+        return Flux.range(0, (text.length() + chunkChars - 1) / chunkChars)
+                .map(i -> text.substring(i * chunkChars, Math.min(text.length(), (i + 1) * chunkChars)));
+    }
+
+    private Flux<String> parse(Path file) {
+        return Flux.<String>create(sink -> {
+            ChunkingWriter writer = new ChunkingWriter(sink, config.getChunkChars(), config.getMaxChars());
+            Timer.Sample sample = Timer.start();
+            try (InputStream inputStream = TikaInputStream.get(file)) {
+                documentParser.parse(inputStream, new BodyContentHandler(writer), new Metadata(), new ParseContext());
+                sample.stop(extractionTimer);
+                writer.close();
+                sink.complete();
+            } catch (Exception ex) {
+                if (isLimitReached(ex)) {
+                    sample.stop(extractionTimer);
+                    writer.close();
+                    sink.complete();
+                } else {
+                    sink.error(ex);
+                }
+            }
+        }).subscribeOn(documentScheduler);
+    }
+
+    private Mono<Void> delete(Path file) {
+        return Mono.<Void>fromRunnable(() -> {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ex) {
+                log.warn("Failed to delete upload temp file {}", file, ex);
+            }
+        }).subscribeOn(ioScheduler);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static boolean isLimitReached(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ChunkingWriter.LimitReachedException) return true;
+        }
+        return false;
+    }
+}
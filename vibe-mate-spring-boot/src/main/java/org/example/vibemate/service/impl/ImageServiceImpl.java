@@ -0,0 +1,169 @@
+package org.example.vibemate.service.impl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.example.vibemate.config.ImageConfig;
+import org.example.vibemate.dto.PreparedImage;
+import org.example.vibemate.metrics.ChatMetrics;
+import org.example.vibemate.service.ImageService;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+
+@Service
+public class ImageServiceImpl implements ImageService {
+
+    private final ImageConfig config;
+    private final Scheduler imageScheduler;
+    private final DistributionSummary bytesIn;
+    private final DistributionSummary bytesSent;
+    private final Counter resized;
+    private final Timer preprocessTimer;
+
+    public ImageServiceImpl(ImageConfig config, Scheduler imageScheduler, MeterRegistry meterRegistry) {
+        this.config = config;
+        this.imageScheduler = imageScheduler;
+        this.bytesIn = DistributionSummary.builder("vision.image.bytes.in")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.bytesSent = DistributionSummary.builder("vision.image.bytes.sent")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.resized = Counter.builder("vision.image.resized").register(meterRegistry);
+        this.preprocessTimer = ChatMetrics.stageTimer(meterRegistry, "vision.preprocess", "vision");
+    }
+
+    @Override
+    public Mono<PreparedImage> prepare(Flux<DataBuffer> content) {
+        return DataBufferUtils.join(content, (int) config.getMaxSize().toBytes())
+                .onErrorMap(DataBufferLimitException.class,
+                        ex -> new IllegalArgumentException("Image exceeds the maximum size of " + config.getMaxSize()))
+                .publishOn(imageScheduler)
+                .map(buffer -> preprocessTimer.record(() -> process(buffer)))
+                .doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+    }
+
+    /**
+     * Decodes straight from the joined buffer, which closing the stream releases; only an image passed
+     * through as it is gets copied out into an array.
+     */
+    private PreparedImage process(DataBuffer buffer) {
+        int start = buffer.readPosition();
+        int size = buffer.readableByteCount();
+        bytesIn.record(size);
+        try (InputStream in = buffer.asInputStream(true);
+             ImageInputStream input = ImageIO.createImageInputStream(in)) {
+            MimeType mimeType = detectMimeType(buffer, start);
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) throw new IllegalArgumentException("Unreadable image.");
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > config.getMaxPixels()) {
+                    throw new IllegalArgumentException("Image exceeds the maximum of %d pixels".formatted(config.getMaxPixels()));
+                }
+                PreparedImage image = size <= config.getPassThroughSize().toBytes()
+                        && Math.max(width, height) <= config.getMaxDimension()
+                        ? new PreparedImage(mimeType, copy(buffer, start, size))
+                        : downscale(reader, width, height);
+                bytesSent.record(image.bytes().length);
+                return image;
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException ex) {
+            throw new IllegalArgumentException("Unreadable image.", ex);
+        }
+    }
+
+    /**
+     * Decodes every n-th pixel only, so a small but highly compressed image never materialises at full
+     * size; the subsampled bitmap is then scaled the rest of the way.
+     */
+    private PreparedImage downscale(ImageReader reader, int sourceWidth, int sourceHeight) throws IOException {
+        int longest = Math.max(sourceWidth, sourceHeight);
+        ImageReadParam param = reader.getDefaultReadParam();
+        int step = Math.max(1, longest / config.getMaxDimension());
+        param.setSourceSubsampling(step, step, 0, 0);
+        BufferedImage source = reader.read(0, param);
+
+        double scale = Math.min(1.0, (double) config.getMaxDimension() / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(source, 0, 0, width, height, Color.WHITE, null);
+        } finally {
+            graphics.dispose();
+        }
+        resized.increment();
+        return new PreparedImage(MimeTypeUtils.IMAGE_JPEG, encodeJpeg(target));
+    }
+
+    private byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(config.getJpegQuality());
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] copy(DataBuffer buffer, int start, int size) {
+        byte[] bytes = new byte[size];
+        buffer.readPosition(start);
+        buffer.read(bytes);
+        return bytes;
+    }
+
+    private static MimeType detectMimeType(DataBuffer buffer, int start) {
+        if (startsWith(buffer, start, 0x89, 'P', 'N', 'G')) return MimeTypeUtils.IMAGE_PNG;
+        if (startsWith(buffer, start, 0xFF, 0xD8, 0xFF)) return MimeTypeUtils.IMAGE_JPEG;
+        if (startsWith(buffer, start, 'G', 'I', 'F', '8')) return MimeTypeUtils.IMAGE_GIF;
+        throw new IllegalArgumentException("Only JPEG, PNG and GIF images are supported.");
+    }
+
+    private static boolean startsWith(DataBuffer buffer, int start, int... signature) {
+        if (buffer.writePosition() - start < signature.length) return false;
+        for (int i = 0; i < signature.length; i++) {
+            if ((buffer.getByte(start + i) & 0xFF) != signature[i]) return false;
+        }
+        return true;
+    }
+}
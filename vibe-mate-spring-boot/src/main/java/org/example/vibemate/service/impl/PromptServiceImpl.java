@@ -0,0 +1,78 @@
+package org.example.vibemate.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.example.vibemate.config.PromptConfig;
+import org.example.vibemate.dto.BotConfig;
+import org.example.vibemate.dto.UserInfo;
+import org.example.vibemate.metrics.ChatMetrics;
+import org.example.vibemate.prompt.PersonaTemplate;
+import org.example.vibemate.service.PromptService;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+@Service
+public class PromptServiceImpl implements PromptService {
+
+    private final PersonaTemplate template;
+    private final Cache<PromptKey, String> renderedPrompts;
+    private final Cache<UUID, List<Integer>> pinnedPrompts;
+    private final MeterRegistry meterRegistry;
+
+    public PromptServiceImpl(PersonaTemplate template, PromptConfig config, MeterRegistry meterRegistry) {
+        this.template = template;
+        this.renderedPrompts = Caffeine.newBuilder()
+                .maximumSize(config.getCacheSize())
+                .recordStats()
+                .build();
+        this.pinnedPrompts = Caffeine.newBuilder()
+                .maximumSize(config.getCacheSize())
+                .expireAfterAccess(config.getPinTtl())
+                .build();
+        this.meterRegistry = meterRegistry;
+        CaffeineCacheMetrics.monitor(meterRegistry, renderedPrompts, "prompt.rendered");
+    }
+
+    @Override
+    public String systemPrompt(BotConfig bot, UserInfo user, String endpoint, String model) {
+        return ChatMetrics.stageTimer(meterRegistry, "prompt", endpoint, model)
+                .record(() -> renderedPrompts.get(new PromptKey(user, bot), key -> render(key.bot(), key.user())));
+    }
+
+    /**
+     * The previous prompt's final message is left out of the comparison: it is the user turn as
+     * retrieval augmented it, while chat memory replays the turn as the user wrote it.
+     */
+    @Override
+    public boolean pin(UUID conversationId, List<Message> prompt) {
+        List<Integer> hashes = prompt.stream()
+                .map(message -> Objects.hash(message.getMessageType(), message.getText()))
+                .toList();
+        List<Integer> previous = pinnedPrompts.asMap()
+                .put(conversationId, hashes.subList(0, Math.max(0, hashes.size() - 1)));
+        return previous != null && !previous.isEmpty() && previous.size() <= hashes.size()
+                && hashes.subList(0, previous.size()).equals(previous);
+    }
+
+    private String render(BotConfig bot, UserInfo user) {
+        Map<String, String> values = new HashMap<>();
+        values.put("botName", bot.botName());
+        values.put("botRole", bot.role() != null ? bot.role() : "companion");
+        values.put("tone", bot.tone());
+        values.put("personality", bot.personality());
+        values.put("userName", user.fullName());
+        values.put("userAge", user.age() != null ? user.age().toString() : "unknown age");
+        values.put("userGender", user.gender() != null ? user.gender() : "user");
+        return template.render(values);
+    }
+
+    private record PromptKey(UserInfo user, BotConfig bot) {}
+}
@@ -1,48 +1,115 @@
 package org.example.vibemate.service.impl;
 
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.r2dbc.spi.Readable;
+import io.r2dbc.spi.Statement;
 import lombok.RequiredArgsConstructor;
+import org.example.vibemate.config.BulkImportConfig;
 import org.example.vibemate.dto.BotConfig;
+import org.example.vibemate.dto.ChatProfile;
+import org.example.vibemate.dto.ImportResult;
 import org.example.vibemate.dto.Response;
 import org.example.vibemate.dto.UserInfo;
+import org.example.vibemate.metrics.ChatMetrics;
 import org.example.vibemate.model.Bot;
 import org.example.vibemate.model.User;
 import org.example.vibemate.repository.BotConfigRepo;
 import org.example.vibemate.repository.UserRepo;
+import org.example.vibemate.service.PromptService;
 import org.example.vibemate.service.UserService;
 import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.context.ContextView;
+import reactor.util.function.Tuple2;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 import java.util.UUID;
+import java.util.function.Function;
 
 @Service
 @RequiredArgsConstructor
 public class UserServiceImpl implements UserService {
 
+    private static final String SELECT_PROFILE = """
+            SELECT u.user_id, u.full_name, u.age, u.gender, b.bot_name, b.personality, b.tone, b.role,
+                   b.response_cache
+            FROM users u
+            JOIN bot b ON b.user_id = u.user_id
+            WHERE u.user_id = :userId
+            """;
+    private static final String UPSERT_USER = """
+            INSERT INTO users (user_id, full_name, age, gender)
+            VALUES ($1, $2, $3, $4)
+            ON CONFLICT (user_id) DO UPDATE
+            SET full_name = EXCLUDED.full_name, age = EXCLUDED.age, gender = EXCLUDED.gender
+            RETURNING user_id, full_name, age, gender, (xmax = 0) AS inserted
+            """;
+    private static final String UPSERT_BOT = """
+            INSERT INTO bot (user_id, bot_name, personality, tone, role, response_cache)
+            VALUES ($1, $2, $3, $4, $5, COALESCE($6, TRUE))
+            ON CONFLICT (user_id) DO UPDATE
+            SET bot_name = EXCLUDED.bot_name, personality = EXCLUDED.personality, tone = EXCLUDED.tone,
+                role = EXCLUDED.role, response_cache = COALESCE($6, bot.response_cache)
+            RETURNING user_id, bot_name, personality, tone, role, response_cache, (xmax = 0) AS inserted
+            """;
+
     private final UserRepo userRepository;
     private final BotConfigRepo botConfigRepository;
     private final R2dbcEntityTemplate r2dbcEntityTemplate;
+    private final PromptService promptService;
+    private final AsyncCache<UUID, ChatProfile> profileCache;
+    private final BulkImportConfig bulkImportConfig;
+    private final MeterRegistry meterRegistry;
 
     @Override
     public Mono<Response> saveUser(User user) {
-        if (user.getUserId() != null) {
-            return userRepository.findById(user.getUserId())
-                    .flatMap(existing -> userRepository.save(user))
-                    .map(saved -> new Response("Successfully Updated Profile", saved, HttpStatus.OK));
-        }
-        return r2dbcEntityTemplate.insert(User.class)
-                .using(user)
-                .map(saved -> new Response("Successfully Added Profile", saved, HttpStatus.CREATED));
+        if (user.getUserId() == null) user.setUserId(UUID.randomUUID());
+        return upsertUsers(List.of(user))
+                .next()
+                .doOnSuccess(saved -> profileCache.synchronous().invalidate(user.getUserId()))
+                .map(saved -> saved.inserted()
+                        ? new Response("Successfully Added Profile", saved.value(), HttpStatus.CREATED)
+                        : new Response("Successfully Updated Profile", saved.value(), HttpStatus.OK));
     }
 
     @Override
     public Mono<Response> saveBotConfig(Bot bot) {
         if (bot.getUserId() == null) throw new IllegalArgumentException("User Id is missing");
-        return botConfigRepository.findById(bot.getUserId())
-                .flatMap(existing -> botConfigRepository.save(bot))
-                .switchIfEmpty(r2dbcEntityTemplate.insert(bot))
-                .map(data -> new Response("AI setting updated", data, HttpStatus.ACCEPTED));
+        return upsertBots(List.of(bot))
+                .next()
+                .doOnSuccess(saved -> profileCache.synchronous().invalidate(bot.getUserId()))
+                .map(saved -> new Response("AI setting updated", saved.value(), HttpStatus.ACCEPTED));
+    }
+
+    @Override
+    public Flux<ImportResult> importUsers(Flux<User> users) {
+        return users
+                .map(user -> {
+                    if (user.getUserId() == null) user.setUserId(UUID.randomUUID());
+                    return user;
+                })
+                .index()
+                .buffer(bulkImportConfig.getBatchSize())
+                .flatMapSequential(batch -> importBatch(batch, this::upsertUsers, User::getUserId),
+                        bulkImportConfig.getConcurrency())
+                .doOnNext(result -> count("user", result));
+    }
+
+    @Override
+    public Flux<ImportResult> importBots(Flux<Bot> bots) {
+        return bots
+                .index()
+                .buffer(bulkImportConfig.getBatchSize())
+                .flatMapSequential(batch -> importBatch(batch, this::upsertBots, Bot::getUserId),
+                        bulkImportConfig.getConcurrency())
+                .doOnNext(result -> count("bot", result));
     }
 
     @Override
@@ -54,4 +121,154 @@ public class UserServiceImpl implements UserService {
     public Mono<BotConfig> getBotConfig(UUID userId) {
         return botConfigRepository.findById(userId).map(BotConfig::new);
     }
+
+    @Override
+    public Mono<ChatProfile> getProfile(UUID userId) {
+        return Mono.deferContextual(context -> Mono.fromFuture(() -> profileCache.get(userId,
+                (id, executor) -> loadProfile(id).contextWrite(context).toFuture()), true));
+    }
+
+    /**
+     * Upserts one batch in a single round trip. If the batch fails (say one bot references a missing
+     * user), its items are retried one by one so only the bad ones are reported as failed; the upsert is
+     * idempotent, so rows the failed batch already wrote are simply written again.
+     */
+    private <T> Flux<ImportResult> importBatch(List<Tuple2<Long, T>> batch,
+                                               Function<List<T>, Flux<Upserted<T>>> upsert,
+                                               Function<T, UUID> userId) {
+        List<ImportResult> results = new ArrayList<>(batch.size());
+        List<Tuple2<Long, T>> valid = new ArrayList<>(batch.size());
+        for (Tuple2<Long, T> item : batch) {
+            if (userId.apply(item.getT2()) == null) {
+                results.add(new ImportResult(item.getT1(), null, ImportResult.Status.FAILED, "User Id is missing"));
+            } else {
+                valid.add(item);
+            }
+        }
+        if (valid.isEmpty()) return Flux.fromIterable(results);
+        return upsert.apply(valid.stream().map(Tuple2::getT2).toList())
+                .collectList()
+                .map(saved -> {
+                    for (int i = 0; i < saved.size(); i++) {
+                        Tuple2<Long, T> item = valid.get(i);
+                        results.add(new ImportResult(item.getT1(), userId.apply(item.getT2()),
+                                saved.get(i).inserted() ? ImportResult.Status.CREATED : ImportResult.Status.UPDATED,
+                                null));
+                    }
+                    return results;
+                })
+                .onErrorResume(ex -> {
+                    if (valid.size() == 1) {
+                        Tuple2<Long, T> item = valid.get(0);
+                        results.add(new ImportResult(item.getT1(), userId.apply(item.getT2()),
+                                ImportResult.Status.FAILED, ex.getMessage()));
+                        return Mono.just(results);
+                    }
+                    return Flux.fromIterable(valid)
+                            .concatMap(item -> importBatch(List.of(item), upsert, userId))
+                            .collectList()
+                            .map(retried -> {
+                                results.addAll(retried);
+                                return results;
+                            });
+                })
+                .doOnNext(done -> profileCache.synchronous()
+                        .invalidateAll(valid.stream().map(item -> userId.apply(item.getT2())).toList()))
+                .flatMapIterable(done -> {
+                    done.sort(Comparator.comparingLong(ImportResult::index));
+                    return done;
+                });
+    }
+
+    private void count(String kind, ImportResult result) {
+        Counter.builder("user.import")
+                .description("Users and bot settings written by bulk import")
+                .tags("kind", kind, "status", result.status().name().toLowerCase())
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private Flux<Upserted<User>> upsertUsers(List<User> users) {
+        return r2dbcEntityTemplate.getDatabaseClient().inConnectionMany(connection -> {
+            Statement statement = connection.createStatement(UPSERT_USER);
+            for (int i = 0; i < users.size(); i++) {
+                if (i > 0) statement.add();
+                User user = users.get(i);
+                statement.bind(0, user.getUserId());
+                bind(statement, 1, user.getFullName(), String.class);
+                bind(statement, 2, user.getAge(), Integer.class);
+                bind(statement, 3, user.getGender(), String.class);
+            }
+            return Flux.from(statement.execute())
+                    .concatMap(result -> result.map((row, metadata) -> {
+                        User saved = new User();
+                        saved.setUserId(row.get("user_id", UUID.class));
+                        saved.setFullName(row.get("full_name", String.class));
+                        saved.setAge(row.get("age", Integer.class));
+                        saved.setGender(row.get("gender", String.class));
+                        return new Upserted<>(saved, Boolean.TRUE.equals(row.get("inserted", Boolean.class)));
+                    }));
+        });
+    }
+
+    private Flux<Upserted<Bot>> upsertBots(List<Bot> bots) {
+        return r2dbcEntityTemplate.getDatabaseClient().inConnectionMany(connection -> {
+            Statement statement = connection.createStatement(UPSERT_BOT);
+            for (int i = 0; i < bots.size(); i++) {
+                if (i > 0) statement.add();
+                Bot bot = bots.get(i);
+                statement.bind(0, bot.getUserId());
+                bind(statement, 1, bot.getBotName(), String.class);
+                bind(statement, 2, bot.getPersonality(), String.class);
+                bind(statement, 3, bot.getTone(), String.class);
+                bind(statement, 4, bot.getRole(), String.class);
+                bind(statement, 5, bot.getResponseCache(), Boolean.class);
+            }
+            return Flux.from(statement.execute())
+                    .concatMap(result -> result.map((row, metadata) -> {
+                        Bot saved = new Bot();
+                        saved.setUserId(row.get("user_id", UUID.class));
+                        saved.setBotName(row.get("bot_name", String.class));
+                        saved.setPersonality(row.get("personality", String.class));
+                        saved.setTone(row.get("tone", String.class));
+                        saved.setRole(row.get("role", String.class));
+                        saved.setResponseCache(row.get("response_cache", Boolean.class));
+                        return new Upserted<>(saved, Boolean.TRUE.equals(row.get("inserted", Boolean.class)));
+                    }));
+        });
+    }
+
+    private static <V> void bind(Statement statement, int index, V value, Class<V> type) {
+        if (value != null) statement.bind(index, value);
+        else statement.bindNull(index, type);
+    }
+
+    private Mono<ChatProfile> loadProfile(UUID userId) {
+        return Mono.deferContextual(context -> r2dbcEntityTemplate.getDatabaseClient()
+                .sql(SELECT_PROFILE)
+                .bind("userId", userId)
+                .map(row -> toProfile(row, context))
+                .one());
+    }
+
+    private ChatProfile toProfile(Readable row, ContextView context) {
+        UserInfo user = new UserInfo(
+                row.get("user_id", UUID.class),
+                row.get("full_name", String.class),
+                row.get("age", Integer.class),
+                row.get("gender", String.class)
+        );
+        BotConfig bot = BotConfig.builder()
+                .userId(user.userId())
+                .botName(row.get("bot_name", String.class))
+                .personality(row.get("personality", String.class))
+                .tone(row.get("tone", String.class))
+                .role(row.get("role", String.class))
+                .responseCache(row.get("response_cache", Boolean.class))
+                .build();
+        return new ChatProfile(user, bot, promptService.systemPrompt(bot, user,
+                ChatMetrics.endpoint(context), ChatMetrics.model(context)));
+    }
+
+    private record Upserted<T>(T value, boolean inserted) {}
 }
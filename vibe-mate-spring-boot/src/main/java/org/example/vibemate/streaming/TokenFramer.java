@@ -0,0 +1,153 @@
+package org.example.vibemate.streaming;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coalesces per-token model output into frames of up to frameTokens tokens or frameWindow of time,
+ * whichever fills first, so each write and flush to the client carries many tokens. SSE frames are
+ * kept briefly per stream, together with how the stream ended, so a reconnecting client can replay what
+ * it missed via Last-Event-ID. An SSE generation runs independently of the connection that started it:
+ * the first response and every resume follow the same replay sink, and the generation is only cancelled
+ * once nobody has followed it for resumeGrace.
+ */
+public class TokenFramer {
+
+    private final int frameTokens;
+    private final Duration frameWindow;
+    private final Duration resumeGrace;
+    private final Cache<String, Stream> replay;
+
+    public TokenFramer(int frameTokens, Duration frameWindow, long replayStreams, Duration replayTtl,
+                       Duration resumeGrace) {
+        this.frameTokens = frameTokens;
+        this.frameWindow = frameWindow;
+        this.resumeGrace = resumeGrace;
+        this.replay = Caffeine.newBuilder()
+                .maximumSize(replayStreams)
+                .expireAfterWrite(replayTtl)
+                .build();
+    }
+
+    public Flux<String> frames(Flux<String> tokens) {
+        return tokens
+                .bufferTimeout(frameTokens, frameWindow, true)
+                .map(TokenFramer::join);
+    }
+
+    public Flux<ServerSentEvent<String>> events(Flux<String> tokens) {
+        return Flux.deferContextual(context -> {
+            String streamId = UUID.randomUUID().toString();
+            Stream stream = new Stream();
+            replay.put(streamId, stream);
+            stream.generation = frames(tokens)
+                    .contextWrite(context)
+                    .subscribe(stream.sent::tryEmitNext, stream.sent::tryEmitError, stream.sent::tryEmitComplete);
+            return follow(streamId, stream, -1, false);
+        });
+    }
+
+    /**
+     * Replays the frames after lastEventId and keeps following the stream while it is still generating.
+     * Ends with a done event only if the original stream completed; a stream that failed or was
+     * cancelled, for instance by the client disconnecting, ends with an incomplete event instead.
+     */
+    public Flux<ServerSentEvent<String>> resume(String lastEventId) {
+        int separator = lastEventId.lastIndexOf(':');
+        if (separator < 0) throw new IllegalArgumentException("Malformed Last-Event-ID");
+        String streamId = lastEventId.substring(0, separator);
+        long last = sequence(lastEventId.substring(separator + 1));
+        Stream stream = replay.getIfPresent(streamId);
+        if (stream == null) throw new IllegalArgumentException("Stream " + streamId + " is no longer available");
+        return follow(streamId, stream, last, true);
+    }
+
+    /**
+     * The frames after last, then done. A failed or cancelled stream errors for the original response,
+     * so the usual error handling applies, and ends with an incomplete event for a resume.
+     */
+    private Flux<ServerSentEvent<String>> follow(String streamId, Stream stream, long last, boolean resumed) {
+        AtomicLong sequence = new AtomicLong();
+        Flux<ServerSentEvent<String>> events = stream.sent.asFlux()
+                .index()
+                .doOnNext(frame -> sequence.set(frame.getT1() + 1))
+                .filter(frame -> frame.getT1() > last)
+                .map(frame -> event(streamId, frame.getT1(), frame.getT2()))
+                .concatWith(Flux.defer(() -> Flux.just(done(streamId, sequence.get()))));
+        if (resumed) {
+            events = events.onErrorResume(ex -> Flux.just(incomplete(streamId, sequence.get(),
+                    ex instanceof CancellationException ? "cancelled" : "failed")));
+        }
+        return events
+                .doOnSubscribe(subscription -> stream.followers.incrementAndGet())
+                .doFinally(signal -> stream.unfollowed());
+    }
+
+    private static long sequence(String value) {
+        try {
+            long sequence = Long.parseLong(value);
+            if (sequence >= 0) return sequence;
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Malformed Last-Event-ID", ex);
+        }
+        throw new IllegalArgumentException("Malformed Last-Event-ID");
+    }
+
+    private static ServerSentEvent<String> event(String streamId, long sequence, String frame) {
+        return ServerSentEvent.<String>builder(frame)
+                .id(streamId + ":" + sequence)
+                .event("token")
+                .build();
+    }
+
+    private static ServerSentEvent<String> done(String streamId, long sequence) {
+        return ServerSentEvent.<String>builder("")
+                .id(streamId + ":" + sequence)
+                .event("done")
+                .build();
+    }
+
+    private static ServerSentEvent<String> incomplete(String streamId, long sequence, String reason) {
+        return ServerSentEvent.<String>builder(reason)
+                .id(streamId + ":" + sequence)
+                .event("incomplete")
+                .build();
+    }
+
+    private final class Stream {
+
+        private final Sinks.Many<String> sent = Sinks.many().replay().all();
+        private final AtomicInteger followers = new AtomicInteger();
+        private volatile Disposable generation;
+
+        private void unfollowed() {
+            if (followers.decrementAndGet() > 0 || generation.isDisposed()) return;
+            Mono.delay(resumeGrace).subscribe(tick -> {
+                if (followers.get() > 0 || generation.isDisposed()) return;
+                generation.dispose();
+                sent.tryEmitError(new CancellationException("Stream was cancelled"));
+            });
+        }
+    }
+
+    private static String join(List<String> tokens) {
+        if (tokens.size() == 1) return tokens.getFirst();
+        int length = 0;
+        for (String token : tokens) length += token.length();
+        StringBuilder frame = new StringBuilder(length);
+        for (String token : tokens) frame.append(token);
+        return frame.toString();
+    }
+}
@@ -0,0 +1,316 @@
+package org.example.vibemate.vectorstore;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * Hierarchical navigable small world graph over unit-length float vectors, scored by dot product (cosine
+ * similarity). Removed vectors stay in the graph as tombstones so it remains navigable, and are skipped
+ * in results until {@link #compact} rebuilds the graph without them. Searches share a read lock; inserts,
+ * removals and compaction take the write lock.
+ */
+final class HnswIndex {
+
+    private static final Comparator<Scored> BEST_FIRST = Comparator.comparingDouble(Scored::score).reversed();
+    private static final Comparator<Scored> WORST_FIRST = Comparator.comparingDouble(Scored::score);
+
+    private final int m;
+    private final int maxM0;
+    private final int efConstruction;
+    private final double levelMultiplier;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<Node> nodes = new ArrayList<>();
+    private final Map<String, Integer> positions = new HashMap<>();
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+    private int live;
+
+    HnswIndex(int m, int efConstruction) {
+        this.m = m;
+        this.maxM0 = m * 2;
+        this.efConstruction = efConstruction;
+        this.levelMultiplier = 1 / Math.log(m);
+    }
+
+    void add(String id, float[] vector) {
+        lock.writeLock().lock();
+        try {
+            Integer existing = positions.get(id);
+            if (existing != null) {
+                // content-derived ids are re-added with the same vector; keep the node rather than tombstone it
+                if (Arrays.equals(nodes.get(existing).vector, vector)) return;
+                tombstone(existing);
+            }
+            insert(id, vector);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    boolean remove(String id) {
+        lock.writeLock().lock();
+        try {
+            Integer position = positions.get(id);
+            if (position == null) return false;
+            tombstone(position);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    List<Match> search(float[] query, int k, int ef, Predicate<String> accept) {
+        lock.readLock().lock();
+        try {
+            if (entryPoint < 0 || live == 0) return List.of();
+            int current = entryPoint;
+            for (int layer = maxLevel; layer > 0; layer--) {
+                current = greedy(query, current, layer);
+            }
+            return searchLayer(query, current, Math.max(ef, k), 0, accept).stream()
+                    .limit(k)
+                    .map(scored -> new Match(nodes.get(scored.node()).id, scored.score()))
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return live;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int tombstones() {
+        lock.readLock().lock();
+        try {
+            return nodes.size() - live;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Rebuilds the graph from its live vectors once tombstones make up more than the given share of the
+     * nodes, so removed and replaced vectors stop costing memory, snapshot space and search hops.
+     */
+    boolean compact(double maxTombstoneRatio) {
+        lock.writeLock().lock();
+        try {
+            if (nodes.isEmpty() || nodes.size() - live <= maxTombstoneRatio * nodes.size()) return false;
+            List<Node> survivors = nodes.stream().filter(node -> !node.deleted).toList();
+            nodes.clear();
+            positions.clear();
+            entryPoint = -1;
+            maxLevel = -1;
+            live = 0;
+            for (Node node : survivors) insert(node.id, node.vector);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void writeTo(DataOutputStream out) throws IOException {
+        lock.readLock().lock();
+        try {
+            out.writeInt(entryPoint);
+            out.writeInt(maxLevel);
+            out.writeInt(nodes.size());
+            for (Node node : nodes) {
+                Snapshots.writeString(out, node.id);
+                out.writeBoolean(node.deleted);
+                Snapshots.writeVector(out, node.vector);
+                out.writeInt(node.links.length);
+                for (int[] links : node.links) {
+                    out.writeInt(links.length);
+                    for (int link : links) out.writeInt(link);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static HnswIndex readFrom(ByteBuffer in, int m, int efConstruction) {
+        HnswIndex index = new HnswIndex(m, efConstruction);
+        index.entryPoint = in.getInt();
+        index.maxLevel = in.getInt();
+        int count = in.getInt();
+        for (int i = 0; i < count; i++) {
+            String id = Snapshots.readString(in);
+            boolean deleted = in.get() != 0;
+            float[] vector = new float[in.getInt()];
+            in.asFloatBuffer().get(vector);
+            in.position(in.position() + vector.length * Float.BYTES);
+            Node node = new Node(id, vector, in.getInt() - 1);
+            for (int layer = 0; layer < node.links.length; layer++) {
+                int[] links = new int[in.getInt()];
+                in.asIntBuffer().get(links);
+                in.position(in.position() + links.length * Integer.BYTES);
+                node.links[layer] = links;
+            }
+            node.deleted = deleted;
+            index.nodes.add(node);
+            if (!deleted) {
+                index.positions.put(id, i);
+                index.live++;
+            }
+        }
+        return index;
+    }
+
+    private void insert(String id, float[] vector) {
+        int level = (int) (-Math.log(1 - ThreadLocalRandom.current().nextDouble()) * levelMultiplier);
+        int node = nodes.size();
+        nodes.add(new Node(id, vector, level));
+        positions.put(id, node);
+        live++;
+        if (entryPoint < 0) {
+            entryPoint = node;
+            maxLevel = level;
+            return;
+        }
+        int current = entryPoint;
+        for (int layer = maxLevel; layer > level; layer--) {
+            current = greedy(vector, current, layer);
+        }
+        for (int layer = Math.min(level, maxLevel); layer >= 0; layer--) {
+            List<Scored> candidates = searchLayer(vector, current, efConstruction, layer, null);
+            int[] selected = candidates.stream().limit(m).mapToInt(Scored::node).toArray();
+            nodes.get(node).links[layer] = selected;
+            for (int neighbor : selected) {
+                connect(neighbor, node, layer, layer == 0 ? maxM0 : m);
+            }
+            current = candidates.get(0).node();
+        }
+        if (level > maxLevel) {
+            maxLevel = level;
+            entryPoint = node;
+        }
+    }
+
+    private void tombstone(int position) {
+        Node node = nodes.get(position);
+        if (node.deleted) return;
+        node.deleted = true;
+        positions.remove(node.id);
+        live--;
+    }
+
+    private int greedy(float[] query, int start, int layer) {
+        int current = start;
+        double best = similarity(query, current);
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int neighbor : nodes.get(current).links[layer]) {
+                double score = similarity(query, neighbor);
+                if (score > best) {
+                    best = score;
+                    current = neighbor;
+                    changed = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    private List<Scored> searchLayer(float[] query, int entry, int ef, int layer, Predicate<String> accept) {
+        BitSet visited = new BitSet(nodes.size());
+        PriorityQueue<Scored> candidates = new PriorityQueue<>(BEST_FIRST);
+        PriorityQueue<Scored> results = new PriorityQueue<>(WORST_FIRST);
+        Scored start = new Scored(entry, similarity(query, entry));
+        visited.set(entry);
+        candidates.add(start);
+        if (accepts(entry, accept)) results.add(start);
+        while (!candidates.isEmpty()) {
+            Scored candidate = candidates.poll();
+            if (results.size() >= ef && candidate.score() < results.peek().score()) break;
+            for (int neighbor : nodes.get(candidate.node()).links[layer]) {
+                if (visited.get(neighbor)) continue;
+                visited.set(neighbor);
+                double score = similarity(query, neighbor);
+                if (results.size() < ef || score > results.peek().score()) {
+                    Scored scored = new Scored(neighbor, score);
+                    candidates.add(scored);
+                    if (accepts(neighbor, accept)) {
+                        results.add(scored);
+                        if (results.size() > ef) results.poll();
+                    }
+                }
+            }
+        }
+        List<Scored> sorted = new ArrayList<>(results);
+        sorted.sort(BEST_FIRST);
+        return sorted;
+    }
+
+    private boolean accepts(int position, Predicate<String> accept) {
+        if (accept == null) return true;
+        Node node = nodes.get(position);
+        return !node.deleted && accept.test(node.id);
+    }
+
+    private void connect(int from, int to, int layer, int maxLinks) {
+        Node node = nodes.get(from);
+        int[] links = node.links[layer];
+        if (links.length < maxLinks) {
+            int[] grown = Arrays.copyOf(links, links.length + 1);
+            grown[links.length] = to;
+            node.links[layer] = grown;
+            return;
+        }
+        int worst = -1;
+        double worstScore = similarity(node.vector, to);
+        for (int i = 0; i < links.length; i++) {
+            double score = similarity(node.vector, links[i]);
+            if (score < worstScore) {
+                worstScore = score;
+                worst = i;
+            }
+        }
+        if (worst >= 0) links[worst] = to;
+    }
+
+    private double similarity(float[] query, int position) {
+        float[] vector = nodes.get(position).vector;
+        double dot = 0;
+        for (int i = 0; i < vector.length; i++) dot += query[i] * vector[i];
+        return dot;
+    }
+
+    record Match(String id, double score) {}
+
+    private record Scored(int node, double score) {}
+
+    private static final class Node {
+        private final String id;
+        private final float[] vector;
+        private final int[][] links;
+        private boolean deleted;
+
+        private Node(String id, float[] vector, int level) {
+            this.id = id;
+            this.vector = vector;
+            this.links = new int[level + 1][];
+            Arrays.fill(links, new int[0]);
+        }
+    }
+}
@@ -0,0 +1,332 @@
+package org.example.vibemate.vectorstore;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.example.vibemate.config.HnswConfig;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.embedding.EmbeddingModel;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.ai.vectorstore.filter.Filter;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * In-process vector store: one HNSW graph per value of the partition metadata key (the user ID), so a
+ * per-user retrieval filter searches only that user's vectors. Vectors are normalised on insert and
+ * scored by cosine similarity. Every write is appended to a log; the log is folded into a snapshot of
+ * the graphs once it grows past a threshold and on shutdown, rebuilding any graph whose tombstones have
+ * piled up first. Startup maps the snapshot and replays the log, so restarts do not rebuild graphs or
+ * re-embed.
+ */
+@Slf4j
+public class HnswVectorStore implements VectorStore, DisposableBean {
+
+    private static final int MAGIC = 0x484E5357;
+    private static final int VERSION = 1;
+    private static final byte ADD = 1;
+    private static final byte DELETE = 2;
+    private static final String NO_PARTITION = "";
+    private static final TypeReference<Map<String, Object>> METADATA = new TypeReference<>() {};
+
+    private final EmbeddingModel embeddingModel;
+    private final ObjectMapper objectMapper;
+    private final String partitionKey;
+    private final int m;
+    private final int efConstruction;
+    private final int efSearch;
+    private final int snapshotEvery;
+    private final double maxTombstoneRatio;
+    private final Path snapshotPath;
+    private final Path logPath;
+    private final Timer searchTimer;
+    private final Map<String, HnswIndex> partitions = new ConcurrentHashMap<>();
+    private final Map<String, StoredDocument> documents = new ConcurrentHashMap<>();
+    private DataOutputStream appendLog;
+    private int logRecords;
+
+    public HnswVectorStore(EmbeddingModel embeddingModel, ObjectMapper objectMapper, String partitionKey,
+                           HnswConfig config, MeterRegistry meterRegistry) {
+        this.embeddingModel = embeddingModel;
+        this.objectMapper = objectMapper;
+        this.partitionKey = partitionKey;
+        this.m = config.getM();
+        this.efConstruction = config.getEfConstruction();
+        this.efSearch = config.getEfSearch();
+        this.snapshotEvery = config.getSnapshotEvery();
+        this.maxTombstoneRatio = config.getMaxTombstoneRatio();
+        this.snapshotPath = Path.of(config.getDataDir(), "hnsw.snapshot");
+        this.logPath = Path.of(config.getDataDir(), "hnsw.log");
+        this.searchTimer = Timer.builder("vector.store.search")
+                .description("In-process HNSW search time, excluding query embedding")
+                .tag("store", "hnsw")
+                .register(meterRegistry);
+        Gauge.builder("vector.store.documents", documents, Map::size)
+                .description("Documents held by the in-process vector store")
+                .tag("store", "hnsw")
+                .register(meterRegistry);
+        Gauge.builder("vector.store.partitions", partitions, Map::size)
+                .description("Per-user HNSW graphs held by the in-process vector store")
+                .tag("store", "hnsw")
+                .register(meterRegistry);
+        try {
+            Files.createDirectories(snapshotPath.toAbsolutePath().getParent());
+            load();
+            if (appendLog == null) appendLog = openLog(true);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to open vector store in " + config.getDataDir(), ex);
+        }
+    }
+
+    @Override
+    public void add(List<Document> toAdd) {
+        if (toAdd.isEmpty()) return;
+        List<float[]> vectors = embeddingModel.embed(toAdd.stream().map(Document::getText).toList());
+        synchronized (this) {
+            try {
+                for (int i = 0; i < toAdd.size(); i++) {
+                    Document document = toAdd.get(i);
+                    StoredDocument stored = new StoredDocument(document.getId(), partitionOf(document.getMetadata()),
+                            document.getText(), new HashMap<>(document.getMetadata()));
+                    float[] vector = normalize(vectors.get(i));
+                    apply(stored, vector);
+                    appendLog.writeByte(ADD);
+                    Snapshots.writeString(appendLog, stored.id());
+                    Snapshots.writeString(appendLog, stored.partition());
+                    Snapshots.writeString(appendLog, stored.text());
+                    Snapshots.writeString(appendLog, objectMapper.writeValueAsString(stored.metadata()));
+                    Snapshots.writeVector(appendLog, vector);
+                }
+                logged(toAdd.size());
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Failed to append to vector store log", ex);
+            }
+        }
+    }
+
+    @Override
+    public void delete(List<String> idList) {
+        synchronized (this) {
+            try {
+                int removed = 0;
+                for (String id : idList) {
+                    if (!remove(id)) continue;
+                    appendLog.writeByte(DELETE);
+                    Snapshots.writeString(appendLog, id);
+                    removed++;
+                }
+                logged(removed);
+            } catch (IOException ex) {
+                throw new UncheckedIOException("Failed to append to vector store log", ex);
+            }
+        }
+    }
+
+    @Override
+    public void delete(Filter.Expression filterExpression) {
+        delete(documents.values().stream()
+                .filter(document -> MetadataFilter.matches(filterExpression, document.metadata()))
+                .map(StoredDocument::id)
+                .toList());
+    }
+
+    @Override
+    public List<Document> similaritySearch(SearchRequest request) {
+        float[] query = normalize(embeddingModel.embed(request.getQuery()));
+        Filter.Expression filter = request.getFilterExpression();
+        String partition = MetadataFilter.partition(filter, partitionKey);
+        Collection<HnswIndex> targets;
+        if (partition != null) {
+            HnswIndex index = partitions.get(partition);
+            targets = index != null ? List.of(index) : List.of();
+        } else {
+            targets = partitions.values();
+        }
+        Predicate<String> accept = filter == null ? id -> true : id -> {
+            StoredDocument document = documents.get(id);
+            return document != null && MetadataFilter.matches(filter, document.metadata());
+        };
+        int topK = request.getTopK();
+        List<HnswIndex.Match> matches = searchTimer.record(() -> {
+            List<HnswIndex.Match> found = new ArrayList<>();
+            for (HnswIndex index : targets) {
+                found.addAll(index.search(query, topK, efSearch, accept));
+            }
+            found.sort(Comparator.comparingDouble(HnswIndex.Match::score).reversed());
+            return found;
+        });
+        List<Document> results = new ArrayList<>(topK);
+        for (HnswIndex.Match match : matches) {
+            if (results.size() == topK || match.score() < request.getSimilarityThreshold()) break;
+            StoredDocument document = documents.get(match.id());
+            if (document == null) continue;
+            Map<String, Object> metadata = new HashMap<>(document.metadata());
+            metadata.put("distance", 1 - match.score());
+            results.add(Document.builder()
+                    .id(document.id())
+                    .text(document.text())
+                    .metadata(metadata)
+                    .score(match.score())
+                    .build());
+        }
+        return results;
+    }
+
+    @Override
+    public synchronized void destroy() throws IOException {
+        snapshot();
+        appendLog.close();
+    }
+
+    private void apply(StoredDocument document, float[] vector) {
+        StoredDocument previous = documents.put(document.id(), document);
+        if (previous != null && !previous.partition().equals(document.partition())) {
+            HnswIndex index = partitions.get(previous.partition());
+            if (index != null) index.remove(previous.id());
+        }
+        partitions.computeIfAbsent(document.partition(), key -> new HnswIndex(m, efConstruction)).add(document.id(), vector);
+    }
+
+    private boolean remove(String id) {
+        StoredDocument document = documents.remove(id);
+        if (document == null) return false;
+        HnswIndex index = partitions.get(document.partition());
+        if (index != null) index.remove(id);
+        return true;
+    }
+
+    private void logged(int records) throws IOException {
+        appendLog.flush();
+        logRecords += records;
+        if (logRecords >= snapshotEvery) snapshot();
+    }
+
+    private void snapshot() throws IOException {
+        if (logRecords == 0 && Files.exists(snapshotPath)) return;
+        Path directory = snapshotPath.toAbsolutePath().getParent();
+        int compacted = 0;
+        for (HnswIndex index : partitions.values()) {
+            if (index.compact(maxTombstoneRatio)) compacted++;
+        }
+        partitions.values().removeIf(index -> index.size() == 0);
+        Path temp = Files.createTempFile(directory, "hnsw", ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            Map<String, HnswIndex> indexes = Map.copyOf(partitions);
+            out.writeInt(indexes.size());
+            for (Map.Entry<String, HnswIndex> entry : indexes.entrySet()) {
+                Snapshots.writeString(out, entry.getKey());
+                entry.getValue().writeTo(out);
+            }
+            Collection<StoredDocument> stored = List.copyOf(documents.values());
+            out.writeInt(stored.size());
+            for (StoredDocument document : stored) {
+                Snapshots.writeString(out, document.id());
+                Snapshots.writeString(out, document.partition());
+                Snapshots.writeString(out, document.text());
+                Snapshots.writeString(out, objectMapper.writeValueAsString(document.metadata()));
+            }
+        }
+        Files.move(temp, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        if (appendLog != null) appendLog.close();
+        appendLog = openLog(false);
+        log.info("Snapshotted {} vectors in {} partitions after {} logged writes, {} partitions compacted",
+                documents.size(), partitions.size(), logRecords, compacted);
+        logRecords = 0;
+    }
+
+    private void load() throws IOException {
+        if (Files.exists(snapshotPath)) {
+            try (FileChannel channel = FileChannel.open(snapshotPath, StandardOpenOption.READ)) {
+                MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                if (in.getInt() != MAGIC || in.getInt() != VERSION) {
+                    throw new IOException("Unrecognised vector store snapshot " + snapshotPath);
+                }
+                int partitionCount = in.getInt();
+                for (int i = 0; i < partitionCount; i++) {
+                    String partition = Snapshots.readString(in);
+                    partitions.put(partition, HnswIndex.readFrom(in, m, efConstruction));
+                }
+                int documentCount = in.getInt();
+                for (int i = 0; i < documentCount; i++) {
+                    StoredDocument document = new StoredDocument(Snapshots.readString(in), Snapshots.readString(in),
+                            Snapshots.readString(in), objectMapper.readValue(Snapshots.readString(in), METADATA));
+                    documents.put(document.id(), document);
+                }
+            }
+        }
+        if (Files.exists(logPath) && Files.size(logPath) > 0) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(logPath)))) {
+                while (true) {
+                    byte op = in.readByte();
+                    if (op == ADD) {
+                        StoredDocument document = new StoredDocument(Snapshots.readString(in),
+                                Snapshots.readString(in), Snapshots.readString(in),
+                                objectMapper.readValue(Snapshots.readString(in), METADATA));
+                        apply(document, Snapshots.readVector(in));
+                    } else if (op == DELETE) {
+                        remove(Snapshots.readString(in));
+                    } else {
+                        throw new IOException("Corrupt vector store log record " + op);
+                    }
+                    logRecords++;
+                }
+            } catch (EOFException ex) {
+                // end of log, or a record torn by a crash mid-write
+            }
+            // fold the replayed log into a fresh snapshot so new records never follow a torn one
+            snapshot();
+        }
+        log.info("Loaded {} vectors in {} partitions from {}", documents.size(), partitions.size(),
+                snapshotPath.toAbsolutePath().getParent());
+    }
+
+    private DataOutputStream openLog(boolean append) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(logPath,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                append ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING)));
+    }
+
+    private String partitionOf(Map<String, Object> metadata) {
+        Object value = partitionKey != null ? metadata.get(partitionKey) : null;
+        return value != null ? value.toString() : NO_PARTITION;
+    }
+
+    private static float[] normalize(float[] vector) {
+        double norm = 0;
+        for (float value : vector) norm += value * value;
+        norm = Math.sqrt(norm);
+        float[] normalized = new float[vector.length];
+        if (norm == 0) return normalized;
+        for (int i = 0; i < vector.length; i++) normalized[i] = (float) (vector[i] / norm);
+        return normalized;
+    }
+
+    private record StoredDocument(String id, String partition, String text, Map<String, Object> metadata) {}
+}
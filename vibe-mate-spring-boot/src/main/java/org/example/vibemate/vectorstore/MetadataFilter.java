@@ -0,0 +1,96 @@
+package org.example.vibemate.vectorstore;
+
+import org.springframework.ai.vectorstore.filter.Filter;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.IntPredicate;
+
+/**
+ * Evaluates a portable filter expression against a document's metadata, and recognises the
+ * {@code key == 'value'} term the store partitions on so searches can skip other partitions.
+ */
+final class MetadataFilter {
+
+    private MetadataFilter() {
+    }
+
+    static boolean matches(Filter.Expression expression, Map<String, Object> metadata) {
+        if (expression == null) return true;
+        return switch (expression.type()) {
+            case AND -> matches(operand(expression.left()), metadata) && matches(operand(expression.right()), metadata);
+            case OR -> matches(operand(expression.left()), metadata) || matches(operand(expression.right()), metadata);
+            case NOT -> !matches(operand(expression.left()), metadata);
+            case EQ -> equal(value(expression.left(), metadata), literal(expression.right()));
+            case NE -> !equal(value(expression.left(), metadata), literal(expression.right()));
+            case GT -> compare(value(expression.left(), metadata), literal(expression.right()), order -> order > 0);
+            case GTE -> compare(value(expression.left(), metadata), literal(expression.right()), order -> order >= 0);
+            case LT -> compare(value(expression.left(), metadata), literal(expression.right()), order -> order < 0);
+            case LTE -> compare(value(expression.left(), metadata), literal(expression.right()), order -> order <= 0);
+            case IN -> contains(literal(expression.right()), value(expression.left(), metadata));
+            case NIN -> !contains(literal(expression.right()), value(expression.left(), metadata));
+            default -> throw new IllegalArgumentException("Unsupported filter expression: " + expression.type());
+        };
+    }
+
+    static String partition(Filter.Expression expression, String partitionKey) {
+        if (expression == null) return null;
+        if (expression.type() == Filter.ExpressionType.EQ && expression.left() instanceof Filter.Key key
+                && partitionKey.equals(unquote(key.key()))) {
+            Object value = literal(expression.right());
+            return value != null ? value.toString() : null;
+        }
+        if (expression.type() == Filter.ExpressionType.AND) {
+            String left = partition(operand(expression.left()), partitionKey);
+            return left != null ? left : partition(operand(expression.right()), partitionKey);
+        }
+        return null;
+    }
+
+    private static Filter.Expression operand(Filter.Operand operand) {
+        if (operand instanceof Filter.Group group) return group.content();
+        if (operand instanceof Filter.Expression expression) return expression;
+        return null;
+    }
+
+    private static Object value(Filter.Operand operand, Map<String, Object> metadata) {
+        if (!(operand instanceof Filter.Key key)) {
+            throw new IllegalArgumentException("Expected a metadata key but got " + operand);
+        }
+        return metadata.get(unquote(key.key()));
+    }
+
+    private static Object literal(Filter.Operand operand) {
+        return operand instanceof Filter.Value value ? value.value() : null;
+    }
+
+    private static boolean equal(Object actual, Object expected) {
+        if (actual instanceof Number a && expected instanceof Number b) {
+            return Double.compare(a.doubleValue(), b.doubleValue()) == 0;
+        }
+        return actual != null && expected != null && Objects.equals(actual.toString(), expected.toString());
+    }
+
+    private static boolean compare(Object actual, Object expected, IntPredicate order) {
+        if (actual == null || expected == null) return false;
+        if (actual instanceof Number a && expected instanceof Number b) {
+            return order.test(Double.compare(a.doubleValue(), b.doubleValue()));
+        }
+        return order.test(actual.toString().compareTo(expected.toString()));
+    }
+
+    private static boolean contains(Object values, Object actual) {
+        if (values instanceof Collection<?> collection) {
+            return collection.stream().anyMatch(value -> equal(actual, value));
+        }
+        return equal(actual, values);
+    }
+
+    private static String unquote(String key) {
+        if (key.length() > 1 && (key.startsWith("'") && key.endsWith("'") || key.startsWith("\"") && key.endsWith("\""))) {
+            return key.substring(1, key.length() - 1);
+        }
+        return key;
+    }
+}
@@ -0,0 +1,42 @@
+package org.example.vibemate.vectorstore;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+final class Snapshots {
+
+    private Snapshots() {
+    }
+
+    static void writeString(DataOutput out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static String readString(DataInput in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static void writeVector(DataOutput out, float[] vector) throws IOException {
+        out.writeInt(vector.length);
+        for (float value : vector) out.writeFloat(value);
+    }
+
+    static float[] readVector(DataInput in) throws IOException {
+        float[] vector = new float[in.readInt()];
+        for (int i = 0; i < vector.length; i++) vector[i] = in.readFloat();
+        return vector;
+    }
+}
@@ -0,0 +1,47 @@
+package org.example.vibemate.warmup;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.web.reactive.HandlerMapping;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import org.springframework.web.util.pattern.PathPattern;
+import reactor.core.publisher.Mono;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records how long the first request to each endpoint took, tagged with whether warm-up had finished
+ * when it arrived, so cold-start cost stays visible after every deploy.
+ */
+public class FirstRequestFilter implements WebFilter {
+
+    private final StartupWarmup warmup;
+    private final MeterRegistry meterRegistry;
+    private final Set<String> seen = ConcurrentHashMap.newKeySet();
+
+    public FirstRequestFilter(StartupWarmup warmup, MeterRegistry meterRegistry) {
+        this.warmup = warmup;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        long start = System.nanoTime();
+        boolean warm = warmup.isComplete();
+        return chain.filter(exchange).doFinally(signal -> {
+            PathPattern pattern = exchange.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            if (pattern == null || pattern.getPatternString().startsWith("/actuator")) return;
+            String uri = exchange.getRequest().getMethod().name() + " " + pattern.getPatternString();
+            if (!seen.add(uri)) return;
+            Timer.builder("startup.first.request")
+                    .description("Latency of the first request to each endpoint after startup")
+                    .tags("uri", uri, "warm", Boolean.toString(warm))
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        });
+    }
+}
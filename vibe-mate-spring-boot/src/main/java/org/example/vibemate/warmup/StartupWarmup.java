@@ -0,0 +1,289 @@
+package org.example.vibemate.warmup;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.ConnectionFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.tika.metadata.Metadata;
+import org.apache.tika.parser.ParseContext;
+import org.apache.tika.parser.Parser;
+import org.apache.tika.sax.BodyContentHandler;
+import org.example.vibemate.config.WarmupConfig;
+import org.example.vibemate.repository.R2dbcChatMemoryRepository;
+import org.example.vibemate.routing.OllamaBackend;
+import org.example.vibemate.routing.OllamaRouter;
+import org.example.vibemate.service.UserService;
+import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.ai.vectorstore.filter.FilterExpressionBuilder;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.Disposable;
+import reactor.core.Disposables;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs the cold paths once at boot, all in parallel, so the first users don't pay for them: loads the
+ * chat, vision and embedding models on every Ollama node with a keep-alive, runs Tika over small text,
+ * HTML and PDF samples, fills the R2DBC pool, queries the vector store, and loads the profiles and
+ * memory windows of the most recently active conversations. Each task is best effort and bounded by
+ * the timeout; the app reports ready through {@link WarmupHealthIndicator} once all have finished.
+ */
+@Slf4j
+public class StartupWarmup implements ApplicationListener<ApplicationStartedEvent>, DisposableBean {
+
+    private static final String NIL_USER = new UUID(0, 0).toString();
+
+    private final WarmupConfig config;
+    private final List<String> chatModels;
+    private final OllamaRouter ollamaRouter;
+    private final WebClient webClient;
+    private final Parser documentParser;
+    private final Scheduler documentScheduler;
+    private final Scheduler ioScheduler;
+    private final Scheduler chatMemoryScheduler;
+    private final ConnectionFactory connectionFactory;
+    private final DatabaseClient databaseClient;
+    private final VectorStore vectorStore;
+    private final String userMetadataKey;
+    private final R2dbcChatMemoryRepository chatMemoryRepository;
+    private final ChatMemory chatMemory;
+    private final UserService userService;
+    private final MeterRegistry meterRegistry;
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private final Set<String> failed = ConcurrentHashMap.newKeySet();
+    private final AtomicLong timeToReady = new AtomicLong();
+    private volatile boolean complete;
+    private volatile Disposable run = Disposables.disposed();
+
+    public StartupWarmup(WarmupConfig config, List<String> chatModels, OllamaRouter ollamaRouter,
+                         WebClient.Builder webClientBuilder, Parser documentParser, Scheduler documentScheduler,
+                         Scheduler ioScheduler, Scheduler chatMemoryScheduler, ConnectionFactory connectionFactory,
+                         DatabaseClient databaseClient, VectorStore vectorStore, String userMetadataKey,
+                         R2dbcChatMemoryRepository chatMemoryRepository, ChatMemory chatMemory,
+                         UserService userService, MeterRegistry meterRegistry) {
+        this.config = config;
+        this.chatModels = chatModels;
+        this.ollamaRouter = ollamaRouter;
+        this.webClient = webClientBuilder.build();
+        this.documentParser = documentParser;
+        this.documentScheduler = documentScheduler;
+        this.ioScheduler = ioScheduler;
+        this.chatMemoryScheduler = chatMemoryScheduler;
+        this.connectionFactory = connectionFactory;
+        this.databaseClient = databaseClient;
+        this.vectorStore = vectorStore;
+        this.userMetadataKey = userMetadataKey;
+        this.chatMemoryRepository = chatMemoryRepository;
+        this.chatMemory = chatMemory;
+        this.userService = userService;
+        this.meterRegistry = meterRegistry;
+        TimeGauge.builder("startup.time.to.ready", timeToReady, TimeUnit.MILLISECONDS, AtomicLong::get)
+                .description("Time from JVM start until warm-up finished and the app reported ready")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationStartedEvent event) {
+        if (!config.isEnabled()) {
+            ready();
+            return;
+        }
+        Map<String, Mono<Void>> tasks = tasks();
+        pending.addAll(tasks.keySet());
+        log.info("Warming up {} paths before reporting ready", tasks.size());
+        run = Flux.fromIterable(tasks.entrySet())
+                .flatMap(task -> timed(task.getKey(), task.getValue()))
+                .then()
+                .subscribe(null, ex -> ready(), this::ready);
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public Set<String> pending() {
+        return Set.copyOf(pending);
+    }
+
+    public Set<String> failed() {
+        return Set.copyOf(failed);
+    }
+
+    public long timeToReadyMillis() {
+        return timeToReady.get();
+    }
+
+    @Override
+    public void destroy() {
+        run.dispose();
+    }
+
+    private Map<String, Mono<Void>> tasks() {
+        Map<String, Mono<Void>> tasks = new LinkedHashMap<>();
+        for (String model : chatModels) {
+            for (String baseUrl : baseUrls(model)) {
+                tasks.put("model/" + model + "@" + baseUrl, loadModel(baseUrl, "/api/generate",
+                        Map.of("model", model, "keep_alive", keepAlive())));
+            }
+        }
+        for (String baseUrl : baseUrls(config.getEmbeddingModel())) {
+            tasks.put("model/" + config.getEmbeddingModel() + "@" + baseUrl, loadModel(baseUrl, "/api/embed",
+                    Map.of("model", config.getEmbeddingModel(), "input", "warm-up", "keep_alive", keepAlive())));
+        }
+        tasks.put("tika", primeTika());
+        tasks.put("database", primeDatabase());
+        tasks.put("vector-store", primeVectorStore());
+        tasks.put("conversations", preloadConversations());
+        return tasks;
+    }
+
+    private Mono<Void> timed(String task, Mono<Void> work) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return work
+                    .timeout(config.getTimeout())
+                    .then(Mono.fromRunnable(() -> record(task, "success", start)))
+                    .onErrorResume(ex -> {
+                        log.warn("Warm-up of {} failed: {}", task, ex.toString());
+                        failed.add(task);
+                        record(task, "failure", start);
+                        return Mono.empty();
+                    })
+                    .doFinally(signal -> pending.remove(task))
+                    .then();
+        });
+    }
+
+    private void record(String task, String outcome, long start) {
+        Timer.builder("startup.warmup")
+                .description("Time taken by each startup warm-up task")
+                .tags("task", task.contains("@") ? task.substring(0, task.indexOf('@')) : task, "outcome", outcome)
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private void ready() {
+        timeToReady.set(System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime());
+        complete = true;
+        log.info("Warm-up finished {} ms after JVM start{}", timeToReady.get(),
+                failed.isEmpty() ? "" : ", failed: " + failed);
+    }
+
+    private List<String> baseUrls(String model) {
+        if (ollamaRouter == null) return List.of(config.getBaseUrl());
+        return ollamaRouter.backends(model).stream().map(OllamaBackend::getBaseUrl).toList();
+    }
+
+    private String keepAlive() {
+        return config.getKeepAlive().toSeconds() + "s";
+    }
+
+    private Mono<Void> loadModel(String baseUrl, String path, Map<String, Object> body) {
+        return webClient.post()
+                .uri(baseUrl + path)
+                .bodyValue(body)
+                .retrieve()
+                .toBodilessEntity()
+                .then();
+    }
+
+    private Mono<Void> primeTika() {
+        return Mono.<Void>fromRunnable(() -> {
+                    List<byte[]> samples = List.of(
+                            "Warm-up sample.".getBytes(StandardCharsets.UTF_8),
+                            "<html><body><p>Warm-up sample.</p></body></html>".getBytes(StandardCharsets.UTF_8),
+                            samplePdf());
+                    for (byte[] sample : samples) {
+                        try {
+                            documentParser.parse(new ByteArrayInputStream(sample), new BodyContentHandler(-1),
+                                    new Metadata(), new ParseContext());
+                        } catch (Exception ex) {
+                            throw new IllegalStateException("Tika could not parse a warm-up sample", ex);
+                        }
+                    }
+                })
+                .subscribeOn(documentScheduler);
+    }
+
+    private Mono<Void> primeDatabase() {
+        Mono<Integer> pool = connectionFactory instanceof ConnectionPool connectionPool
+                ? connectionPool.warmup()
+                : Mono.empty();
+        return pool.then(databaseClient.sql("SELECT 1").then());
+    }
+
+    private Mono<Void> primeVectorStore() {
+        return Mono.<Void>fromRunnable(() -> vectorStore.similaritySearch(SearchRequest.builder()
+                        .query("warm-up")
+                        .topK(1)
+                        .filterExpression(new FilterExpressionBuilder().eq(userMetadataKey, NIL_USER).build())
+                        .build()))
+                .subscribeOn(ioScheduler);
+    }
+
+    private Mono<Void> preloadConversations() {
+        if (config.getHotConversations() <= 0) return Mono.empty();
+        return chatMemoryRepository
+                .recentConversationIds(Instant.now().minus(config.getHotWindow()), config.getHotConversations())
+                .flatMap(conversationId -> userService.getProfile(UUID.fromString(conversationId))
+                                .then(Mono.fromRunnable(() -> chatMemory.get(conversationId))
+                                        .subscribeOn(chatMemoryScheduler))
+                                .onErrorResume(ex -> {
+                                    log.debug("Could not preload conversation {}", conversationId, ex);
+                                    return Mono.empty();
+                                }),
+                        config.getConcurrency())
+                .then();
+    }
+
+    /**
+     * A one-page PDF with a line of Helvetica text, enough to load PDFBox and its font mapping.
+     */
+    private static byte[] samplePdf() {
+        String content = "BT /F1 12 Tf 10 20 Td (Warm-up sample.) Tj ET";
+        List<String> objects = List.of(
+                "<< /Type /Catalog /Pages 2 0 R >>",
+                "<< /Type /Pages /Kids [3 0 R] /Count 1 >>",
+                "<< /Type /Page /Parent 2 0 R /MediaBox [0 0 200 50] /Contents 4 0 R"
+                        + " /Resources << /Font << /F1 5 0 R >> >> >>",
+                "<< /Length " + content.length() + " >>\nstream\n" + content + "\nendstream",
+                "<< /Type /Font /Subtype /Type1 /BaseFont /Helvetica >>");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        List<Integer> offsets = new ArrayList<>();
+        out.writeBytes("%PDF-1.4\n".getBytes(StandardCharsets.US_ASCII));
+        for (int i = 0; i < objects.size(); i++) {
+            offsets.add(out.size());
+            out.writeBytes("%d 0 obj\n%s\nendobj\n".formatted(i + 1, objects.get(i)).getBytes(StandardCharsets.US_ASCII));
+        }
+        int xref = out.size();
+        StringBuilder trailer = new StringBuilder("xref\n0 %d\n0000000000 65535 f \n".formatted(objects.size() + 1));
+        offsets.forEach(offset -> trailer.append("%010d 00000 n \n".formatted(offset)));
+        trailer.append("trailer\n<< /Size %d /Root 1 0 R >>\nstartxref\n%d\n%%%%EOF\n".formatted(objects.size() + 1, xref));
+        out.writeBytes(trailer.toString().getBytes(StandardCharsets.US_ASCII));
+        return out.toByteArray();
+    }
+}
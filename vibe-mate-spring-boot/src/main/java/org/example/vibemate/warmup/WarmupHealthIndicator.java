@@ -0,0 +1,28 @@
+package org.example.vibemate.warmup;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+
+/**
+ * Out of service until startup warm-up has finished. Part of the readiness group, so a new instance
+ * only gets traffic once its models, pools and caches are warm.
+ */
+public class WarmupHealthIndicator implements HealthIndicator {
+
+    private final StartupWarmup warmup;
+
+    public WarmupHealthIndicator(StartupWarmup warmup) {
+        this.warmup = warmup;
+    }
+
+    @Override
+    public Health health() {
+        if (!warmup.isComplete()) {
+            return Health.outOfService().withDetail("pending", warmup.pending()).build();
+        }
+        return Health.up()
+                .withDetail("timeToReadyMs", warmup.timeToReadyMillis())
+                .withDetail("failed", warmup.failed())
+                .build();
+    }
+}
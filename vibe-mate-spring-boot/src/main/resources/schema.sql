@@ -14,6 +14,8 @@ CREATE TABLE IF NOT EXISTS bot (
     CONSTRAINT fk_bot_user FOREIGN KEY (user_id) REFERENCES users(user_id)
 );
 
+ALTER TABLE bot ADD COLUMN IF NOT EXISTS response_cache BOOLEAN DEFAULT TRUE;
+
 CREATE TABLE IF NOT EXISTS SPRING_AI_CHAT_MEMORY (
     chat_id SERIAL PRIMARY KEY,
     conversation_id VARCHAR(36) NOT NULL,
@@ -24,3 +26,39 @@ CREATE TABLE IF NOT EXISTS SPRING_AI_CHAT_MEMORY (
 
 CREATE INDEX IF NOT EXISTS SPRING_AI_CHAT_MEMORY_CONVERSATION_ID_TIMESTAMP_IDX
     ON SPRING_AI_CHAT_MEMORY (conversation_id, timestamp);
+
+CREATE TABLE IF NOT EXISTS SPRING_AI_CHAT_MEMORY_SUMMARY (
+    conversation_id VARCHAR(36) PRIMARY KEY,
+    content TEXT NOT NULL,
+    covered_until TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS SPRING_AI_CHAT_MEMORY_PARTITIONED (
+    message_id UUID NOT NULL DEFAULT gen_random_uuid(),
+    conversation_id UUID NOT NULL,
+    content TEXT NOT NULL,
+    type VARCHAR(16) NOT NULL,
+    timestamp TIMESTAMP NOT NULL,
+    PRIMARY KEY (message_id, timestamp)
+) PARTITION BY RANGE (timestamp);
+
+CREATE TABLE IF NOT EXISTS SPRING_AI_CHAT_MEMORY_DEFAULT
+    PARTITION OF SPRING_AI_CHAT_MEMORY_PARTITIONED DEFAULT;
+
+CREATE INDEX IF NOT EXISTS SPRING_AI_CHAT_MEMORY_PARTITIONED_CONVERSATION_ID_TIMESTAMP_IDX
+    ON SPRING_AI_CHAT_MEMORY_PARTITIONED (conversation_id, timestamp);
+
+CREATE TABLE IF NOT EXISTS SPRING_AI_CHAT_MEMORY_TOMBSTONE (
+    conversation_id UUID PRIMARY KEY,
+    cleared_at TIMESTAMP NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS SPRING_AI_CHAT_MEMORY_ARCHIVE (
+    conversation_id UUID NOT NULL,
+    partition_day DATE NOT NULL,
+    messages INT NOT NULL,
+    payload BYTEA NOT NULL,
+    archived_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (conversation_id, partition_day)
+);
@@ -0,0 +1,82 @@
+package org.example.vibemate.advisor;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.vibemate.config.PromptConfig;
+import org.example.vibemate.memory.WriteBehindChatMemory;
+import org.example.vibemate.prompt.PersonaTemplate;
+import org.example.vibemate.service.PromptService;
+import org.example.vibemate.service.impl.PromptServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.client.ChatClientRequest;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.prompt.Prompt;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PersonaFirstAdvisorTests {
+
+    private static final SystemMessage PERSONA = new SystemMessage("You are Sam, a hiking friend.");
+
+    private final PromptService promptService =
+            new PromptServiceImpl(PersonaTemplate.parse("{botName}"), new PromptConfig(), new SimpleMeterRegistry());
+    private final UUID conversationId = UUID.randomUUID();
+
+    @Test
+    void personaLeadsAndSummaryFollowsIt() {
+        SystemMessage summary = SystemMessage.builder()
+                .text("Summary: planning a hike")
+                .metadata(Map.of(WriteBehindChatMemory.SUMMARY_METADATA, true))
+                .build();
+
+        List<Message> sent = turn(List.of(summary, new UserMessage("hi"), new AssistantMessage("hello")), "ok");
+
+        assertThat(sent).extracting(Message::getText)
+                .containsExactly(PERSONA.getText(), summary.getText(), "hi", "hello", "ok");
+    }
+
+    @Test
+    void promptThatExtendsThePreviousOneIsWarm() {
+        PersonaFirstAdvisor first = new PersonaFirstAdvisor(promptService, conversationId);
+        send(first, List.of(), "hi");
+        PersonaFirstAdvisor second = new PersonaFirstAdvisor(promptService, conversationId);
+        send(second, List.of(new UserMessage("hi"), new AssistantMessage("hello")), "what should I pack?");
+
+        assertThat(first.prefix()).isEqualTo("cold");
+        assertThat(second.prefix()).isEqualTo("warm");
+    }
+
+    @Test
+    void promptWhoseHistoryShiftedIsCold() {
+        send(new PersonaFirstAdvisor(promptService, conversationId),
+                List.of(new UserMessage("hi"), new AssistantMessage("hello")), "what should I pack?");
+        PersonaFirstAdvisor shifted = new PersonaFirstAdvisor(promptService, conversationId);
+        send(shifted, List.of(new AssistantMessage("hello"), new UserMessage("what should I pack?"),
+                new AssistantMessage("water")), "and food?");
+
+        assertThat(shifted.prefix()).isEqualTo("cold");
+    }
+
+    private List<Message> turn(List<Message> memory, String userText) {
+        return send(new PersonaFirstAdvisor(promptService, conversationId), memory, userText);
+    }
+
+    /**
+     * Lays the prompt out the way MessageChatMemoryAdvisor leaves it: memory, then the persona and the
+     * user message of the request.
+     */
+    private static List<Message> send(PersonaFirstAdvisor advisor, List<Message> memory, String userText) {
+        List<Message> messages = new ArrayList<>(memory);
+        messages.add(PERSONA);
+        messages.add(new UserMessage(userText));
+        ChatClientRequest request = ChatClientRequest.builder().prompt(new Prompt(messages)).build();
+        return advisor.before(request, null).prompt().getInstructions();
+    }
+}
@@ -0,0 +1,282 @@
+package org.example.vibemate.execution;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.tika.parser.AutoDetectParser;
+import org.example.vibemate.advisor.RetrievalAdvisor;
+import org.example.vibemate.config.ChatMemoryConfig;
+import org.example.vibemate.config.DocumentConfig;
+import org.example.vibemate.config.ExecutionConfig;
+import org.example.vibemate.config.GenerationConfig;
+import org.example.vibemate.config.ImageConfig;
+import org.example.vibemate.document.ExtractedTextCache;
+import org.example.vibemate.dto.ChatProfile;
+import org.example.vibemate.dto.ChatRequest;
+import org.example.vibemate.generation.GenerationScheduler;
+import org.example.vibemate.generation.PartialAnswerRecorder;
+import org.example.vibemate.ingestion.MemoryIngestor;
+import org.example.vibemate.memory.WriteBehindChatMemory;
+import org.example.vibemate.metrics.ChatMetrics;
+import org.example.vibemate.model.ChatMemoryEntry;
+import org.example.vibemate.model.ConversationSummary;
+import org.example.vibemate.repository.R2dbcChatMemoryRepository;
+import org.example.vibemate.response.SemanticResponseCache;
+import org.example.vibemate.service.ImageService;
+import org.example.vibemate.service.PromptService;
+import org.example.vibemate.service.impl.ChatServiceImpl;
+import org.example.vibemate.service.impl.DocumentServiceImpl;
+import org.example.vibemate.service.impl.ImageServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.client.advisor.vectorstore.QuestionAnswerAdvisor;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.ai.vectorstore.filter.Filter;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.util.unit.DataSize;
+import reactor.blockhound.BlockingOperationError;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Drives each blocking stage from a non-blocking thread, as a request on the Netty event loop would,
+ * with BlockHound installed (blockhound-junit-platform). Any blocking call that is not moved onto the
+ * stage's scheduler fails the test with a BlockingOperationError.
+ */
+class BlockingStagesTests {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    private final List<Scheduler> schedulers = new ArrayList<>();
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    void disposeSchedulers() {
+        schedulers.forEach(Scheduler::dispose);
+    }
+
+    @Test
+    void blockHoundRejectsBlockingOnNonBlockingThreads() {
+        StepVerifier.create(Mono.fromCallable(() -> {
+                            Thread.sleep(10);
+                            return "slept";
+                        })
+                        .subscribeOn(Schedulers.parallel()))
+                .expectError(BlockingOperationError.class)
+                .verify(TIMEOUT);
+    }
+
+    @ParameterizedTest
+    @EnumSource(ExecutionConfig.Mode.class)
+    void uploadParsingStaysOffTheEventLoop(ExecutionConfig.Mode mode) {
+        ExecutionConfig execution = execution(mode);
+        DocumentConfig config = new DocumentConfig();
+        config.setTempDir(tempDir.toString());
+        Scheduler io = track(execution.scheduler("blocking-io", 4, 100));
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ExtractedTextCache cache = new ExtractedTextCache(config.getCacheMemoryChars(), tempDir.resolve("cache"),
+                1024 * 1024, io, meterRegistry);
+        DocumentServiceImpl documentService = new DocumentServiceImpl(new AutoDetectParser(), config, cache,
+                track(execution.scheduler("tika", 2, 100)), io, meterRegistry);
+        byte[] upload = "Notes from the hiking trip: bring water, start early.".getBytes(StandardCharsets.UTF_8);
+
+        StepVerifier.create(Flux.defer(() -> documentService.extractText(
+                                Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(upload))))
+                        .subscribeOn(Schedulers.parallel())
+                        .collectList())
+                .assertNext(text -> assertThat(String.join("", text)).contains("bring water"))
+                .expectComplete()
+                .verify(TIMEOUT);
+    }
+
+    @ParameterizedTest
+    @EnumSource(ExecutionConfig.Mode.class)
+    void imageDecodingStaysOffTheEventLoop(ExecutionConfig.Mode mode) throws IOException {
+        ImageConfig config = new ImageConfig();
+        config.setPassThroughSize(DataSize.ofBytes(0));
+        ImageServiceImpl imageService = new ImageServiceImpl(config,
+                track(execution(mode).scheduler("image", 2, 100)), new SimpleMeterRegistry());
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(2048, 1536, BufferedImage.TYPE_INT_RGB), "png", png);
+
+        StepVerifier.create(Mono.defer(() -> imageService.prepare(
+                                Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(png.toByteArray()))))
+                        .subscribeOn(Schedulers.parallel()))
+                .assertNext(image -> assertThat(image.bytes()).isNotEmpty())
+                .expectComplete()
+                .verify(TIMEOUT);
+    }
+
+    @ParameterizedTest
+    @EnumSource(ExecutionConfig.Mode.class)
+    void chatMemoryLoadAndRetrievalStayOffTheEventLoop(ExecutionConfig.Mode mode) {
+        ExecutionConfig execution = execution(mode);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        SlowRepository repository = new SlowRepository();
+        Scheduler chatMemoryScheduler = track(execution.scheduler("chat-memory", 4, 100));
+        WriteBehindChatMemory chatMemory = new WriteBehindChatMemory(repository, chatMemoryScheduler, meterRegistry,
+                new ChatMemoryConfig(), null);
+        SlowVectorStore vectorStore = new SlowVectorStore();
+        ChatServiceImpl chatService = chatService(chatMemory, chatMemoryScheduler,
+                track(execution.scheduler("retrieval", 4, 100)), vectorStore, meterRegistry);
+        try {
+            StepVerifier.create(Flux.defer(() -> chatService.getChatResponse(
+                                    new ChatProfile(null, null, "You are a friend."),
+                                    new ChatRequest(UUID.randomUUID(), "What should I pack for the hike?")))
+                            .subscribeOn(Schedulers.parallel())
+                            .collectList())
+                    .assertNext(tokens -> assertThat(String.join("", tokens)).isEqualTo("Bring water."))
+                    .expectComplete()
+                    .verify(TIMEOUT);
+        } finally {
+            chatMemory.destroy();
+        }
+        assertThat(repository.threads).isNotEmpty().allMatch(thread -> thread.startsWith("chat-memory-"));
+        assertThat(vectorStore.threads).isNotEmpty().allMatch(thread -> thread.startsWith("retrieval-"));
+    }
+
+    private static ExecutionConfig execution(ExecutionConfig.Mode mode) {
+        ExecutionConfig execution = new ExecutionConfig();
+        execution.setMode(mode);
+        return execution;
+    }
+
+    private Scheduler track(Scheduler scheduler) {
+        schedulers.add(scheduler);
+        return scheduler;
+    }
+
+    /**
+     * The chat service as the application wires it, with memory and retrieval advisors running on their
+     * configured schedulers and a model that answers at once.
+     */
+    private static ChatServiceImpl chatService(WriteBehindChatMemory chatMemory, Scheduler chatMemoryScheduler,
+                                               Scheduler retrievalScheduler, VectorStore vectorStore,
+                                               SimpleMeterRegistry meterRegistry) {
+        RetrievalAdvisor retrievalAdvisor = new RetrievalAdvisor(QuestionAnswerAdvisor.builder(vectorStore).build(),
+                12, "userId", retrievalScheduler, meterRegistry);
+        ChatClient chatClient = ChatClient.builder(new InstantChatModel())
+                .defaultAdvisors(retrievalAdvisor)
+                .build();
+        GenerationConfig generationConfig = new GenerationConfig();
+        generationConfig.setChatModel("gemma3:1b");
+        SemanticResponseCache responseCache = mock(SemanticResponseCache.class);
+        when(responseCache.answer(any(), any(), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<Flux<String>>>getArgument(2).get());
+        return new ChatServiceImpl(chatClient, chatClient, new DocumentConfig(), generationConfig,
+                new GenerationScheduler(generationConfig, meterRegistry),
+                new PartialAnswerRecorder(chatMemory, PartialAnswerRecorder.Mode.TRUNCATE, "", meterRegistry),
+                chatMemory, new ChatMemoryConfig(), mock(R2dbcChatMemoryRepository.class), chatMemoryScheduler,
+                mock(PromptService.class), mock(ImageService.class), responseCache, mock(MemoryIngestor.class),
+                new ChatMetrics(meterRegistry));
+    }
+
+    /**
+     * Answers after a delay, so the blocking reads in WriteBehindChatMemory really wait, as they do on JDBC.
+     * Records the threads that asked.
+     */
+    private static class SlowRepository extends R2dbcChatMemoryRepository {
+
+        private final List<String> threads = new CopyOnWriteArrayList<>();
+
+        SlowRepository() {
+            super(null, null, TIMEOUT);
+        }
+
+        @Override
+        public Flux<ChatMemoryEntry> recentEntries(String conversationId, Instant after, int limit) {
+            threads.add(Thread.currentThread().getName());
+            return Mono.delay(Duration.ofMillis(20))
+                    .thenMany(Flux.just(new ChatMemoryEntry(conversationId, new UserMessage("hi"), Instant.now())));
+        }
+
+        @Override
+        public Mono<ConversationSummary> summary(String conversationId) {
+            return Mono.delay(Duration.ofMillis(20)).then(Mono.empty());
+        }
+
+        @Override
+        public Mono<Void> appendAll(List<ChatMemoryEntry> entries) {
+            return Mono.empty();
+        }
+    }
+
+    /**
+     * Sleeps through every search, as an embedding call and vector store round trip would, and records
+     * the threads that searched.
+     */
+    private static class SlowVectorStore implements VectorStore {
+
+        private final List<String> threads = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void add(List<Document> documents) {
+        }
+
+        @Override
+        public void delete(List<String> idList) {
+        }
+
+        @Override
+        public void delete(Filter.Expression filterExpression) {
+        }
+
+        @Override
+        public List<Document> similaritySearch(SearchRequest request) {
+            threads.add(Thread.currentThread().getName());
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            return List.of(new Document("Bring water on long hikes."));
+        }
+    }
+
+    private static class InstantChatModel implements ChatModel {
+
+        @Override
+        public ChatResponse call(Prompt prompt) {
+            return new ChatResponse(List.of(new Generation(new AssistantMessage("Bring water."))));
+        }
+
+        @Override
+        public Flux<ChatResponse> stream(Prompt prompt) {
+            return Flux.just(call(prompt));
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package org.example.vibemate.execution;
+
+import reactor.blockhound.BlockHound;
+import reactor.blockhound.integration.BlockHoundIntegration;
+
+/**
+ * Calls that block only briefly and only on first use (class loading, entropy for random UUIDs,
+ * synchronous log appends), which would otherwise drown out real findings.
+ */
+public class VibeMateBlockHoundIntegration implements BlockHoundIntegration {
+
+    @Override
+    public void applyTo(BlockHound.Builder builder) {
+        builder.allowBlockingCallsInside("java.util.UUID", "randomUUID")
+                .allowBlockingCallsInside("java.lang.ClassLoader", "loadClass")
+                .allowBlockingCallsInside("ch.qos.logback.core.OutputStreamAppender", "writeBytes");
+    }
+}
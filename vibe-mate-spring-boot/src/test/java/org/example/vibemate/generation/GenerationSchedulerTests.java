@@ -0,0 +1,193 @@
+package org.example.vibemate.generation;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.vibemate.config.GenerationConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.test.scheduler.VirtualTimeScheduler;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Admission accounting on a virtual clock: each generation stays open until the test completes, fails or
+ * cancels it, and the in-flight and queue-depth gauges show what the scheduler thinks is running.
+ */
+class GenerationSchedulerTests {
+
+    private static final String MODEL = "gemma3:1b";
+    private static final String VISION_MODEL = "llava:7b";
+    private static final Duration MAX_WAIT = Duration.ofSeconds(10);
+
+    private final UUID alice = UUID.randomUUID();
+    private final UUID bob = UUID.randomUUID();
+    private final UUID carol = UUID.randomUUID();
+    private final List<String> started = new CopyOnWriteArrayList<>();
+    private final Map<String, Sinks.Empty<Void>> running = new ConcurrentHashMap<>();
+    private final Map<String, Throwable> failures = new ConcurrentHashMap<>();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final GenerationConfig config = new GenerationConfig();
+    private VirtualTimeScheduler clock;
+    private GenerationScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        clock = VirtualTimeScheduler.getOrSet();
+        config.setMaxConcurrency(1);
+        config.setMaxPerUser(2);
+        config.setMaxWait(MAX_WAIT);
+        scheduler = new GenerationScheduler(config, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        VirtualTimeScheduler.reset();
+    }
+
+    @Test
+    void waitingUsersAreServedRoundRobin() {
+        submit("holder", carol);
+        submit("alice-1", alice);
+        submit("alice-2", alice);
+        submit("alice-3", alice);
+        submit("bob-1", bob);
+        submit("carol-1", carol);
+
+        for (String name : List.of("holder", "alice-1", "bob-1", "carol-1", "alice-2", "alice-3")) {
+            assertThat(started).last().isEqualTo(name);
+            complete(name);
+        }
+        assertThat(started).containsExactly("holder", "alice-1", "bob-1", "carol-1", "alice-2", "alice-3");
+        assertIdle();
+    }
+
+    @Test
+    void waiterIsRejectedAfterMaxWaitAndLeavesTheQueue() {
+        submit("holder", alice);
+        submit("waiter", bob);
+        assertThat(queueDepth()).isEqualTo(1);
+
+        clock.advanceTimeBy(MAX_WAIT);
+
+        assertThat(failures.get("waiter")).isInstanceOf(GenerationRejectedException.class);
+        assertThat(queueDepth()).isZero();
+        complete("holder");
+        assertIdle();
+        assertThat(started).doesNotContain("waiter");
+    }
+
+    @Test
+    void grantArrivingWithTheTimeoutDoesNotLeakTheSlot() {
+        submit("holder", alice);
+        submit("waiter", bob);
+        clock.schedule(() -> complete("holder"), MAX_WAIT.toMillis(), TimeUnit.MILLISECONDS);
+
+        clock.advanceTimeBy(MAX_WAIT);
+
+        if (started.contains("waiter")) {
+            assertThat(failures).doesNotContainKey("waiter");
+            complete("waiter");
+        } else {
+            assertThat(failures.get("waiter")).isInstanceOf(GenerationRejectedException.class);
+        }
+        assertIdle();
+    }
+
+    @Test
+    void cancellingAQueuedWaiterFreesItsQueuePosition() {
+        submit("holder", alice);
+        Disposable waiter = submit("waiter", bob);
+
+        waiter.dispose();
+
+        assertThat(queueDepth()).isZero();
+        complete("holder");
+        assertThat(started).containsExactly("holder");
+        assertIdle();
+    }
+
+    @Test
+    void failedAndCancelledGenerationsReleaseGlobalModelAndUserSlots() {
+        config.setMaxConcurrency(2);
+        config.setDefaultModelLimit(2);
+        config.setMaxPerUser(1);
+
+        submit("failing", alice);
+        running.get("failing").tryEmitError(new IllegalStateException("model crashed"));
+        Disposable cancelled = submit("cancelled", alice);
+        assertThat(started).containsExactly("failing", "cancelled");
+        cancelled.dispose();
+
+        submit("first", alice);
+        assertThat(started).last().isEqualTo("first");
+        submit("second", bob);
+        assertThat(started).last().isEqualTo("second");
+        assertThat(inFlight()).isEqualTo(2);
+        complete("first");
+        complete("second");
+        assertIdle();
+    }
+
+    @Test
+    void waiterForAModelAtItsLimitDoesNotHoldUpTheSameUsersOtherModels() {
+        config.setMaxConcurrency(2);
+        config.setModelLimits(Map.of(VISION_MODEL, 1));
+
+        submit("vision-1", alice, VISION_MODEL);
+        submit("vision-2", alice, VISION_MODEL);
+        submit("chat", alice);
+
+        assertThat(started).containsExactly("vision-1", "chat");
+        assertThat(queueDepth()).isEqualTo(1);
+        complete("vision-1");
+        assertThat(started).last().isEqualTo("vision-2");
+        complete("chat");
+        complete("vision-2");
+        assertIdle();
+    }
+
+    private Disposable submit(String name, UUID userId) {
+        return submit(name, userId, MODEL);
+    }
+
+    private Disposable submit(String name, UUID userId, String model) {
+        return scheduler.schedule(model, userId, () -> {
+                    started.add(name);
+                    Sinks.Empty<Void> done = Sinks.empty();
+                    running.put(name, done);
+                    return done.asMono().thenMany(Flux.just(name));
+                })
+                .subscribe(null, ex -> failures.put(name, ex));
+    }
+
+    private void complete(String name) {
+        running.remove(name).tryEmitEmpty();
+    }
+
+    private void assertIdle() {
+        assertThat(inFlight()).isZero();
+        assertThat(queueDepth()).isZero();
+        submit("probe", UUID.randomUUID());
+        assertThat(started).last().isEqualTo("probe");
+        complete("probe");
+    }
+
+    private double inFlight() {
+        return meterRegistry.get("generation.in.flight").gauge().value();
+    }
+
+    private double queueDepth() {
+        return meterRegistry.get("generation.queue.depth").gauge().value();
+    }
+}
@@ -0,0 +1,113 @@
+package org.example.vibemate.ingestion;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.vibemate.config.IngestionConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.document.Document;
+import org.springframework.ai.vectorstore.SearchRequest;
+import org.springframework.ai.vectorstore.VectorStore;
+import org.springframework.ai.vectorstore.filter.Filter;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class MemoryIngestorTests {
+
+    private static final String TEXT = "User: what should I pack for the hike?\nAssistant: Bring water, number %d.";
+
+    private final Scheduler scheduler = Schedulers.newBoundedElastic(2, 100, "test-ingest");
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SlowVectorStore vectorStore = new SlowVectorStore(Duration.ofMillis(200));
+
+    @AfterEach
+    void disposeScheduler() {
+        scheduler.dispose();
+    }
+
+    @Test
+    void batchesKeepFlowingWhileEveryWriteSlotIsBusy() throws InterruptedException {
+        IngestionConfig config = config();
+        MemoryIngestor ingestor = new MemoryIngestor(vectorStore, "userId", scheduler, config, meterRegistry);
+        UUID userId = UUID.randomUUID();
+
+        for (int i = 0; i < 20; i++) {
+            ingestor.submit(userId, "chat", TEXT.formatted(i));
+            Thread.sleep(30);
+        }
+
+        await().atMost(Duration.ofSeconds(10)).until(() -> vectorStore.stored.size() == 20);
+        assertThat(meterRegistry.get("memory.ingest.dropped").counter().count()).isZero();
+        assertThat(meterRegistry.get("memory.ingest.failed").counter().count()).isZero();
+        ingestor.destroy();
+    }
+
+    @Test
+    void pipelineResubscribesAfterAnError() throws InterruptedException {
+        MemoryIngestor ingestor = new MemoryIngestor(vectorStore, "userId", scheduler, config(), meterRegistry);
+        UUID userId = UUID.randomUUID();
+
+        // a null source cannot go into document metadata and fails the pipeline
+        ingestor.submit(userId, null, TEXT.formatted(0));
+        Thread.sleep(100);
+        ingestor.submit(userId, "chat", TEXT.formatted(1));
+
+        await().atMost(Duration.ofSeconds(10)).until(() -> vectorStore.stored.size() == 1);
+        assertThat(vectorStore.stored).allMatch(text -> text.endsWith("number 1."));
+        ingestor.destroy();
+    }
+
+    private static IngestionConfig config() {
+        IngestionConfig config = new IngestionConfig();
+        config.setBatchSize(2);
+        config.setBatchWindow(Duration.ofMillis(20));
+        config.setConcurrency(2);
+        config.setMaxRetries(0);
+        config.setMinChars(10);
+        return config;
+    }
+
+    /**
+     * Takes a while over every write, as an embedding model and remote store under load would.
+     */
+    private static class SlowVectorStore implements VectorStore {
+
+        private final Duration latency;
+        private final Set<String> stored = ConcurrentHashMap.newKeySet();
+
+        SlowVectorStore(Duration latency) {
+            this.latency = latency;
+        }
+
+        @Override
+        public void add(List<Document> documents) {
+            try {
+                Thread.sleep(latency.toMillis());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            documents.forEach(document -> stored.add(document.getText()));
+        }
+
+        @Override
+        public void delete(List<String> idList) {
+        }
+
+        @Override
+        public void delete(Filter.Expression filterExpression) {
+        }
+
+        @Override
+        public List<Document> similaritySearch(SearchRequest request) {
+            return List.of();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package org.example.vibemate.memory;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class HistoryCursorTests {
+
+    @Test
+    void cursorRoundTripsAMicrosecondTimestamp() {
+        Instant timestamp = Instant.parse("2026-10-18T09:15:30.123456Z");
+
+        assertThat(HistoryCursor.decode(HistoryCursor.encode(timestamp))).isEqualTo(timestamp);
+    }
+
+    @Test
+    void cursorDropsPrecisionTheDatabaseDoesNotKeep() {
+        Instant timestamp = Instant.parse("2026-10-18T09:15:30.123456789Z");
+
+        assertThat(HistoryCursor.decode(HistoryCursor.encode(timestamp)))
+                .isEqualTo(timestamp.truncatedTo(ChronoUnit.MICROS));
+    }
+
+    @Test
+    void malformedCursorIsRejectedAsABadRequest() {
+        assertThatThrownBy(() -> HistoryCursor.decode("not a cursor!"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("not a cursor!");
+    }
+}
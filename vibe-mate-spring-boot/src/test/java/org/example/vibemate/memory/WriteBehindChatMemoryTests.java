@@ -0,0 +1,331 @@
+package org.example.vibemate.memory;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.vibemate.config.ChatMemoryConfig;
+import org.example.vibemate.model.ChatMemoryEntry;
+import org.example.vibemate.model.ConversationSummary;
+import org.example.vibemate.repository.R2dbcChatMemoryRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.SystemMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class WriteBehindChatMemoryTests {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final Scheduler scheduler = Schedulers.newBoundedElastic(4, 1000, "test-chat-memory");
+    private final RecordingRepository repository = new RecordingRepository();
+    private final AtomicInteger turns = new AtomicInteger();
+
+    @AfterEach
+    void disposeScheduler() {
+        scheduler.dispose();
+    }
+
+    @Test
+    void messagesAddedWhileWindowsAreEvictedAreAllPersisted() throws Exception {
+        ChatMemoryConfig config = config(Duration.ofHours(1));
+        config.setCacheSize(4);
+        WriteBehindChatMemory chatMemory = memory(config);
+        int threads = 8;
+        int perThread = 500;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> writers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int writer = t;
+            writers.add(executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < perThread; i++) {
+                    String conversationId = "c" + random.nextInt(32);
+                    if (random.nextBoolean()) chatMemory.get("c" + random.nextInt(32));
+                    chatMemory.add(conversationId, List.of(new UserMessage(writer + "-" + i)));
+                }
+            }));
+        }
+        for (Future<?> future : writers) future.get(30, TimeUnit.SECONDS);
+        executor.shutdown();
+        chatMemory.destroy();
+
+        List<String> persisted = repository.all().stream().map(entry -> entry.message().getText()).toList();
+        assertThat(persisted).hasSize(threads * perThread).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void clearWaitsForAnInFlightFlushSoClearedMessagesStayDeleted() throws Exception {
+        WriteBehindChatMemory chatMemory = memory(config(Duration.ofMillis(20)));
+        chatMemory.get("conversation");
+        repository.holdNextAppend();
+        chatMemory.add("conversation", List.of(new UserMessage("forget me")));
+        assertThat(repository.appending.await(5, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<Void> clear = CompletableFuture.runAsync(() -> chatMemory.clear("conversation"));
+        Thread.sleep(100);
+        assertThat(clear).isNotDone();
+
+        repository.release.countDown();
+        clear.get(5, TimeUnit.SECONDS);
+        chatMemory.destroy();
+
+        assertThat(repository.entries("conversation")).isEmpty();
+    }
+
+    @Test
+    void destroyFlushesPendingAndOrphanedMessages() {
+        WriteBehindChatMemory chatMemory = memory(config(Duration.ofHours(1)));
+        chatMemory.get("loaded");
+        chatMemory.add("loaded", List.of(new UserMessage("in a window")));
+        chatMemory.add("unloaded", List.of(new UserMessage("orphaned")));
+        assertThat(repository.all()).isEmpty();
+
+        chatMemory.destroy();
+
+        assertThat(repository.entries("loaded")).extracting(entry -> entry.message().getText())
+                .containsExactly("in a window");
+        assertThat(repository.entries("unloaded")).extracting(entry -> entry.message().getText())
+                .containsExactly("orphaned");
+    }
+
+    @Test
+    void olderTurnsAreFoldedIntoASummaryOnceABatchHasBuiltUp() {
+        ChatMemoryConfig config = config(Duration.ofHours(1));
+        config.setKeepMessages(4);
+        config.setCompactBatch(4);
+        StubSummarizer summarizer = new StubSummarizer();
+        WriteBehindChatMemory chatMemory = memory(config, summarizer);
+        chatMemory.get("conversation");
+
+        addTurns(chatMemory, 7);
+        assertThat(summarizer.folded).isEmpty();
+        addTurns(chatMemory, 1);
+
+        await().atMost(TIMEOUT).until(() -> repository.summaries.containsKey("conversation"));
+        assertThat(summarizer.folded).hasSize(1);
+        assertThat(summarizer.folded.get(0)).hasSize(4);
+        List<Message> prompt = chatMemory.get("conversation");
+        assertThat(prompt).hasSize(5);
+        assertThat(prompt.get(0)).isInstanceOf(SystemMessage.class);
+        assertThat(prompt.get(0).getMetadata()).containsKey(WriteBehindChatMemory.SUMMARY_METADATA);
+        assertThat(prompt.get(0).getText()).endsWith("summary of 4 messages");
+        assertThat(prompt.subList(1, 5)).extracting(Message::getText)
+                .containsExactly("turn 4", "turn 5", "turn 6", "turn 7");
+        chatMemory.destroy();
+    }
+
+    @Test
+    void windowOverTheTokenBudgetIsCompactedBeforeABatchHasBuiltUp() {
+        ChatMemoryConfig config = config(Duration.ofHours(1));
+        config.setKeepMessages(2);
+        config.setCompactBatch(100);
+        config.setTokenBudget(25);
+        StubSummarizer summarizer = new StubSummarizer();
+        WriteBehindChatMemory chatMemory = memory(config, summarizer);
+        chatMemory.get("conversation");
+
+        chatMemory.add("conversation", List.of(new UserMessage("a".repeat(40))));
+        chatMemory.add("conversation", List.of(new UserMessage("b".repeat(40))));
+        assertThat(summarizer.folded).isEmpty();
+        chatMemory.add("conversation", List.of(new UserMessage("c".repeat(40))));
+
+        await().atMost(TIMEOUT).until(() -> repository.summaries.containsKey("conversation"));
+        assertThat(summarizer.folded).hasSize(1);
+        assertThat(summarizer.folded.get(0)).extracting(Message::getText).containsExactly("a".repeat(40));
+        chatMemory.destroy();
+    }
+
+    @Test
+    void promptKeepsTheNewestMessagesThatFitTheTokenBudget() {
+        ChatMemoryConfig config = config(Duration.ofHours(1));
+        config.setTokenBudget(25);
+        WriteBehindChatMemory chatMemory = memory(config);
+        chatMemory.get("conversation");
+
+        chatMemory.add("conversation", List.of(new UserMessage("a".repeat(40)), new UserMessage("b".repeat(40)),
+                new UserMessage("c".repeat(40))));
+
+        assertThat(chatMemory.get("conversation")).extracting(Message::getText)
+                .containsExactly("b".repeat(40), "c".repeat(40));
+        chatMemory.destroy();
+    }
+
+    @Test
+    void clearDuringASummarySaveDeletesTheSavedSummary() throws Exception {
+        ChatMemoryConfig config = config(Duration.ofHours(1));
+        config.setKeepMessages(1);
+        config.setCompactBatch(1);
+        WriteBehindChatMemory chatMemory = memory(config, new StubSummarizer());
+        chatMemory.get("conversation");
+        repository.holdNextSummary();
+
+        addTurns(chatMemory, 2);
+        assertThat(repository.savingSummary.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<Void> clear = CompletableFuture.runAsync(() -> chatMemory.clear("conversation"));
+        Thread.sleep(100);
+        assertThat(clear).isNotDone();
+
+        repository.releaseSummary.countDown();
+        clear.get(5, TimeUnit.SECONDS);
+        chatMemory.destroy();
+
+        assertThat(repository.summaries).doesNotContainKey("conversation");
+    }
+
+    private void addTurns(WriteBehindChatMemory chatMemory, int count) {
+        for (int i = 0; i < count; i++) {
+            chatMemory.add("conversation", List.of(new UserMessage("turn " + turns.getAndIncrement())));
+        }
+    }
+
+    private WriteBehindChatMemory memory(ChatMemoryConfig config) {
+        return memory(config, null);
+    }
+
+    private WriteBehindChatMemory memory(ChatMemoryConfig config, ConversationSummarizer summarizer) {
+        return new WriteBehindChatMemory(repository, scheduler, new SimpleMeterRegistry(), config, summarizer);
+    }
+
+    private static ChatMemoryConfig config(Duration flushInterval) {
+        ChatMemoryConfig config = new ChatMemoryConfig();
+        config.setFlushInterval(flushInterval);
+        return config;
+    }
+
+    /**
+     * Summarizes instantly and records the messages each compaction folded.
+     */
+    private static class StubSummarizer extends ConversationSummarizer {
+
+        private final List<List<Message>> folded = new CopyOnWriteArrayList<>();
+
+        StubSummarizer() {
+            super(null, null, null, "test", 50);
+        }
+
+        @Override
+        public Mono<String> summarize(String conversationId, String previousSummary, List<Message> messages) {
+            return Mono.fromSupplier(() -> {
+                folded.add(messages);
+                return "summary of " + messages.size() + " messages";
+            });
+        }
+    }
+
+    /**
+     * Keeps rows in a list and summaries in a map; can hold one appendAll or one saveSummary open until
+     * released, as a slow statement would.
+     */
+    private static class RecordingRepository extends R2dbcChatMemoryRepository {
+
+        private final List<ChatMemoryEntry> rows = new ArrayList<>();
+        private final CountDownLatch appending = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final Map<String, String> summaries = new ConcurrentHashMap<>();
+        private final CountDownLatch savingSummary = new CountDownLatch(1);
+        private final CountDownLatch releaseSummary = new CountDownLatch(1);
+        private volatile boolean hold;
+        private volatile boolean holdSummary;
+
+        RecordingRepository() {
+            super(null, null, Duration.ofSeconds(5));
+        }
+
+        void holdNextAppend() {
+            hold = true;
+        }
+
+        void holdNextSummary() {
+            holdSummary = true;
+        }
+
+        synchronized List<ChatMemoryEntry> all() {
+            return List.copyOf(rows);
+        }
+
+        synchronized List<ChatMemoryEntry> entries(String conversationId) {
+            return rows.stream().filter(entry -> entry.conversationId().equals(conversationId)).toList();
+        }
+
+        @Override
+        public Flux<ChatMemoryEntry> recentEntries(String conversationId, Instant after, int limit) {
+            return Flux.defer(() -> Flux.fromIterable(entries(conversationId)));
+        }
+
+        @Override
+        public Mono<ConversationSummary> summary(String conversationId) {
+            return Mono.empty();
+        }
+
+        @Override
+        public Mono<Void> appendAll(List<ChatMemoryEntry> entries) {
+            return Mono.fromRunnable(() -> {
+                if (hold) {
+                    hold = false;
+                    appending.countDown();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                synchronized (this) {
+                    rows.addAll(entries);
+                }
+            });
+        }
+
+        @Override
+        public Mono<Void> delete(String conversationId) {
+            return Mono.fromRunnable(() -> {
+                synchronized (this) {
+                    rows.removeIf(entry -> entry.conversationId().equals(conversationId));
+                }
+            });
+        }
+
+        @Override
+        public Mono<Void> saveSummary(ConversationSummary summary) {
+            return Mono.fromRunnable(() -> {
+                if (holdSummary) {
+                    holdSummary = false;
+                    savingSummary.countDown();
+                    try {
+                        releaseSummary.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                summaries.put(summary.conversationId(), summary.content());
+            });
+        }
+
+        @Override
+        public Mono<Void> deleteSummary(String conversationId) {
+            return Mono.fromRunnable(() -> summaries.remove(conversationId));
+        }
+    }
+}
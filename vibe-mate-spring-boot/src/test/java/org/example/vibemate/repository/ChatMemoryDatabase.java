@@ -0,0 +1,35 @@
+package org.example.vibemate.repository;
+
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * Connects to a Postgres test container and applies the application's schema.sql, so the partitioned
+ * chat memory tests run the same DDL and SQL the application does.
+ */
+final class ChatMemoryDatabase {
+
+    private ChatMemoryDatabase() {
+    }
+
+    static PostgreSQLContainer<?> container() {
+        return new PostgreSQLContainer<>("postgres:16-alpine");
+    }
+
+    static ConnectionFactory connect(PostgreSQLContainer<?> postgres) {
+        ConnectionFactory connectionFactory = ConnectionFactories.get(ConnectionFactoryOptions.builder()
+                .option(ConnectionFactoryOptions.DRIVER, "postgresql")
+                .option(ConnectionFactoryOptions.HOST, postgres.getHost())
+                .option(ConnectionFactoryOptions.PORT, postgres.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT))
+                .option(ConnectionFactoryOptions.USER, postgres.getUsername())
+                .option(ConnectionFactoryOptions.PASSWORD, postgres.getPassword())
+                .option(ConnectionFactoryOptions.DATABASE, postgres.getDatabaseName())
+                .build());
+        new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).populate(connectionFactory).block();
+        return connectionFactory;
+    }
+}
@@ -0,0 +1,163 @@
+package org.example.vibemate.repository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@Testcontainers(disabledWithoutDocker = true)
+class ChatMemoryPartitionManagerTests {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+    private static final int RETENTION_DAYS = 7;
+    private static final String DEFAULT_PARTITION = "spring_ai_chat_memory_default";
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = ChatMemoryDatabase.container();
+
+    private static DatabaseClient databaseClient;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final LocalDate today = LocalDate.now();
+    private ChatMemoryPartitionManager manager;
+
+    @BeforeAll
+    static void connect() {
+        databaseClient = DatabaseClient.create(ChatMemoryDatabase.connect(POSTGRES));
+    }
+
+    @BeforeEach
+    void startManager() {
+        manager = new ChatMemoryPartitionManager(databaseClient, Duration.ofDays(RETENTION_DAYS), 2, true, 200,
+                Duration.ofHours(1), meterRegistry);
+        // the first maintenance run starts straight away; let it finish before the test touches the tables
+        await().atMost(TIMEOUT).until(() ->
+                meterRegistry.get("chat.memory.partition.maintenance").timer().count() == 1);
+    }
+
+    @AfterEach
+    void stopManager() {
+        manager.destroy();
+    }
+
+    @Test
+    void upcomingDaysGetTheirOwnPartition() {
+        assertThat(partitions()).contains(partition(today), partition(today.plusDays(1)), partition(today.plusDays(2)));
+    }
+
+    @Test
+    void rowsInTheDefaultPartitionAreMovedIntoTheirDay() {
+        LocalDate day = today.minusDays(3);
+        UUID conversationId = UUID.randomUUID();
+        insert(conversationId, "moved", day.atTime(9, 0));
+        insert(conversationId, "stays", day.minusDays(1).atTime(9, 0));
+
+        manager.ensurePartitions(day, day).block(TIMEOUT);
+
+        assertThat(partitions()).contains(partition(day)).contains(DEFAULT_PARTITION);
+        assertThat(partitionOf(conversationId, "moved")).isEqualTo(partition(day));
+        assertThat(partitionOf(conversationId, "stays")).isEqualTo(DEFAULT_PARTITION);
+    }
+
+    @Test
+    void expiredDayIsArchivedWithoutItsClearedRowsAndThenDropped() {
+        LocalDate day = today.minusDays(RETENTION_DAYS + 3);
+        UUID kept = UUID.randomUUID();
+        UUID cleared = UUID.randomUUID();
+        insert(kept, "before the clear", day.atTime(8, 0));
+        insert(kept, "after the clear", day.atTime(10, 0));
+        insert(cleared, "gone", day.atTime(8, 0));
+        tombstone(kept, day.atTime(9, 0));
+        tombstone(cleared, day.atTime(9, 0));
+
+        manager.maintain().block(TIMEOUT);
+
+        assertThat(partitions()).doesNotContain(partition(day));
+        assertThat(count("SELECT COUNT(*) FROM spring_ai_chat_memory_partitioned WHERE conversation_id IN ($1, $2)",
+                kept, cleared)).isZero();
+        assertThat(archived(kept, day)).extracting(ChatMemoryArchive.Entry::content).containsExactly("after the clear");
+        assertThat(count("SELECT COUNT(*) FROM spring_ai_chat_memory_archive WHERE conversation_id = $1", cleared))
+                .isZero();
+        assertThat(count("SELECT COUNT(*) FROM spring_ai_chat_memory_tombstone WHERE conversation_id IN ($1, $2)",
+                kept, cleared)).isZero();
+        assertThat(meterRegistry.get("chat.memory.partition.dropped").counter().count()).isGreaterThanOrEqualTo(1);
+    }
+
+    private void insert(UUID conversationId, String content, LocalDateTime timestamp) {
+        databaseClient.sql("INSERT INTO spring_ai_chat_memory_partitioned (conversation_id, content, type, timestamp) "
+                        + "VALUES ($1, $2, 'USER', $3)")
+                .bind(0, conversationId)
+                .bind(1, content)
+                .bind(2, timestamp)
+                .then()
+                .block(TIMEOUT);
+    }
+
+    private void tombstone(UUID conversationId, LocalDateTime clearedAt) {
+        databaseClient.sql("INSERT INTO spring_ai_chat_memory_tombstone (conversation_id, cleared_at) VALUES ($1, $2)")
+                .bind(0, conversationId)
+                .bind(1, clearedAt)
+                .then()
+                .block(TIMEOUT);
+    }
+
+    private List<String> partitions() {
+        return databaseClient.sql("""
+                        SELECT child.relname FROM pg_inherits
+                        JOIN pg_class parent ON parent.oid = pg_inherits.inhparent
+                        JOIN pg_class child ON child.oid = pg_inherits.inhrelid
+                        WHERE parent.relname = 'spring_ai_chat_memory_partitioned'
+                        """)
+                .map((row, metadata) -> row.get("relname", String.class))
+                .all()
+                .collectList()
+                .block(TIMEOUT);
+    }
+
+    private String partitionOf(UUID conversationId, String content) {
+        return databaseClient.sql("SELECT tableoid::regclass::text AS partition FROM spring_ai_chat_memory_partitioned "
+                        + "WHERE conversation_id = $1 AND content = $2")
+                .bind(0, conversationId)
+                .bind(1, content)
+                .map((row, metadata) -> row.get("partition", String.class))
+                .one()
+                .block(TIMEOUT);
+    }
+
+    private List<ChatMemoryArchive.Entry> archived(UUID conversationId, LocalDate day) {
+        return databaseClient.sql("SELECT payload FROM spring_ai_chat_memory_archive "
+                        + "WHERE conversation_id = $1 AND partition_day = $2")
+                .bind(0, conversationId)
+                .bind(1, day)
+                .map((row, metadata) -> ChatMemoryArchive.decode(row.get("payload", byte[].class)))
+                .one()
+                .block(TIMEOUT);
+    }
+
+    private long count(String sql, Object... args) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql);
+        for (int i = 0; i < args.length; i++) {
+            spec = spec.bind(i, args[i]);
+        }
+        return spec.map((row, metadata) -> row.get(0, Long.class)).one().block(TIMEOUT);
+    }
+
+    private static String partition(LocalDate day) {
+        return "spring_ai_chat_memory_p" + day.format(DateTimeFormatter.BASIC_ISO_DATE);
+    }
+}
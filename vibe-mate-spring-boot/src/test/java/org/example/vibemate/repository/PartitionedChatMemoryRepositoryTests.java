@@ -0,0 +1,106 @@
+package org.example.vibemate.repository;
+
+import io.r2dbc.spi.ConnectionFactory;
+import org.example.vibemate.memory.HistoryCursor;
+import org.example.vibemate.model.ChatMemoryEntry;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Testcontainers(disabledWithoutDocker = true)
+class PartitionedChatMemoryRepositoryTests {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = ChatMemoryDatabase.container();
+
+    private static PartitionedChatMemoryRepository repository;
+
+    private final String conversationId = UUID.randomUUID().toString();
+
+    @BeforeAll
+    static void connect() {
+        ConnectionFactory connectionFactory = ChatMemoryDatabase.connect(POSTGRES);
+        repository = new PartitionedChatMemoryRepository(DatabaseClient.create(connectionFactory),
+                TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory)), TIMEOUT);
+    }
+
+    @Test
+    void messagesWrittenBeforeAClearAreHidden() {
+        repository.append(conversationId, List.of(new UserMessage("hi"), new AssistantMessage("hello"))).block(TIMEOUT);
+        repository.delete(conversationId).block(TIMEOUT);
+        repository.append(conversationId, List.of(new UserMessage("start over"))).block(TIMEOUT);
+
+        assertThat(texts(repository.findByConversationId(conversationId))).containsExactly("start over");
+        assertThat(repository.page(conversationId, null, null, 10).map(ChatMemoryEntry::message).collectList()
+                .block(TIMEOUT)).extracting(Message::getText).containsExactly("start over");
+    }
+
+    @Test
+    void clearedConversationReadsAsEmpty() {
+        repository.append(conversationId, List.of(new UserMessage("hi"))).block(TIMEOUT);
+
+        repository.deleteByConversationId(conversationId);
+
+        assertThat(repository.findByConversationId(conversationId)).isEmpty();
+    }
+
+    @Test
+    void replacedMessagesAreVisibleAndTheOldOnesAreNot() {
+        repository.append(conversationId, List.of(new UserMessage("hi"), new AssistantMessage("hello"))).block(TIMEOUT);
+
+        repository.saveAll(conversationId, List.of(new UserMessage("summary so far"), new AssistantMessage("ok")));
+
+        assertThat(texts(repository.findByConversationId(conversationId))).containsExactly("summary so far", "ok");
+    }
+
+    @Test
+    void historyPagesWalkTheConversationByCursorAndSince() {
+        repository.append(conversationId, IntStream.range(0, 5)
+                .mapToObj(i -> (Message) new UserMessage("m" + i))
+                .toList()).block(TIMEOUT);
+
+        List<ChatMemoryEntry> latest = page(null, null);
+        assertThat(contents(latest)).containsExactly("m3", "m4");
+        List<ChatMemoryEntry> earlier = page(null, cursor(latest.get(0)));
+        assertThat(contents(earlier)).containsExactly("m1", "m2");
+        assertThat(contents(page(cursor(earlier.get(1)), null))).containsExactly("m3", "m4");
+        assertThat(contents(page(earlier.get(0).timestamp().plusNanos(500_000), null))).containsExactly("m2", "m3");
+    }
+
+    private List<ChatMemoryEntry> page(Instant after, Instant before) {
+        return repository.page(conversationId, after, before, 2).collectList().block(TIMEOUT);
+    }
+
+    /**
+     * Round-trips the timestamp through the cursor the history endpoint hands out.
+     */
+    private static Instant cursor(ChatMemoryEntry entry) {
+        return HistoryCursor.decode(HistoryCursor.encode(entry.timestamp()));
+    }
+
+    private static List<String> contents(List<ChatMemoryEntry> entries) {
+        return entries.stream().map(entry -> entry.message().getText()).toList();
+    }
+
+    private static List<String> texts(List<Message> messages) {
+        return messages.stream().map(Message::getText).toList();
+    }
+}
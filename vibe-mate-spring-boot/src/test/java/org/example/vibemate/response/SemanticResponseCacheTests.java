@@ -0,0 +1,140 @@
+package org.example.vibemate.response;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.vibemate.dto.BotConfig;
+import org.example.vibemate.dto.ChatProfile;
+import org.example.vibemate.dto.ChatRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.embedding.EmbeddingModel;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SemanticResponseCacheTests {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ChatMemory chatMemory = mock(ChatMemory.class);
+    private final List<Message> history = new CopyOnWriteArrayList<>();
+    private final AtomicInteger generations = new AtomicInteger();
+    private final ChatRequest request = new ChatRequest(UUID.randomUUID(), "Why?");
+    private final ChatProfile profile = profile(null);
+
+    @BeforeEach
+    void setUp() {
+        when(chatMemory.get(anyString())).thenAnswer(invocation -> List.copyOf(history));
+    }
+
+    @Test
+    void repeatedMessageAtTheSamePointOfTheConversationIsReplayed() {
+        SemanticResponseCache cache = cache(Duration.ofHours(1));
+        history.add(new AssistantMessage("The trail closes at dusk."));
+
+        assertThat(ask(cache, profile)).isEqualTo("Because it gets dark.");
+        assertThat(ask(cache, profile)).isEqualTo("Because it gets dark.");
+
+        assertThat(generations).hasValue(1);
+        assertThat(count("hit")).isEqualTo(1);
+    }
+
+    @Test
+    void followUpIsNotReplayedOnceTheConversationHasMovedOn() {
+        SemanticResponseCache cache = cache(Duration.ofHours(1));
+        history.add(new AssistantMessage("The trail closes at dusk."));
+        ask(cache, profile);
+
+        history.add(new AssistantMessage("Bring a jacket, it rains in the afternoon."));
+        ask(cache, profile);
+
+        assertThat(generations).hasValue(2);
+        assertThat(count("hit")).isZero();
+    }
+
+    @Test
+    void entriesExpireAfterTheTtl() throws InterruptedException {
+        SemanticResponseCache cache = cache(Duration.ofMillis(200));
+        ask(cache, profile);
+
+        Thread.sleep(300);
+        ask(cache, profile);
+
+        assertThat(generations).hasValue(2);
+    }
+
+    @Test
+    void botsThatOptOutAreNeverServedFromTheCache() {
+        SemanticResponseCache cache = cache(Duration.ofHours(1));
+        ChatProfile optedOut = profile(false);
+
+        ask(cache, optedOut);
+        ask(cache, optedOut);
+
+        assertThat(generations).hasValue(2);
+        assertThat(count("bypass")).isEqualTo(2);
+    }
+
+    @Test
+    void concurrentIdenticalRequestsShareOneGeneration() {
+        SemanticResponseCache cache = cache(Duration.ofHours(1));
+        Sinks.Many<String> tokens = Sinks.many().replay().all();
+        Supplier<Flux<String>> generation = () -> {
+            generations.incrementAndGet();
+            return tokens.asFlux();
+        };
+        List<String> first = new CopyOnWriteArrayList<>();
+        List<String> second = new CopyOnWriteArrayList<>();
+
+        cache.answer(profile, request, generation).subscribe(first::add);
+        cache.answer(profile, request, generation).subscribe(second::add);
+        tokens.tryEmitNext("Because ");
+        tokens.tryEmitNext("it gets dark.");
+        tokens.tryEmitComplete();
+
+        assertThat(generations).hasValue(1);
+        assertThat(count("coalesced")).isEqualTo(1);
+        assertThat(first).containsExactly("Because ", "it gets dark.");
+        assertThat(second).containsExactly("Because ", "it gets dark.");
+    }
+
+    private SemanticResponseCache cache(Duration ttl) {
+        EmbeddingModel embeddingModel = mock(EmbeddingModel.class);
+        when(embeddingModel.embed(anyString())).thenReturn(new float[]{1f, 0f});
+        return new SemanticResponseCache(embeddingModel, chatMemory, true, 0.95, 80, 1000, 10, ttl,
+                Schedulers.immediate(), meterRegistry);
+    }
+
+    private String ask(SemanticResponseCache cache, ChatProfile chatProfile) {
+        return String.join("", cache.answer(chatProfile, request, () -> {
+                    generations.incrementAndGet();
+                    return Flux.just("Because ", "it gets dark.");
+                })
+                .collectList()
+                .block(TIMEOUT));
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("chat.response.cache").tag("result", result).counter().count();
+    }
+
+    private static ChatProfile profile(Boolean responseCache) {
+        return new ChatProfile(null, BotConfig.builder().botName("Sam").responseCache(responseCache).build(),
+                "You are Sam, a hiking friend.");
+    }
+}
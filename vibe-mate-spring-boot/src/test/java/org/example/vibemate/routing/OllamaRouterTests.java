@@ -0,0 +1,164 @@
+package org.example.vibemate.routing;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.vibemate.config.OllamaRoutingConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.net.ConnectException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+class OllamaRouterTests {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+    private static final String MODEL = "gemma3:1b";
+
+    private final OllamaBackend a = new OllamaBackend("http://a:11434", null, null);
+    private final OllamaBackend b = new OllamaBackend("http://b:11434", null, null);
+    private final OllamaBackend c = new OllamaBackend("http://c:11434", null, null);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final OllamaRoutingConfig config = new OllamaRoutingConfig();
+    private final Set<String> unhealthy = Set.of(c.getBaseUrl());
+    private OllamaRouter router;
+
+    @AfterEach
+    void destroyRouter() {
+        if (router != null) router.destroy();
+    }
+
+    @Test
+    void callsWithoutAffinityGoToTheNodeWithTheFewestRequestsInFlight() {
+        router = router(List.of(a, b));
+        a.getOutstanding().set(3);
+        b.getOutstanding().set(1);
+
+        for (int i = 0; i < 20; i++) {
+            assertThat(route(null)).isEqualTo(b.getBaseUrl());
+        }
+    }
+
+    @Test
+    void conversationSticksToItsNodeUntilItIsMoreThanTheSlackBusier() {
+        config.setAffinitySlack(2);
+        router = router(List.of(a, b));
+        String preferred = route("user-1");
+        OllamaBackend sticky = preferred.equals(a.getBaseUrl()) ? a : b;
+        OllamaBackend other = sticky == a ? b : a;
+
+        sticky.getOutstanding().set(2);
+        assertThat(route("user-1")).isEqualTo(preferred);
+
+        sticky.getOutstanding().set(3);
+        assertThat(route("user-1")).isEqualTo(other.getBaseUrl());
+    }
+
+    @Test
+    void nodeFailingTheHealthCheckIsSkipped() {
+        router = router(List.of(a, c));
+        await().atMost(TIMEOUT).until(() -> !c.isHealthy());
+        a.getOutstanding().set(10);
+
+        assertThat(route(null)).isEqualTo(a.getBaseUrl());
+    }
+
+    @Test
+    void connectionFailureBeforeTheFirstChunkIsRetriedOnAnotherNode() {
+        router = router(List.of(a, b));
+        List<String> tried = new CopyOnWriteArrayList<>();
+
+        StepVerifier.create(router.stream(MODEL, null, backend -> {
+                    tried.add(backend.getBaseUrl());
+                    return tried.size() == 1
+                            ? Flux.<String>error(new ConnectException("Connection refused"))
+                            : Flux.just(backend.getBaseUrl());
+                }))
+                .expectNextMatches(url -> !url.equals(tried.get(0)))
+                .expectComplete()
+                .verify(TIMEOUT);
+
+        assertThat(tried).hasSize(2).doesNotHaveDuplicates();
+        assertThat(meterRegistry.get("ollama.backend.failovers").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void connectionFailureAfterTheFirstChunkIsNotRetried() {
+        router = router(List.of(a, b));
+        List<String> tried = new CopyOnWriteArrayList<>();
+
+        StepVerifier.create(router.stream(MODEL, null, backend -> {
+                    tried.add(backend.getBaseUrl());
+                    return Flux.concat(Flux.just("Bring "), Flux.<String>error(new ConnectException("Connection reset")));
+                }))
+                .expectNext("Bring ")
+                .expectError(ConnectException.class)
+                .verify(TIMEOUT);
+
+        assertThat(tried).hasSize(1);
+    }
+
+    @Test
+    void otherErrorsAreNotRetried() {
+        router = router(List.of(a, b));
+        List<String> tried = new CopyOnWriteArrayList<>();
+
+        StepVerifier.create(router.stream(MODEL, null, backend -> {
+                    tried.add(backend.getBaseUrl());
+                    return Flux.error(new IllegalStateException("model not found"));
+                }))
+                .expectError(IllegalStateException.class)
+                .verify(TIMEOUT);
+
+        assertThat(tried).hasSize(1);
+    }
+
+    @Test
+    void nodeIsEjectedOnceItReachesTheFailureThresholdAndRejoinsAfterTheEjection() {
+        config.setMaxAttempts(1);
+        config.setFailureThreshold(1);
+        config.setEjection(Duration.ofMillis(300));
+        router = router(List.of(a, b));
+        b.getOutstanding().set(10);
+
+        StepVerifier.create(router.stream(MODEL, null, backend -> backend == a
+                        ? Flux.<String>error(new ConnectException("Connection refused"))
+                        : Flux.just(backend.getBaseUrl())))
+                .expectError(ConnectException.class)
+                .verify(TIMEOUT);
+
+        assertThat(a.isAvailable(System.currentTimeMillis())).isFalse();
+        assertThat(route(null)).isEqualTo(b.getBaseUrl());
+        assertThat(meterRegistry.get("ollama.backend.ejections").counter().count()).isEqualTo(1);
+        await().atMost(TIMEOUT).until(() -> a.isAvailable(System.currentTimeMillis()));
+        assertThat(route(null)).isEqualTo(a.getBaseUrl());
+    }
+
+    /**
+     * Health checks are answered in-process: every node is healthy except the ones listed in unhealthy.
+     */
+    private OllamaRouter router(List<OllamaBackend> backends) {
+        config.setHealthInterval(Duration.ofHours(1));
+        WebClient.Builder webClient = WebClient.builder().exchangeFunction(request -> Mono.just(ClientResponse
+                .create(unhealthy.stream().anyMatch(url -> request.url().toString().startsWith(url))
+                        ? HttpStatus.SERVICE_UNAVAILABLE
+                        : HttpStatus.OK)
+                .build()));
+        return new OllamaRouter(Map.of(MODEL, backends), List.of(), config, webClient, meterRegistry);
+    }
+
+    private String route(String affinityKey) {
+        return router.stream(MODEL, affinityKey, backend -> Flux.just(backend.getBaseUrl())).blockLast(TIMEOUT);
+    }
+}
@@ -0,0 +1,172 @@
+package org.example.vibemate.service.impl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.example.vibemate.config.ChatMemoryConfig;
+import org.example.vibemate.config.DocumentConfig;
+import org.example.vibemate.config.GenerationConfig;
+import org.example.vibemate.dto.ChatProfile;
+import org.example.vibemate.dto.ChatRequest;
+import org.example.vibemate.generation.GenerationScheduler;
+import org.example.vibemate.generation.PartialAnswerRecorder;
+import org.example.vibemate.ingestion.MemoryIngestor;
+import org.example.vibemate.memory.HistoryCursor;
+import org.example.vibemate.memory.WriteBehindChatMemory;
+import org.example.vibemate.metrics.ChatMetrics;
+import org.example.vibemate.model.ChatMemoryEntry;
+import org.example.vibemate.repository.R2dbcChatMemoryRepository;
+import org.example.vibemate.response.SemanticResponseCache;
+import org.example.vibemate.service.ImageService;
+import org.example.vibemate.service.PromptService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.memory.ChatMemory;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.UserMessage;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ChatServiceImplTests {
+
+    private static final Duration SUMMARY_TIME = Duration.ofMillis(300);
+
+    private final Scheduler chatMemoryScheduler = Schedulers.newBoundedElastic(2, 100, "test-chat-memory");
+    private final AtomicInteger activeSummaries = new AtomicInteger();
+    private final AtomicInteger maxActiveSummaries = new AtomicInteger();
+
+    @AfterEach
+    void disposeScheduler() {
+        chatMemoryScheduler.dispose();
+    }
+
+    @Test
+    void documentWithMoreSectionsThanThePerUserLimitIsSummarizedWithoutRejections() {
+        GenerationConfig generationConfig = new GenerationConfig();
+        generationConfig.setChatModel("gemma3:1b");
+        generationConfig.setMaxPerUser(2);
+        generationConfig.setMaxWait(SUMMARY_TIME.dividedBy(2));
+        DocumentConfig documentConfig = new DocumentConfig();
+        documentConfig.setMapConcurrency(4);
+        documentConfig.setDirectTokens(10);
+        documentConfig.setChunkTokens(10);
+        ChatServiceImpl chatService = chatService(generationConfig, documentConfig);
+        Flux<String> document = Flux.range(1, 6).map("Day %d of the trip notes, with a few more words. "::formatted);
+
+        StepVerifier.create(chatService.askOllamaAboutText(new ChatProfile(null, null, "You are a friend."),
+                                document, new ChatRequest(UUID.randomUUID(), "What should I pack?"))
+                        .collectList())
+                .assertNext(tokens -> {
+                    long sections = tokens.stream().filter(token -> token.startsWith("_Read section")).count();
+                    assertThat(sections).isGreaterThan(generationConfig.getMaxPerUser());
+                    assertThat(tokens).last().isEqualTo("Bring water.");
+                })
+                .expectComplete()
+                .verify(Duration.ofSeconds(10));
+        assertThat(maxActiveSummaries).hasValueLessThanOrEqualTo(generationConfig.getMaxPerUser());
+    }
+
+    @Test
+    void cancellingTheAnswerStopsParsingTheDocument() {
+        GenerationConfig generationConfig = new GenerationConfig();
+        generationConfig.setChatModel("gemma3:1b");
+        DocumentConfig documentConfig = new DocumentConfig();
+        documentConfig.setDirectTokens(10);
+        documentConfig.setChunkTokens(10);
+        ChatServiceImpl chatService = chatService(generationConfig, documentConfig);
+        AtomicBoolean cancelled = new AtomicBoolean();
+        Flux<String> document = Flux.interval(Duration.ofMillis(10))
+                .take(1000)
+                .map("Day %d of the trip notes, with a few more words. "::formatted)
+                .doOnCancel(() -> cancelled.set(true));
+
+        StepVerifier.create(chatService.askOllamaAboutText(new ChatProfile(null, null, "You are a friend."),
+                        document, new ChatRequest(UUID.randomUUID(), "What should I pack?")))
+                .expectNextMatches(token -> token.startsWith("_Read section"))
+                .thenCancel()
+                .verify(Duration.ofSeconds(10));
+
+        assertThat(cancelled).isTrue();
+    }
+
+    @Test
+    void historyWritesTheConversationsPendingTurnsBeforeReadingThePage() {
+        WriteBehindChatMemory chatMemory = mock(WriteBehindChatMemory.class);
+        R2dbcChatMemoryRepository repository = mock(R2dbcChatMemoryRepository.class);
+        UUID userId = UUID.randomUUID();
+        Instant after = Instant.parse("2026-10-18T09:15:30.123456Z");
+        when(repository.page(userId.toString(), after, null, 50)).thenReturn(Flux.just(new ChatMemoryEntry(
+                userId.toString(), new UserMessage("just said"), after.plusSeconds(1))));
+        ChatServiceImpl chatService = chatService(new GenerationConfig(), new DocumentConfig(), chatMemory, repository);
+
+        StepVerifier.create(chatService.history(userId, after, null, null))
+                .assertNext(message -> {
+                    assertThat(message.content()).isEqualTo("just said");
+                    assertThat(message.cursor()).isEqualTo(HistoryCursor.encode(after.plusSeconds(1)));
+                })
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+
+        InOrder inOrder = inOrder(chatMemory, repository);
+        inOrder.verify(chatMemory).flush(userId.toString());
+        inOrder.verify(repository).page(userId.toString(), after, null, 50);
+    }
+
+    @Test
+    void historyRejectsPagingAfterAndBeforeAtOnce() {
+        ChatServiceImpl chatService = chatService(new GenerationConfig(), new DocumentConfig());
+
+        StepVerifier.create(chatService.history(UUID.randomUUID(), Instant.EPOCH, Instant.now(), null))
+                .expectError(IllegalArgumentException.class)
+                .verify(Duration.ofSeconds(5));
+    }
+
+    private ChatServiceImpl chatService(GenerationConfig generationConfig, DocumentConfig documentConfig) {
+        return chatService(generationConfig, documentConfig, mock(ChatMemory.class),
+                mock(R2dbcChatMemoryRepository.class));
+    }
+
+    private ChatServiceImpl chatService(GenerationConfig generationConfig, DocumentConfig documentConfig,
+                                        ChatMemory chatMemory, R2dbcChatMemoryRepository chatMemoryRepository) {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ChatClient documentChatClient = mock(ChatClient.class, RETURNS_DEEP_STUBS);
+        when(documentChatClient.prompt().system(anyString()).user(anyString()).stream().chatResponse())
+                .thenReturn(Flux.defer(() -> {
+                    maxActiveSummaries.accumulateAndGet(activeSummaries.incrementAndGet(), Math::max);
+                    return Flux.just(response("ok")).delaySubscription(SUMMARY_TIME);
+                }).doFinally(signal -> activeSummaries.decrementAndGet()));
+        ChatClient chatClient = mock(ChatClient.class, RETURNS_DEEP_STUBS);
+        when(chatClient.prompt().advisors(any(Consumer.class)).system(anyString()).user(anyString()).stream().chatResponse())
+                .thenReturn(Flux.just(response("Bring water.")));
+        return new ChatServiceImpl(chatClient, documentChatClient, documentConfig, generationConfig,
+                new GenerationScheduler(generationConfig, meterRegistry),
+                new PartialAnswerRecorder(chatMemory, PartialAnswerRecorder.Mode.TRUNCATE, "", meterRegistry),
+                chatMemory, new ChatMemoryConfig(), chatMemoryRepository, chatMemoryScheduler,
+                mock(PromptService.class), mock(ImageService.class), mock(SemanticResponseCache.class),
+                mock(MemoryIngestor.class), new ChatMetrics(meterRegistry));
+    }
+
+    private static ChatResponse response(String text) {
+        return new ChatResponse(List.of(new Generation(new AssistantMessage(text))));
+    }
+}
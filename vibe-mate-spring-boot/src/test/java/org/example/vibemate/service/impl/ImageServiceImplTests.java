@@ -0,0 +1,119 @@
+package org.example.vibemate.service.impl;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import org.example.vibemate.config.ImageConfig;
+import org.example.vibemate.dto.PreparedImage;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.core.io.buffer.NettyDataBuffer;
+import org.springframework.core.io.buffer.NettyDataBufferFactory;
+import org.springframework.util.MimeTypeUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.zip.CRC32;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ImageServiceImplTests {
+
+    private final ImageServiceImpl imageService =
+            new ImageServiceImpl(new ImageConfig(), Schedulers.immediate(), new SimpleMeterRegistry());
+
+    @Test
+    void rejectsImagesAboveThePixelCapBeforeDecoding() {
+        StepVerifier.create(prepare(pngHeader(30_000, 30_000)))
+                .expectErrorSatisfies(ex -> assertThat(ex)
+                        .isInstanceOf(IllegalArgumentException.class)
+                        .hasMessageContaining("maximum of"))
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void downscalesLargeImagesToTheMaximumDimension() throws IOException {
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(4096, 2048, BufferedImage.TYPE_INT_RGB), "png", png);
+
+        StepVerifier.create(prepare(png.toByteArray()))
+                .assertNext(image -> {
+                    assertThat(image.mimeType()).isEqualTo(MimeTypeUtils.IMAGE_JPEG);
+                    BufferedImage decoded = read(image.bytes());
+                    assertThat(decoded.getWidth()).isEqualTo(1024);
+                    assertThat(decoded.getHeight()).isEqualTo(512);
+                })
+                .expectComplete()
+                .verify(Duration.ofSeconds(10));
+    }
+
+    @Test
+    void smallImagesArePassedThroughUnchanged() throws IOException {
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(64, 32, BufferedImage.TYPE_INT_RGB), "png", png);
+
+        StepVerifier.create(prepare(png.toByteArray()))
+                .assertNext(image -> {
+                    assertThat(image.mimeType()).isEqualTo(MimeTypeUtils.IMAGE_PNG);
+                    assertThat(image.bytes()).isEqualTo(png.toByteArray());
+                })
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void joinedBufferIsReleasedWhetherTheImageIsAcceptedOrRejected() throws IOException {
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(64, 32, BufferedImage.TYPE_INT_RGB), "png", png);
+        NettyDataBufferFactory factory = new NettyDataBufferFactory(UnpooledByteBufAllocator.DEFAULT);
+        NettyDataBuffer accepted = factory.wrap(png.toByteArray());
+        NettyDataBuffer rejected = factory.wrap(pngHeader(30_000, 30_000));
+
+        StepVerifier.create(imageService.prepare(Flux.just(accepted))).expectNextCount(1).verifyComplete();
+        StepVerifier.create(imageService.prepare(Flux.just(rejected))).verifyError(IllegalArgumentException.class);
+
+        assertThat(accepted.getNativeBuffer().refCnt()).isZero();
+        assertThat(rejected.getNativeBuffer().refCnt()).isZero();
+    }
+
+    private Mono<PreparedImage> prepare(byte[] bytes) {
+        return imageService.prepare(Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(bytes)));
+    }
+
+    private static BufferedImage read(byte[] bytes) {
+        try {
+            return ImageIO.read(new ByteArrayInputStream(bytes));
+        } catch (IOException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * A PNG signature and IHDR chunk declaring the given size, with no pixel data: enough for a reader
+     * to report the dimensions, which is all a decompression bomb needs to get past a byte-size limit.
+     */
+    private static byte[] pngHeader(int width, int height) {
+        ByteBuffer ihdr = ByteBuffer.allocate(17)
+                .put("IHDR".getBytes(StandardCharsets.US_ASCII))
+                .putInt(width)
+                .putInt(height)
+                .put((byte) 8).put((byte) 2).put((byte) 0).put((byte) 0).put((byte) 0);
+        CRC32 crc = new CRC32();
+        crc.update(ihdr.array());
+        return ByteBuffer.allocate(8 + 4 + 17 + 4)
+                .put(new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'})
+                .putInt(13)
+                .put(ihdr.array())
+                .putInt((int) crc.getValue())
+                .array();
+    }
+}
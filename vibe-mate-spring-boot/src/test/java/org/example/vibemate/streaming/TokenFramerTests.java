@@ -0,0 +1,115 @@
+package org.example.vibemate.streaming;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class TokenFramerTests {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private static final Duration GRACE = Duration.ofMillis(200);
+
+    private final TokenFramer framer = new TokenFramer(1, Duration.ofSeconds(1), 100, Duration.ofMinutes(1), GRACE);
+
+    @Test
+    void resumeOfACompletedStreamReplaysTheRestAndEndsWithDone() {
+        List<ServerSentEvent<String>> original = framer.events(Flux.just("a", "b", "c")).collectList().block(TIMEOUT);
+        String afterFirst = original.get(0).id();
+
+        StepVerifier.create(framer.resume(afterFirst))
+                .assertNext(event -> assertThat(event.data()).isEqualTo("b"))
+                .assertNext(event -> assertThat(event.data()).isEqualTo("c"))
+                .assertNext(event -> {
+                    assertThat(event.event()).isEqualTo("done");
+                    assertThat(event.id()).isEqualTo(original.get(3).id());
+                })
+                .expectComplete()
+                .verify(TIMEOUT);
+    }
+
+    @Test
+    void generationOutlivesTheConnectionThatStartedIt() {
+        Sinks.Many<String> tokens = Sinks.many().unicast().onBackpressureBuffer();
+        List<ServerSentEvent<String>> received = new CopyOnWriteArrayList<>();
+        Disposable subscription = framer.events(tokens.asFlux()).subscribe(received::add);
+        tokens.tryEmitNext("a");
+        subscription.dispose();
+        tokens.tryEmitNext("b");
+        tokens.tryEmitComplete();
+
+        StepVerifier.create(framer.resume(received.get(0).id()))
+                .assertNext(event -> assertThat(event.data()).isEqualTo("b"))
+                .assertNext(event -> assertThat(event.event()).isEqualTo("done"))
+                .expectComplete()
+                .verify(TIMEOUT);
+    }
+
+    @Test
+    void generationNobodyResumesIsCancelledAfterTheGracePeriod() throws InterruptedException {
+        Sinks.Many<String> tokens = Sinks.many().unicast().onBackpressureBuffer();
+        List<ServerSentEvent<String>> received = new CopyOnWriteArrayList<>();
+        Disposable subscription = framer.events(tokens.asFlux()).subscribe(received::add);
+        tokens.tryEmitNext("a");
+        tokens.tryEmitNext("b");
+        subscription.dispose();
+        assertThat(tokens.currentSubscriberCount()).isOne();
+
+        Thread.sleep(GRACE.multipliedBy(3).toMillis());
+
+        assertThat(tokens.currentSubscriberCount()).isZero();
+        StepVerifier.create(framer.resume(received.get(0).id()))
+                .assertNext(event -> assertThat(event.data()).isEqualTo("b"))
+                .assertNext(event -> {
+                    assertThat(event.event()).isEqualTo("incomplete");
+                    assertThat(event.data()).isEqualTo("cancelled");
+                })
+                .expectComplete()
+                .verify(TIMEOUT);
+    }
+
+    @Test
+    void resumeFollowsAStreamThatIsStillGenerating() {
+        Sinks.Many<String> tokens = Sinks.many().unicast().onBackpressureBuffer();
+        List<ServerSentEvent<String>> received = new CopyOnWriteArrayList<>();
+        framer.events(tokens.asFlux()).subscribe(received::add);
+        tokens.tryEmitNext("a");
+
+        StepVerifier.create(framer.resume(received.get(0).id()))
+                .then(() -> tokens.tryEmitNext("b"))
+                .assertNext(event -> assertThat(event.data()).isEqualTo("b"))
+                .then(tokens::tryEmitComplete)
+                .assertNext(event -> assertThat(event.event()).isEqualTo("done"))
+                .expectComplete()
+                .verify(TIMEOUT);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"stream", "stream:x", "stream:-2", "stream:99999999999999999999"})
+    void malformedLastEventIdsAreRejectedAsBadRequests(String lastEventId) {
+        assertThatIllegalArgumentException().isThrownBy(() -> framer.resume(lastEventId));
+    }
+
+    @Test
+    void sequenceBeyondTheStreamReplaysNothing() {
+        String id = framer.events(Flux.just("a")).blockLast(TIMEOUT).id();
+        String streamId = id.substring(0, id.lastIndexOf(':'));
+
+        StepVerifier.create(framer.resume(streamId + ":" + Long.MAX_VALUE))
+                .assertNext(event -> assertThat(event.event()).isEqualTo("done"))
+                .expectComplete()
+                .verify(TIMEOUT);
+    }
+}
@@ -0,0 +1,150 @@
+package org.example.vibemate.vectorstore;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Recall against a brute-force cosine scan of the same vectors, with and without a filter, and after
+ * removals and replacements have been compacted away.
+ */
+class HnswIndexTests {
+
+    private static final int DIMENSIONS = 32;
+    private static final int COUNT = 2000;
+    private static final int QUERIES = 50;
+    private static final int K = 10;
+    private static final int EF = 64;
+    private static final double MIN_RECALL = 0.9;
+
+    private final Random random = new Random(42);
+    private final Map<String, float[]> vectors = new LinkedHashMap<>();
+    private HnswIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new HnswIndex(16, 200);
+        for (int i = 0; i < COUNT; i++) {
+            float[] vector = randomUnitVector();
+            vectors.put("v" + i, vector);
+            index.add("v" + i, vector);
+        }
+    }
+
+    @Test
+    void searchFindsNearlyAllExactNeighbours() {
+        assertThat(recall(id -> true)).isGreaterThanOrEqualTo(MIN_RECALL);
+    }
+
+    @Test
+    void filteredSearchFindsNearlyAllExactNeighboursThatPassTheFilter() {
+        Predicate<String> even = id -> Integer.parseInt(id.substring(1)) % 2 == 0;
+
+        assertThat(recall(even)).isGreaterThanOrEqualTo(MIN_RECALL);
+    }
+
+    @Test
+    void removedVectorsAreNeverReturnedAndCompactionReclaimsThem() throws IOException {
+        int before = snapshotSize();
+        int tombstones = 0;
+        for (int i = 0; i < COUNT; i += 3) {
+            String id = "v" + i;
+            index.remove(id);
+            vectors.remove(id);
+            tombstones++;
+        }
+        for (int i = 1; i < COUNT; i += 3) {
+            float[] replacement = randomUnitVector();
+            vectors.put("v" + i, replacement);
+            index.add("v" + i, replacement);
+            tombstones++;
+        }
+        assertThat(index.tombstones()).isEqualTo(tombstones);
+        assertThat(recall(id -> true)).isGreaterThanOrEqualTo(MIN_RECALL);
+
+        assertThat(index.compact(0.2)).isTrue();
+
+        assertThat(index.tombstones()).isZero();
+        assertThat(index.size()).isEqualTo(vectors.size());
+        assertThat(snapshotSize()).isLessThan(before);
+        assertThat(recall(id -> true)).isGreaterThanOrEqualTo(MIN_RECALL);
+        assertThat(index.compact(0.2)).isFalse();
+    }
+
+    @Test
+    void reAddingTheSameVectorLeavesNoTombstone() {
+        index.add("v0", vectors.get("v0"));
+
+        assertThat(index.tombstones()).isZero();
+        assertThat(index.size()).isEqualTo(COUNT);
+    }
+
+    @Test
+    void compactedIndexSurvivesASnapshotRoundTrip() throws IOException {
+        for (int i = 0; i < COUNT / 2; i++) {
+            index.remove("v" + i);
+            vectors.remove("v" + i);
+        }
+        index.compact(0.2);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        index.writeTo(new DataOutputStream(bytes));
+
+        index = HnswIndex.readFrom(ByteBuffer.wrap(bytes.toByteArray()), 16, 200);
+
+        assertThat(index.size()).isEqualTo(COUNT / 2);
+        assertThat(recall(id -> true)).isGreaterThanOrEqualTo(MIN_RECALL);
+    }
+
+    private double recall(Predicate<String> accept) {
+        int found = 0;
+        for (int q = 0; q < QUERIES; q++) {
+            float[] query = randomUnitVector();
+            List<String> exact = vectors.entrySet().stream()
+                    .filter(entry -> accept.test(entry.getKey()))
+                    .sorted(Comparator.comparingDouble((Map.Entry<String, float[]> entry) ->
+                            dot(query, entry.getValue())).reversed())
+                    .limit(K)
+                    .map(Map.Entry::getKey)
+                    .toList();
+            List<String> approximate = index.search(query, K, EF, accept).stream()
+                    .map(HnswIndex.Match::id)
+                    .toList();
+            assertThat(approximate).allMatch(vectors::containsKey).allMatch(accept);
+            found += (int) approximate.stream().filter(exact::contains).count();
+        }
+        return (double) found / (QUERIES * K);
+    }
+
+    private int snapshotSize() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        index.writeTo(new DataOutputStream(bytes));
+        return bytes.size();
+    }
+
+    private float[] randomUnitVector() {
+        float[] vector = new float[DIMENSIONS];
+        IntStream.range(0, DIMENSIONS).forEach(i -> vector[i] = (float) random.nextGaussian());
+        double norm = Math.sqrt(dot(vector, vector));
+        for (int i = 0; i < DIMENSIONS; i++) vector[i] /= (float) norm;
+        return vector;
+    }
+
+    private static double dot(float[] a, float[] b) {
+        double dot = 0;
+        for (int i = 0; i < a.length; i++) dot += a[i] * b[i];
+        return dot;
+    }
+}